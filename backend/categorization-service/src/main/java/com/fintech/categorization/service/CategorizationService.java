@@ -2,6 +2,7 @@ package com.fintech.categorization.service;
 
 import com.fintech.categorization.document.CategoryRule;
 import com.fintech.categorization.repository.CategoryRuleRepository;
+import com.fintech.shared.config.RabbitMQConfig;
 import com.fintech.shared.events.TransactionCategorizedEvent;
 import com.fintech.shared.events.TransactionCompletedEvent;
 import lombok.RequiredArgsConstructor;
@@ -76,7 +77,8 @@ public class CategorizationService {
         }
     }
 
-    @RabbitListener(queues = "transaction.completed.queue")
+    @RabbitListener(id = "transaction-completed",
+            queues = RabbitMQConfig.CATEGORIZATION_TRANSACTION_COMPLETED_QUEUE)
     public void handleTransactionCompleted(TransactionCompletedEvent event) {
         log.info("Received transaction for categorization: {}", event.getTransactionId());
 
@@ -122,6 +124,7 @@ public class CategorizationService {
 
         } catch (Exception e) {
             log.error("Error categorizing transaction", e);
+            throw e;
         }
     }
 }
@@ -1,5 +1,6 @@
 package com.fintech.notification.service;
 
+import com.fintech.shared.config.RabbitMQConfig;
 import com.fintech.shared.events.TransactionCategorizedEvent;
 import com.fintech.shared.events.TransactionCompletedEvent;
 import com.fintech.shared.events.TransactionFailedEvent;
@@ -17,7 +18,8 @@ public class NotificationService {
 
     private final JavaMailSender mailSender;
 
-    @RabbitListener(queues = "transaction.completed.queue")
+    @RabbitListener(id = "transaction-completed",
+            queues = RabbitMQConfig.NOTIFICATION_TRANSACTION_COMPLETED_QUEUE)
     public void handleTransactionCompleted(TransactionCompletedEvent event) {
         log.info("Sending notification for completed transaction: {}", event.getTransactionId());
 
@@ -35,7 +37,7 @@ public class NotificationService {
         sendNotification("Transaction Completed", message);
     }
 
-    @RabbitListener(queues = "transaction.failed.queue")
+    @RabbitListener(id = "transaction-failed", queues = RabbitMQConfig.TRANSACTION_FAILED_QUEUE)
     public void handleTransactionFailed(TransactionFailedEvent event) {
         log.info("Sending notification for failed transaction: {}", event.getTransactionId());
 
@@ -53,7 +55,8 @@ public class NotificationService {
         sendNotification("Transaction Failed", message);
     }
 
-    @RabbitListener(queues = "transaction.categorized.queue")
+    @RabbitListener(id = "transaction-categorized",
+            queues = RabbitMQConfig.TRANSACTION_CATEGORIZED_QUEUE)
     public void handleTransactionCategorized(TransactionCategorizedEvent event) {
         log.info("Transaction {} categorized as: {}/{}",
                 event.getTransactionId(), event.getCategory(), event.getSubCategory());
@@ -92,6 +95,8 @@ public class NotificationService {
             log.info("Notification sent successfully");
         } catch (Exception e) {
             log.error("Failed to send notification", e);
+            // Retried through the retry tiers, then dead-lettered to notification.dlq
+            throw e;
         }
     }
 }
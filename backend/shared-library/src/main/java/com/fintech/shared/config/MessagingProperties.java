@@ -0,0 +1,50 @@
+package com.fintech.shared.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@ConfigurationProperties(prefix = "messaging")
+@Data
+public class MessagingProperties {
+
+    // Container settings per @RabbitListener id. Unset values fall back to
+    // spring.rabbitmq.listener.simple.*
+    private Map<String, Listener> listeners = new HashMap<>();
+
+    private Retry retry = new Retry();
+
+    @Data
+    public static class Listener {
+
+        // "min-max" or a fixed number of consumers
+        private String concurrency;
+
+        private Integer prefetch;
+
+        // Messages per delivery for batch listeners
+        private Integer batchSize;
+
+        // How long a batch listener waits for more messages before releasing a partial batch
+        private Duration receiveTimeout;
+    }
+
+    @Data
+    public static class Retry {
+
+        // Delay before each redelivery; a message failing more often goes to the DLQ
+        private List<Duration> tiers = List.of(Duration.ofSeconds(5), Duration.ofSeconds(30), Duration.ofMinutes(5));
+
+        // Each delay is randomized by +/- this fraction so retries do not arrive in waves
+        private double jitter = 0.2;
+
+        // DLQ replays per message before it is moved to the parking lot
+        private int maxReplays = 3;
+    }
+}
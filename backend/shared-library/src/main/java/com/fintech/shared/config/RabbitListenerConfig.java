@@ -0,0 +1,166 @@
+package com.fintech.shared.config;
+
+import com.fintech.shared.messaging.RetryTierAdvice;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.aop.Advice;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.config.ContainerCustomizer;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Listener container factories shared by all services.
+ *
+ * <p>Consumers run on virtual threads, so handlers blocking on SMTP, MongoDB or
+ * JDBC do not hold a platform thread each. Prefetch, concurrency and batch size are
+ * set per listener id under {@code messaging.listeners.<id>}, and every listener
+ * publishes {@code messaging.listener.messages} and {@code messaging.listener.handler}.
+ * Failed single-message deliveries go through the retry tiers ({@link RetryTierAdvice}).
+ */
+@Configuration
+public class RabbitListenerConfig {
+
+    public static final String BATCH_CONTAINER_FACTORY = "batchRabbitListenerContainerFactory";
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            MessagingProperties messagingProperties,
+            MeterRegistry meterRegistry,
+            RabbitTemplate rabbitTemplate) {
+        return createFactory(configurer, connectionFactory, messagingProperties, meterRegistry, rabbitTemplate,
+                false);
+    }
+
+    // Delivers List<T> to the listener; acknowledged once the whole batch is handled
+    @Bean(BATCH_CONTAINER_FACTORY)
+    public SimpleRabbitListenerContainerFactory batchRabbitListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            MessagingProperties messagingProperties,
+            MeterRegistry meterRegistry,
+            RabbitTemplate rabbitTemplate) {
+        return createFactory(configurer, connectionFactory, messagingProperties, meterRegistry, rabbitTemplate,
+                true);
+    }
+
+    private SimpleRabbitListenerContainerFactory createFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            MessagingProperties messagingProperties,
+            MeterRegistry meterRegistry,
+            RabbitTemplate rabbitTemplate,
+            boolean batch) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setTaskExecutor(new VirtualThreadTaskExecutor("rabbit-listener-"));
+        // Failures are retried through the retry tiers, then dead-lettered; never requeued in place
+        factory.setDefaultRequeueRejected(false);
+        if (batch) {
+            factory.setBatchListener(true);
+            factory.setConsumerBatchEnabled(true);
+        }
+        // Batch deliveries are not split for retry: a failed batch goes to the DLQ as a whole
+        RabbitTemplate retryPublisher = batch ? null : rabbitTemplate;
+        factory.setContainerCustomizer(listenerCustomizer(messagingProperties, meterRegistry, retryPublisher,
+                factory.getAdviceChain()));
+        return factory;
+    }
+
+    // Runs after the endpoint attributes are applied, so properties take precedence
+    private ContainerCustomizer<SimpleMessageListenerContainer> listenerCustomizer(
+            MessagingProperties messagingProperties, MeterRegistry meterRegistry, RabbitTemplate retryPublisher,
+            Advice[] configuredAdvice) {
+        return container -> {
+            String listenerId = container.getListenerId();
+            MessagingProperties.Listener settings = messagingProperties.getListeners().get(listenerId);
+            if (settings != null) {
+                if (settings.getConcurrency() != null) {
+                    applyConcurrency(container, settings.getConcurrency());
+                }
+                if (settings.getPrefetch() != null) {
+                    container.setPrefetchCount(settings.getPrefetch());
+                }
+                if (settings.getBatchSize() != null) {
+                    container.setBatchSize(settings.getBatchSize());
+                }
+                if (settings.getReceiveTimeout() != null) {
+                    container.setReceiveTimeout(settings.getReceiveTimeout().toMillis());
+                }
+            }
+
+            // Retry tiers outermost so the metrics still see the failure of the attempt
+            List<Advice> adviceChain = new ArrayList<>();
+            if (retryPublisher != null) {
+                adviceChain.add(new RetryTierAdvice(retryPublisher, messagingProperties.getRetry(), meterRegistry,
+                        listenerId));
+            }
+            adviceChain.add(metricsAdvice(listenerId, meterRegistry));
+            if (configuredAdvice != null) {
+                adviceChain.addAll(Arrays.asList(configuredAdvice));
+            }
+            container.setAdviceChain(adviceChain.toArray(Advice[]::new));
+        };
+    }
+
+    private static void applyConcurrency(SimpleMessageListenerContainer container, String concurrency) {
+        int separator = concurrency.indexOf('-');
+        if (separator < 0) {
+            int consumers = Integer.parseInt(concurrency.trim());
+            container.setConcurrentConsumers(consumers);
+            container.setMaxConcurrentConsumers(consumers);
+            return;
+        }
+        int min = Integer.parseInt(concurrency.substring(0, separator).trim());
+        int max = Integer.parseInt(concurrency.substring(separator + 1).trim());
+        // Raise the max first: setConcurrentConsumers rejects values above the current max
+        container.setMaxConcurrentConsumers(max);
+        container.setConcurrentConsumers(min);
+    }
+
+    // Wraps each delivery (one message, or one batch for batch listeners)
+    private static MethodInterceptor metricsAdvice(String listenerId, MeterRegistry meterRegistry) {
+        Counter messages = meterRegistry.counter("messaging.listener.messages", "listener", listenerId);
+        Timer success = Timer.builder("messaging.listener.handler")
+                .tag("listener", listenerId)
+                .tag("outcome", "success")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        Timer failure = Timer.builder("messaging.listener.handler")
+                .tag("listener", listenerId)
+                .tag("outcome", "failure")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+
+        return invocation -> {
+            Object[] arguments = invocation.getArguments();
+            Object data = arguments.length > 1 ? arguments[1] : null;
+            messages.increment(data instanceof Collection<?> batch ? batch.size() : data instanceof Message ? 1 : 0);
+
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                Object result = invocation.proceed();
+                sample.stop(success);
+                return result;
+            } catch (Throwable e) {
+                sample.stop(failure);
+                throw e;
+            }
+        };
+    }
+}
@@ -1,14 +1,20 @@
 package com.fintech.shared.config;
 
+import com.fintech.shared.messaging.EventMessageConverter;
 import org.springframework.amqp.core.*;
 import org.springframework.amqp.rabbit.annotation.EnableRabbit;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 @Configuration
 @EnableRabbit
 public class RabbitMQConfig {
@@ -18,10 +24,13 @@ public class RabbitMQConfig {
     public static final String CATEGORIZATION_EXCHANGE = "categorization.events";
     public static final String NOTIFICATION_EXCHANGE = "notification.events";
 
-    // Queue names
-    public static final String TRANSACTION_COMPLETED_QUEUE = "transaction.completed.queue";
+    // Queue names. Each consuming service gets its own copy of transaction.completed
+    public static final String WALLET_TRANSACTION_COMPLETED_QUEUE = "wallet.transaction.completed.queue";
+    public static final String CATEGORIZATION_TRANSACTION_COMPLETED_QUEUE = "categorization.transaction.completed.queue";
+    public static final String NOTIFICATION_TRANSACTION_COMPLETED_QUEUE = "notification.transaction.completed.queue";
     public static final String TRANSACTION_FAILED_QUEUE = "transaction.failed.queue";
     public static final String TRANSACTION_CATEGORIZED_QUEUE = "transaction.categorized.queue";
+    public static final String TRANSACTION_CATEGORY_WRITEBACK_QUEUE = "transaction.category-writeback.queue";
 
     // Routing keys
     public static final String TRANSACTION_COMPLETED_ROUTING_KEY = "transaction.completed";
@@ -30,18 +39,36 @@ public class RabbitMQConfig {
 
     // Dead Letter Queues
     public static final String TRANSACTION_DLQ = "transaction.dlq";
+    public static final String WALLET_DLQ = "wallet.dlq";
     public static final String CATEGORIZATION_DLQ = "categorization.dlq";
     public static final String NOTIFICATION_DLQ = "notification.dlq";
 
+    // Parking lots: messages still failing after max-replays DLQ replays, kept for manual handling
+    public static final String TRANSACTION_PARKING_LOT = "transaction.parking-lot";
+    public static final String WALLET_PARKING_LOT = "wallet.parking-lot";
+    public static final String CATEGORIZATION_PARKING_LOT = "categorization.parking-lot";
+    public static final String NOTIFICATION_PARKING_LOT = "notification.parking-lot";
+
+    public static final Map<String, String> DEAD_LETTER_PARKING_LOTS = Map.of(
+            TRANSACTION_DLQ, TRANSACTION_PARKING_LOT,
+            WALLET_DLQ, WALLET_PARKING_LOT,
+            CATEGORIZATION_DLQ, CATEGORIZATION_PARKING_LOT,
+            NOTIFICATION_DLQ, NOTIFICATION_PARKING_LOT);
+
+    // Retry tiers: messaging.retry.1, .2, ... (fanout exchange + queue of the same name)
+    public static final String RETRY_TIER_PREFIX = "messaging.retry.";
+
+    // Consumers read JSON and binary events; messaging.event-format picks what producers write
     @Bean
-    public MessageConverter jsonMessageConverter() {
-        return new Jackson2JsonMessageConverter();
+    public MessageConverter eventMessageConverter(
+            @Value("${messaging.event-format:json}") EventMessageConverter.EventFormat eventFormat) {
+        return new EventMessageConverter(new Jackson2JsonMessageConverter(), eventFormat);
     }
 
     @Bean
-    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
+    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory, MessageConverter eventMessageConverter) {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
-        rabbitTemplate.setMessageConverter(jsonMessageConverter());
+        rabbitTemplate.setMessageConverter(eventMessageConverter);
         return rabbitTemplate;
     }
 
@@ -63,11 +90,18 @@ public class RabbitMQConfig {
 
     // ==================== QUEUES ====================
     @Bean
-    public Queue transactionCompletedQueue() {
-        return QueueBuilder.durable(TRANSACTION_COMPLETED_QUEUE)
-                .withArgument("x-dead-letter-exchange", "")
-                .withArgument("x-dead-letter-routing-key", TRANSACTION_DLQ)
-                .build();
+    public Queue walletTransactionCompletedQueue() {
+        return deadLetteredQueue(WALLET_TRANSACTION_COMPLETED_QUEUE, WALLET_DLQ);
+    }
+
+    @Bean
+    public Queue categorizationTransactionCompletedQueue() {
+        return deadLetteredQueue(CATEGORIZATION_TRANSACTION_COMPLETED_QUEUE, CATEGORIZATION_DLQ);
+    }
+
+    @Bean
+    public Queue notificationTransactionCompletedQueue() {
+        return deadLetteredQueue(NOTIFICATION_TRANSACTION_COMPLETED_QUEUE, NOTIFICATION_DLQ);
     }
 
     @Bean
@@ -86,12 +120,26 @@ public class RabbitMQConfig {
                 .build();
     }
 
+    // Category results written back by transaction-service
+    @Bean
+    public Queue transactionCategoryWritebackQueue() {
+        return QueueBuilder.durable(TRANSACTION_CATEGORY_WRITEBACK_QUEUE)
+                .withArgument("x-dead-letter-exchange", "")
+                .withArgument("x-dead-letter-routing-key", CATEGORIZATION_DLQ)
+                .build();
+    }
+
     // Dead Letter Queues
     @Bean
     public Queue transactionDLQ() {
         return QueueBuilder.durable(TRANSACTION_DLQ).build();
     }
 
+    @Bean
+    public Queue walletDLQ() {
+        return QueueBuilder.durable(WALLET_DLQ).build();
+    }
+
     @Bean
     public Queue categorizationDLQ() {
         return QueueBuilder.durable(CATEGORIZATION_DLQ).build();
@@ -102,11 +150,60 @@ public class RabbitMQConfig {
         return QueueBuilder.durable(NOTIFICATION_DLQ).build();
     }
 
+    @Bean
+    public Declarables parkingLots() {
+        return new Declarables(DEAD_LETTER_PARKING_LOTS.values().stream()
+                .map(name -> QueueBuilder.durable(name).build())
+                .toList());
+    }
+
+    /**
+     * One delay queue per retry tier. A retried message is published to the tier's
+     * fanout exchange with the consuming queue as routing key and a per-message TTL;
+     * on expiry it is dead-lettered through the default exchange, which routes it
+     * back to that queue.
+     */
+    @Bean
+    public Declarables retryTiers(MessagingProperties messagingProperties) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (int tier = 0; tier < messagingProperties.getRetry().getTiers().size(); tier++) {
+            String name = retryTier(tier);
+            FanoutExchange exchange = new FanoutExchange(name, true, false);
+            Queue queue = QueueBuilder.durable(name)
+                    .withArgument("x-dead-letter-exchange", "")
+                    .build();
+            declarables.add(exchange);
+            declarables.add(queue);
+            declarables.add(BindingBuilder.bind(queue).to(exchange));
+        }
+        return new Declarables(declarables);
+    }
+
+    public static String retryTier(int tier) {
+        return RETRY_TIER_PREFIX + (tier + 1);
+    }
+
     // ==================== BINDINGS ====================
     @Bean
-    public Binding transactionCompletedBinding() {
+    public Binding walletTransactionCompletedBinding() {
+        return BindingBuilder
+                .bind(walletTransactionCompletedQueue())
+                .to(transactionExchange())
+                .with(TRANSACTION_COMPLETED_ROUTING_KEY);
+    }
+
+    @Bean
+    public Binding categorizationTransactionCompletedBinding() {
+        return BindingBuilder
+                .bind(categorizationTransactionCompletedQueue())
+                .to(transactionExchange())
+                .with(TRANSACTION_COMPLETED_ROUTING_KEY);
+    }
+
+    @Bean
+    public Binding notificationTransactionCompletedBinding() {
         return BindingBuilder
-                .bind(transactionCompletedQueue())
+                .bind(notificationTransactionCompletedQueue())
                 .to(transactionExchange())
                 .with(TRANSACTION_COMPLETED_ROUTING_KEY);
     }
@@ -126,4 +223,20 @@ public class RabbitMQConfig {
                 .to(categorizationExchange())
                 .with(TRANSACTION_CATEGORIZED_ROUTING_KEY);
     }
+
+    @Bean
+    public Binding transactionCategoryWritebackBinding() {
+        return BindingBuilder
+                .bind(transactionCategoryWritebackQueue())
+                .to(categorizationExchange())
+                .with(TRANSACTION_CATEGORIZED_ROUTING_KEY);
+    }
+
+    // Rejected messages go to the consuming service's DLQ through the default exchange
+    private static Queue deadLetteredQueue(String name, String deadLetterQueue) {
+        return QueueBuilder.durable(name)
+                .withArgument("x-dead-letter-exchange", "")
+                .withArgument("x-dead-letter-routing-key", deadLetterQueue)
+                .build();
+    }
 }
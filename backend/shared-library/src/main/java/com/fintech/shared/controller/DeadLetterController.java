@@ -0,0 +1,45 @@
+package com.fintech.shared.controller;
+
+import com.fintech.shared.dto.DeadLetterReplayDTO;
+import com.fintech.shared.messaging.DeadLetterReplayService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Operator endpoints for dead-lettered messages. Exposed on each service's own port
+ * only; the gateway does not route /internal.
+ */
+@RestController
+@RequestMapping("/internal/messaging/dead-letters")
+@RequiredArgsConstructor
+public class DeadLetterController {
+
+    private final DeadLetterReplayService replayService;
+
+    @GetMapping
+    public ResponseEntity<List<DeadLetterReplayDTO>> getDeadLetterQueues() {
+        return ResponseEntity.ok(replayService.getStatus());
+    }
+
+    @GetMapping("/{queue}")
+    public ResponseEntity<DeadLetterReplayDTO> getDeadLetterQueue(@PathVariable String queue) {
+        return ResponseEntity.ok(replayService.getStatus(queue));
+    }
+
+    @PostMapping("/{queue}/replay")
+    public ResponseEntity<DeadLetterReplayDTO> replay(@PathVariable String queue,
+            @RequestParam(defaultValue = "10") double ratePerSecond,
+            @RequestParam(defaultValue = "1000") long maxMessages) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(replayService.startReplay(queue, ratePerSecond, maxMessages));
+    }
+
+    @DeleteMapping("/{queue}/replay")
+    public ResponseEntity<DeadLetterReplayDTO> cancelReplay(@PathVariable String queue) {
+        return ResponseEntity.ok(replayService.cancelReplay(queue));
+    }
+}
@@ -0,0 +1,26 @@
+package com.fintech.shared.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetterReplayDTO {
+    private String queue;
+    private String parkingLot;
+    private long depth; // Messages currently in the DLQ
+    private long parkingLotDepth;
+
+    private String replayStatus; // IDLE, RUNNING, COMPLETED, CANCELLED, FAILED
+    private double ratePerSecond;
+    private long replayed; // Sent back to their original queue
+    private long parked; // Moved to the parking lot
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
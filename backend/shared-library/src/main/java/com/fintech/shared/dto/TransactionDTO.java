@@ -28,6 +28,16 @@ public class TransactionDTO {
     @NotBlank(message = "Currency is required")
     private String currency;
 
+    private BigDecimal sourceAmount; // Debited, in the source wallet's currency
+
+    private BigDecimal destinationAmount; // Credited, in the destination wallet's currency
+
+    private String sourceCurrency;
+
+    private String destinationCurrency;
+
+    private Long fxRateVersion; // Null when no conversion was needed
+
     @NotBlank(message = "Transaction type is required")
     private String transactionType; // TRANSFER, DEPOSIT, WITHDRAWAL, PAYMENT
 
@@ -0,0 +1,20 @@
+package com.fintech.shared.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletBalanceDTO {
+    private Long id;
+
+    private BigDecimal balance;
+
+    private BigDecimal openingBalance; // Balance at creation, null for wallets created before it was recorded
+}
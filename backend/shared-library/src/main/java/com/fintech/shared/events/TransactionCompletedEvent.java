@@ -23,6 +23,7 @@ public class TransactionCompletedEvent {
     private String description;
     private String reference;
     private LocalDateTime completedAt;
+    private BigDecimal destinationAmount; // Credited amount, in the destination wallet's currency
 
     public static final String ROUTING_KEY = "transaction.completed";
     public static final String EXCHANGE = "transaction.events";
@@ -0,0 +1,328 @@
+package com.fintech.shared.messaging;
+
+import com.fintech.shared.events.TransactionCategorizedEvent;
+import com.fintech.shared.events.TransactionCompletedEvent;
+import com.fintech.shared.events.TransactionFailedEvent;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Versioned binary encoding of the transaction events.
+ *
+ * <p>Layout: {@code version (1 byte) | event type (1 byte) | presence bitmap (varint) | fields}.
+ * Only non-null fields are written, in declaration order. Integers are zig-zag
+ * varints, decimals are a scale plus an unscaled varint, date-times are epoch
+ * seconds (the local time read as UTC) plus nanos, strings are length-prefixed UTF-8.
+ *
+ * <p>Any change to a field list needs a new {@link #VERSION}; decoders reject
+ * versions they do not know, so consumers must be upgraded before producers.
+ */
+public final class CompactEventCodec {
+
+    public static final byte VERSION = 1;
+
+    private static final byte TYPE_COMPLETED = 1;
+    private static final byte TYPE_FAILED = 2;
+    private static final byte TYPE_CATEGORIZED = 3;
+
+    private enum Kind {
+        LONG, DECIMAL, STRING, DATE_TIME, DOUBLE
+    }
+
+    private static final Kind[] COMPLETED_FIELDS = {
+            Kind.LONG, Kind.LONG, Kind.LONG, Kind.LONG, Kind.DECIMAL,
+            Kind.STRING, Kind.STRING, Kind.STRING, Kind.STRING, Kind.DATE_TIME, Kind.DECIMAL };
+
+    private static final Kind[] FAILED_FIELDS = {
+            Kind.LONG, Kind.LONG, Kind.LONG, Kind.LONG, Kind.DECIMAL,
+            Kind.STRING, Kind.STRING, Kind.STRING, Kind.STRING, Kind.STRING, Kind.DATE_TIME };
+
+    private static final Kind[] CATEGORIZED_FIELDS = {
+            Kind.LONG, Kind.LONG, Kind.STRING, Kind.STRING, Kind.DOUBLE, Kind.STRING, Kind.DATE_TIME };
+
+    private CompactEventCodec() {
+    }
+
+    public static boolean supports(Class<?> type) {
+        return type == TransactionCompletedEvent.class
+                || type == TransactionFailedEvent.class
+                || type == TransactionCategorizedEvent.class;
+    }
+
+    public static byte[] encode(Object event) {
+        if (event instanceof TransactionCompletedEvent e) {
+            return write(TYPE_COMPLETED, COMPLETED_FIELDS, e.getTransactionId(), e.getUserId(),
+                    e.getSourceWalletId(), e.getDestinationWalletId(), e.getAmount(), e.getCurrency(),
+                    e.getTransactionType(), e.getDescription(), e.getReference(), e.getCompletedAt(),
+                    e.getDestinationAmount());
+        }
+        if (event instanceof TransactionFailedEvent e) {
+            return write(TYPE_FAILED, FAILED_FIELDS, e.getTransactionId(), e.getUserId(),
+                    e.getSourceWalletId(), e.getDestinationWalletId(), e.getAmount(), e.getCurrency(),
+                    e.getTransactionType(), e.getDescription(), e.getFailureReason(), e.getErrorCode(),
+                    e.getFailedAt());
+        }
+        if (event instanceof TransactionCategorizedEvent e) {
+            return write(TYPE_CATEGORIZED, CATEGORIZED_FIELDS, e.getTransactionId(), e.getUserId(),
+                    e.getCategory(), e.getSubCategory(), e.getConfidenceScore(), e.getCategorizationMethod(),
+                    e.getCategorizedAt());
+        }
+        throw new IllegalArgumentException("Unsupported event type: " + event.getClass().getName());
+    }
+
+    public static Object decode(byte[] payload) {
+        Reader reader = new Reader(payload);
+        byte version = reader.readByte();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported event encoding version: " + version);
+        }
+        byte type = reader.readByte();
+        return switch (type) {
+            case TYPE_COMPLETED -> {
+                Object[] v = reader.readFields(COMPLETED_FIELDS);
+                yield TransactionCompletedEvent.builder()
+                        .transactionId((Long) v[0])
+                        .userId((Long) v[1])
+                        .sourceWalletId((Long) v[2])
+                        .destinationWalletId((Long) v[3])
+                        .amount((BigDecimal) v[4])
+                        .currency((String) v[5])
+                        .transactionType((String) v[6])
+                        .description((String) v[7])
+                        .reference((String) v[8])
+                        .completedAt((LocalDateTime) v[9])
+                        .destinationAmount((BigDecimal) v[10])
+                        .build();
+            }
+            case TYPE_FAILED -> {
+                Object[] v = reader.readFields(FAILED_FIELDS);
+                yield TransactionFailedEvent.builder()
+                        .transactionId((Long) v[0])
+                        .userId((Long) v[1])
+                        .sourceWalletId((Long) v[2])
+                        .destinationWalletId((Long) v[3])
+                        .amount((BigDecimal) v[4])
+                        .currency((String) v[5])
+                        .transactionType((String) v[6])
+                        .description((String) v[7])
+                        .failureReason((String) v[8])
+                        .errorCode((String) v[9])
+                        .failedAt((LocalDateTime) v[10])
+                        .build();
+            }
+            case TYPE_CATEGORIZED -> {
+                Object[] v = reader.readFields(CATEGORIZED_FIELDS);
+                yield TransactionCategorizedEvent.builder()
+                        .transactionId((Long) v[0])
+                        .userId((Long) v[1])
+                        .category((String) v[2])
+                        .subCategory((String) v[3])
+                        .confidenceScore((Double) v[4])
+                        .categorizationMethod((String) v[5])
+                        .categorizedAt((LocalDateTime) v[6])
+                        .build();
+            }
+            default -> throw new IllegalArgumentException("Unknown event type: " + type);
+        };
+    }
+
+    private static byte[] write(byte type, Kind[] kinds, Object... values) {
+        Writer writer = new Writer();
+        writer.writeByte(VERSION);
+        writer.writeByte(type);
+
+        long presence = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                presence |= 1L << i;
+            }
+        }
+        writer.writeVarLong(presence);
+
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value == null) {
+                continue;
+            }
+            switch (kinds[i]) {
+                case LONG -> writer.writeSignedVarLong((Long) value);
+                case DECIMAL -> writer.writeDecimal((BigDecimal) value);
+                case STRING -> writer.writeString((String) value);
+                case DATE_TIME -> writer.writeDateTime((LocalDateTime) value);
+                case DOUBLE -> writer.writeLong(Double.doubleToLongBits((Double) value));
+            }
+        }
+        return writer.toByteArray();
+    }
+
+    private static final class Writer {
+
+        private byte[] buffer = new byte[128];
+        private int position;
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[position++] = (byte) value;
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void writeSignedVarLong(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        void writeLong(long value) {
+            ensureCapacity(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[position++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeBytes(byte[] bytes) {
+            writeVarLong(bytes.length);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        void writeString(String value) {
+            writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        // Header = zig-zag scale << 1 | 1 when the unscaled value does not fit in a long
+        void writeDecimal(BigDecimal value) {
+            BigInteger unscaled = value.unscaledValue();
+            long zigzagScale = ((long) value.scale() << 1) ^ (value.scale() >> 31);
+            if (unscaled.bitLength() < 64) {
+                writeVarLong(zigzagScale << 1);
+                writeSignedVarLong(unscaled.longValue());
+            } else {
+                writeVarLong((zigzagScale << 1) | 1);
+                writeBytes(unscaled.toByteArray());
+            }
+        }
+
+        void writeDateTime(LocalDateTime value) {
+            writeSignedVarLong(value.toEpochSecond(ZoneOffset.UTC));
+            writeVarLong(value.getNano());
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (position + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+            }
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] buffer;
+        private int position;
+
+        Reader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        Object[] readFields(Kind[] kinds) {
+            long presence = readVarLong();
+            Object[] values = new Object[kinds.length];
+            for (int i = 0; i < kinds.length; i++) {
+                if ((presence & (1L << i)) == 0) {
+                    continue;
+                }
+                values[i] = switch (kinds[i]) {
+                    case LONG -> readSignedVarLong();
+                    case DECIMAL -> readDecimal();
+                    case STRING -> readString();
+                    case DATE_TIME -> readDateTime();
+                    case DOUBLE -> Double.longBitsToDouble(readLong());
+                };
+            }
+            return values;
+        }
+
+        byte readByte() {
+            if (position >= buffer.length) {
+                throw new IllegalArgumentException("Truncated event payload");
+            }
+            return buffer[position++];
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in event payload");
+        }
+
+        long readSignedVarLong() {
+            long raw = readVarLong();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        long readLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (readByte() & 0xFF);
+            }
+            return value;
+        }
+
+        byte[] readBytes() {
+            int length = Math.toIntExact(readVarLong());
+            if (length > buffer.length - position) {
+                throw new IllegalArgumentException("Truncated event payload");
+            }
+            byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+            position += length;
+            return bytes;
+        }
+
+        String readString() {
+            int length = Math.toIntExact(readVarLong());
+            if (length > buffer.length - position) {
+                throw new IllegalArgumentException("Truncated event payload");
+            }
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        BigDecimal readDecimal() {
+            long header = readVarLong();
+            long zigzagScale = header >>> 1;
+            int scale = (int) ((zigzagScale >>> 1) ^ -(zigzagScale & 1));
+            if ((header & 1) == 0) {
+                return BigDecimal.valueOf(readSignedVarLong(), scale);
+            }
+            return new BigDecimal(new BigInteger(readBytes()), scale);
+        }
+
+        LocalDateTime readDateTime() {
+            long epochSecond = readSignedVarLong();
+            int nanos = Math.toIntExact(readVarLong());
+            return LocalDateTime.ofEpochSecond(epochSecond, nanos, ZoneOffset.UTC);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.fintech.shared.messaging;
+
+import com.fintech.shared.config.MessagingProperties;
+import com.fintech.shared.config.RabbitMQConfig;
+import com.fintech.shared.dto.DeadLetterReplayDTO;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.GetResponse;
+import com.rabbitmq.client.ReturnListener;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves dead-lettered messages back to the queue they were rejected from, at a fixed
+ * rate so that a dependency that just recovered is not flooded.
+ *
+ * <p>Each replayed message gets its retry count reset and its replay count
+ * incremented. Messages already replayed {@code messaging.retry.max-replays} times,
+ * or whose origin cannot be determined, go to the DLQ's parking lot instead.
+ * Messages are fetched and acknowledged one at a time, and a DLQ copy is acknowledged
+ * only once the broker has confirmed the republished message. Replays are published
+ * as mandatory: a message whose origin queue no longer exists is returned by the
+ * broker and parked instead. A crash mid-replay loses nothing (it can at most
+ * duplicate one message).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DeadLetterReplayService {
+
+    public static final String REPLAY_COUNT_HEADER = "x-replay-count";
+
+    private static final long CONFIRM_TIMEOUT_MILLIS = 5_000;
+
+    private final RabbitTemplate rabbitTemplate;
+    private final MessagingProperties messagingProperties;
+
+    private final Map<String, ReplayJob> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(job -> job.cancelled = true);
+        executor.shutdownNow();
+    }
+
+    public List<DeadLetterReplayDTO> getStatus() {
+        return RabbitMQConfig.DEAD_LETTER_PARKING_LOTS.keySet().stream()
+                .sorted()
+                .map(this::getStatus)
+                .toList();
+    }
+
+    public DeadLetterReplayDTO getStatus(String queue) {
+        String parkingLot = parkingLotFor(queue);
+        DeadLetterReplayDTO.DeadLetterReplayDTOBuilder status = DeadLetterReplayDTO.builder()
+                .queue(queue)
+                .parkingLot(parkingLot)
+                .depth(depth(queue))
+                .parkingLotDepth(depth(parkingLot))
+                .replayStatus("IDLE");
+
+        ReplayJob job = jobs.get(queue);
+        if (job != null) {
+            status.replayStatus(job.status)
+                    .ratePerSecond(job.ratePerSecond)
+                    .replayed(job.replayed.get())
+                    .parked(job.parked.get())
+                    .startedAt(job.startedAt)
+                    .finishedAt(job.finishedAt);
+        }
+        return status.build();
+    }
+
+    public DeadLetterReplayDTO startReplay(String queue, double ratePerSecond, long maxMessages) {
+        String parkingLot = parkingLotFor(queue);
+        if (ratePerSecond <= 0 || maxMessages <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Rate and message limit must be positive");
+        }
+
+        ReplayJob job = new ReplayJob(ratePerSecond);
+        ReplayJob existing = jobs.compute(queue,
+                (key, current) -> current != null && "RUNNING".equals(current.status) ? current : job);
+        if (existing != job) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A replay of " + queue + " is already running");
+        }
+
+        log.info("Replaying up to {} messages from {} at {}/s", maxMessages, queue, ratePerSecond);
+        executor.submit(() -> run(job, queue, parkingLot, maxMessages));
+        return getStatus(queue);
+    }
+
+    public DeadLetterReplayDTO cancelReplay(String queue) {
+        parkingLotFor(queue);
+        ReplayJob job = jobs.get(queue);
+        if (job != null) {
+            job.cancelled = true;
+        }
+        return getStatus(queue);
+    }
+
+    private void run(ReplayJob job, String queue, String parkingLot, long maxMessages) {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / job.ratePerSecond);
+        long next = System.nanoTime();
+        try {
+            for (long moved = 0; moved < maxMessages && !job.cancelled; moved++) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                next += intervalNanos;
+
+                Boolean found = rabbitTemplate.execute(channel -> replayOne(channel, job, queue, parkingLot));
+                if (!Boolean.TRUE.equals(found)) {
+                    break;
+                }
+            }
+            job.status = job.cancelled ? "CANCELLED" : "COMPLETED";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.status = "CANCELLED";
+        } catch (Exception e) {
+            log.error("Replay of {} failed", queue, e);
+            job.status = "FAILED";
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            log.info("Replay of {} {}: {} replayed, {} parked", queue, job.status, job.replayed.get(),
+                    job.parked.get());
+        }
+    }
+
+    private boolean replayOne(Channel channel, ReplayJob job, String queue, String parkingLot)
+            throws IOException, InterruptedException, TimeoutException {
+        channel.confirmSelect(); // No-op once the channel is in confirm mode
+        GetResponse response = channel.basicGet(queue, false);
+        if (response == null) {
+            return false;
+        }
+        long deliveryTag = response.getEnvelope().getDeliveryTag();
+
+        AMQP.BasicProperties properties = response.getProps();
+        Map<String, Object> headers = properties.getHeaders() != null
+                ? new HashMap<>(properties.getHeaders())
+                : new HashMap<>();
+        String origin = rejectedFrom(headers);
+        int replays = headers.get(REPLAY_COUNT_HEADER) instanceof Number number ? number.intValue() : 0;
+
+        boolean replayed = false;
+        if (origin != null && replays < messagingProperties.getRetry().getMaxReplays()) {
+            headers.put(REPLAY_COUNT_HEADER, replays + 1);
+            headers.remove(RetryTierAdvice.RETRY_COUNT_HEADER);
+            replayed = publishConfirmed(channel, origin,
+                    properties.builder().headers(headers).expiration(null).build(), response.getBody());
+            if (!replayed) {
+                log.warn("Queue {} no longer exists, parking message from {}", origin, queue);
+            }
+        }
+        if (replayed) {
+            job.replayed.incrementAndGet();
+        } else if (publishConfirmed(channel, parkingLot, properties, response.getBody())) {
+            job.parked.incrementAndGet();
+        } else {
+            channel.basicNack(deliveryTag, false, true);
+            throw new IllegalStateException("Parking lot " + parkingLot + " does not exist");
+        }
+        channel.basicAck(deliveryTag, false);
+        return true;
+    }
+
+    // False when the broker returned the message as unroutable; throws when it was not confirmed in time
+    private static boolean publishConfirmed(Channel channel, String queue, AMQP.BasicProperties properties,
+            byte[] body) throws IOException, InterruptedException, TimeoutException {
+        AtomicBoolean returned = new AtomicBoolean();
+        ReturnListener listener = channel.addReturnListener(message -> returned.set(true));
+        try {
+            channel.basicPublish("", queue, true, properties, body);
+            // The broker sends the return before the confirm
+            channel.waitForConfirmsOrDie(CONFIRM_TIMEOUT_MILLIS);
+        } finally {
+            channel.removeReturnListener(listener);
+        }
+        return !returned.get();
+    }
+
+    // x-death entries are most recent first; the rejection names the consuming queue
+    private static String rejectedFrom(Map<String, Object> headers) {
+        if (!(headers.get("x-death") instanceof List<?> deaths)) {
+            return null;
+        }
+        for (Object death : deaths) {
+            if (death instanceof Map<?, ?> entry && "rejected".equals(String.valueOf(entry.get("reason")))) {
+                return String.valueOf(entry.get("queue"));
+            }
+        }
+        return null;
+    }
+
+    private long depth(String queue) {
+        Long count = rabbitTemplate.execute(channel -> (long) channel.queueDeclarePassive(queue).getMessageCount());
+        return count != null ? count : 0;
+    }
+
+    private static String parkingLotFor(String queue) {
+        String parkingLot = RabbitMQConfig.DEAD_LETTER_PARKING_LOTS.get(queue);
+        if (parkingLot == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown dead-letter queue: " + queue);
+        }
+        return parkingLot;
+    }
+
+    private static final class ReplayJob {
+
+        private final double ratePerSecond;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicLong replayed = new AtomicLong();
+        private final AtomicLong parked = new AtomicLong();
+        private volatile String status = "RUNNING";
+        private volatile boolean cancelled;
+        private volatile LocalDateTime finishedAt;
+
+        ReplayJob(double ratePerSecond) {
+            this.ratePerSecond = ratePerSecond;
+        }
+    }
+}
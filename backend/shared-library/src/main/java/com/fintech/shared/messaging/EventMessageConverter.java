@@ -0,0 +1,55 @@
+package com.fintech.shared.messaging;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+/**
+ * Reads events in either JSON or {@link CompactEventCodec} binary form, chosen by
+ * the message content type, and writes them in the configured format. Payloads the
+ * binary codec does not cover are always written as JSON.
+ *
+ * <p>Rollout: deploy every consumer first (they read both formats), then switch
+ * producers to {@link EventFormat#BINARY}.
+ */
+public class EventMessageConverter implements MessageConverter {
+
+    public static final String BINARY_CONTENT_TYPE = "application/vnd.fintech.event+binary";
+
+    public enum EventFormat {
+        JSON,
+        BINARY
+    }
+
+    private final MessageConverter jsonConverter;
+    private final EventFormat producerFormat;
+
+    public EventMessageConverter(MessageConverter jsonConverter, EventFormat producerFormat) {
+        this.jsonConverter = jsonConverter;
+        this.producerFormat = producerFormat;
+    }
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) {
+        if (producerFormat == EventFormat.BINARY && CompactEventCodec.supports(object.getClass())) {
+            byte[] body = CompactEventCodec.encode(object);
+            messageProperties.setContentType(BINARY_CONTENT_TYPE);
+            messageProperties.setContentLength(body.length);
+            return new Message(body, messageProperties);
+        }
+        return jsonConverter.toMessage(object, messageProperties);
+    }
+
+    @Override
+    public Object fromMessage(Message message) {
+        if (BINARY_CONTENT_TYPE.equals(message.getMessageProperties().getContentType())) {
+            try {
+                return CompactEventCodec.decode(message.getBody());
+            } catch (RuntimeException e) {
+                throw new MessageConversionException("Could not decode binary event", e);
+            }
+        }
+        return jsonConverter.fromMessage(message);
+    }
+}
@@ -0,0 +1,94 @@
+package com.fintech.shared.messaging;
+
+import com.fintech.shared.config.MessagingProperties;
+import com.fintech.shared.config.RabbitMQConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Listener advice that turns a failed delivery into a delayed retry: the message is
+ * republished to the next retry tier and the original is acknowledged. Once all
+ * tiers are used, or for failures that cannot succeed on retry (unreadable payload,
+ * explicit {@link AmqpRejectAndDontRequeueException}), the exception propagates and
+ * the message is dead-lettered to the queue's DLQ.
+ */
+@Slf4j
+public class RetryTierAdvice implements MethodInterceptor {
+
+    public static final String RETRY_COUNT_HEADER = "x-retry-count";
+
+    private final RabbitTemplate rabbitTemplate;
+    private final List<Duration> tiers;
+    private final double jitter;
+    private final MeterRegistry meterRegistry;
+    private final String listenerId;
+
+    public RetryTierAdvice(RabbitTemplate rabbitTemplate, MessagingProperties.Retry retry,
+            MeterRegistry meterRegistry, String listenerId) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.tiers = retry.getTiers();
+        this.jitter = retry.getJitter();
+        this.meterRegistry = meterRegistry;
+        this.listenerId = listenerId;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        try {
+            return invocation.proceed();
+        } catch (Throwable e) {
+            Object data = invocation.getArguments()[1];
+            if (!(data instanceof Message message) || isFatal(e)) {
+                throw e;
+            }
+            MessageProperties properties = message.getMessageProperties();
+            String queue = properties.getConsumerQueue();
+            int attempt = retryCount(properties);
+            if (queue == null || attempt >= tiers.size()) {
+                meterRegistry.counter("messaging.listener.dead_lettered", "listener", listenerId).increment();
+                throw e;
+            }
+
+            long delayMillis = jittered(tiers.get(attempt));
+            properties.setHeader(RETRY_COUNT_HEADER, attempt + 1);
+            properties.setExpiration(String.valueOf(delayMillis));
+            rabbitTemplate.send(RabbitMQConfig.retryTier(attempt), queue, new Message(message.getBody(), properties));
+
+            meterRegistry.counter("messaging.listener.retried", "listener", listenerId,
+                    "tier", String.valueOf(attempt + 1)).increment();
+            log.warn("Listener {} failed on {}, retry {} in {} ms: {}", listenerId, queue, attempt + 1,
+                    delayMillis, e.getMessage());
+            return null;
+        }
+    }
+
+    private long jittered(Duration delay) {
+        double factor = 1 + jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+        return Math.max(1, Math.round(delay.toMillis() * factor));
+    }
+
+    static int retryCount(MessageProperties properties) {
+        Object value = properties.getHeader(RETRY_COUNT_HEADER);
+        return value instanceof Number number ? number.intValue() : 0;
+    }
+
+    private static boolean isFatal(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MessageConversionException || cause instanceof AmqpRejectAndDontRequeueException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,160 @@
+package com.fintech.shared.money;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Embeddable;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Amount of money as a long count of {@link #SCALE}-decimal units plus an ISO 4217
+ * currency code. Arithmetic is allocation-free apart from the result and fails with
+ * {@link ArithmeticException} on overflow instead of wrapping.
+ *
+ * <p>The scale is fixed at 4 for every currency, the scale of all amount columns, so
+ * any stored amount converts exactly. Serialized as {@code {"amount": 12.34, "currency": "EUR"}}.
+ */
+@Embeddable
+@JsonSerialize(using = Money.Serializer.class)
+@JsonDeserialize(using = Money.Deserializer.class)
+public record Money(
+        @Convert(converter = MoneyUnitsConverter.class) @Column(name = "amount", precision = 19, scale = 4) long units,
+        @Column(name = "currency", length = 3) String currency) implements Comparable<Money> {
+
+    public static final int SCALE = 4;
+
+    private static final long UNITS_PER_WHOLE = 10_000L;
+
+    public Money {
+        if (currency == null || currency.length() != 3) {
+            throw new IllegalArgumentException("Currency must be an ISO 4217 code: " + currency);
+        }
+    }
+
+    public static Money ofUnits(long units, String currency) {
+        return new Money(units, currency);
+    }
+
+    public static Money zero(String currency) {
+        return new Money(0, currency);
+    }
+
+    /**
+     * Exact conversion; amounts with more than {@link #SCALE} decimals or beyond the
+     * long range are rejected.
+     */
+    public static Money of(BigDecimal amount, String currency) {
+        return new Money(toUnits(amount), currency);
+    }
+
+    static long toUnits(BigDecimal amount) {
+        try {
+            return amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new ArithmeticException("Amount " + amount.toPlainString() + " does not fit in "
+                    + SCALE + "-decimal long units");
+        }
+    }
+
+    public Money plus(Money other) {
+        checkCurrency(other);
+        return new Money(Math.addExact(units, other.units), currency);
+    }
+
+    public Money minus(Money other) {
+        checkCurrency(other);
+        return new Money(Math.subtractExact(units, other.units), currency);
+    }
+
+    public Money times(long factor) {
+        return new Money(Math.multiplyExact(units, factor), currency);
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(units), currency);
+    }
+
+    public int signum() {
+        return Long.signum(units);
+    }
+
+    public boolean isNegative() {
+        return units < 0;
+    }
+
+    public boolean isLessThan(Money other) {
+        return compareTo(other) < 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        checkCurrency(other);
+        return Long.compare(units, other.units);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(units, SCALE);
+    }
+
+    @Override
+    public String toString() {
+        long whole = units / UNITS_PER_WHOLE;
+        long fraction = Math.abs(units % UNITS_PER_WHOLE);
+        String sign = units < 0 && whole == 0 ? "-" : "";
+        return String.format("%s%d.%04d %s", sign, whole, fraction, currency);
+    }
+
+    private void checkCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " vs " + other.currency);
+        }
+    }
+
+    static final class Serializer extends JsonSerializer<Money> {
+        @Override
+        public void serialize(Money value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("amount", value.toBigDecimal());
+            generator.writeStringField("currency", value.currency());
+            generator.writeEndObject();
+        }
+    }
+
+    static final class Deserializer extends JsonDeserializer<Money> {
+        // Streamed rather than read as a tree, which would parse the amount as a double
+        @Override
+        public Money deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                return context.reportInputMismatch(Money.class, "Money must be an object");
+            }
+            BigDecimal amount = null;
+            String currency = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "amount" -> amount = value == JsonToken.VALUE_STRING
+                            ? new BigDecimal(parser.getText())
+                            : parser.getDecimalValue();
+                    case "currency" -> currency = parser.getValueAsString();
+                    default -> parser.skipChildren();
+                }
+            }
+            if (amount == null || currency == null) {
+                return context.reportInputMismatch(Money.class, "Money needs amount and currency");
+            }
+            return Money.of(amount, currency);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.fintech.shared.money;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Maps {@link Money} units to the existing {@code NUMERIC(19, 4)} amount columns,
+ * so entities can adopt {@code Money} without a schema change.
+ */
+@Converter
+public class MoneyUnitsConverter implements AttributeConverter<Long, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Long units) {
+        return units == null ? null : BigDecimal.valueOf(units, Money.SCALE);
+    }
+
+    @Override
+    public Long convertToEntityAttribute(BigDecimal amount) {
+        return amount == null ? null : Money.toUnits(amount);
+    }
+}
@@ -0,0 +1,159 @@
+package com.fintech.shared.messaging;
+
+import com.fintech.shared.events.TransactionCategorizedEvent;
+import com.fintech.shared.events.TransactionCompletedEvent;
+import com.fintech.shared.events.TransactionFailedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactEventCodecTest {
+
+    private static final LocalDateTime AT = LocalDateTime.of(2024, 2, 29, 23, 59, 59, 999_999_999);
+
+    @Test
+    void completedEvent_ShouldRoundTrip_WithAllFields() {
+        // Arrange
+        TransactionCompletedEvent event = TransactionCompletedEvent.builder()
+                .transactionId(Long.MAX_VALUE)
+                .userId(-1L)
+                .sourceWalletId(10L)
+                .destinationWalletId(20L)
+                .amount(new BigDecimal("1234.5600"))
+                .currency("EUR")
+                .transactionType("TRANSFER")
+                .description("Loyer — février ✓")
+                .reference("TXN-1")
+                .completedAt(AT)
+                .destinationAmount(new BigDecimal("1339.4976"))
+                .build();
+
+        // Act & Assert
+        assertEquals(event, roundTrip(event));
+    }
+
+    @Test
+    void completedEvent_ShouldRoundTrip_WithNullFields() {
+        TransactionCompletedEvent event = TransactionCompletedEvent.builder()
+                .transactionId(1L)
+                .amount(BigDecimal.ONE)
+                .build();
+
+        assertEquals(event, roundTrip(event));
+    }
+
+    @Test
+    void failedEvent_ShouldRoundTrip() {
+        TransactionFailedEvent event = TransactionFailedEvent.builder()
+                .transactionId(7L)
+                .sourceWalletId(10L)
+                .amount(new BigDecimal("0.0001"))
+                .currency("USD")
+                .transactionType("WITHDRAWAL")
+                .failureReason("Insufficient balance")
+                .errorCode("TRANSACTION_FAILED")
+                .failedAt(LocalDateTime.of(1969, 12, 31, 23, 0))
+                .build();
+
+        assertEquals(event, roundTrip(event));
+    }
+
+    @Test
+    void categorizedEvent_ShouldRoundTrip() {
+        TransactionCategorizedEvent event = TransactionCategorizedEvent.builder()
+                .transactionId(7L)
+                .userId(3L)
+                .category("FOOD")
+                .subCategory("")
+                .confidenceScore(0.875)
+                .categorizationMethod("ML_BASED")
+                .categorizedAt(AT)
+                .build();
+
+        assertEquals(event, roundTrip(event));
+    }
+
+    @Test
+    void emptyEvents_ShouldRoundTrip() {
+        assertEquals(new TransactionCompletedEvent(), roundTrip(new TransactionCompletedEvent()));
+        assertEquals(new TransactionFailedEvent(), roundTrip(new TransactionFailedEvent()));
+        assertEquals(new TransactionCategorizedEvent(), roundTrip(new TransactionCategorizedEvent()));
+    }
+
+    @Test
+    void decimals_ShouldKeepScale_IncludingNegativeAndLargeOnes() {
+        BigDecimal[] amounts = {
+                new BigDecimal("-0.0001"),
+                new BigDecimal("1E+5"),
+                new BigDecimal("-12E+300"),
+                new BigDecimal("1E-300"),
+                new BigDecimal("0.00"),
+                new BigDecimal(Long.MAX_VALUE).add(BigDecimal.ONE).movePointLeft(4),
+                new BigDecimal("-98765432109876543210987654321.123456789"),
+                BigDecimal.valueOf(Long.MIN_VALUE, 2) };
+
+        for (BigDecimal amount : amounts) {
+            TransactionCompletedEvent decoded = (TransactionCompletedEvent) roundTrip(
+                    TransactionCompletedEvent.builder().amount(amount).build());
+
+            assertEquals(amount.scale(), decoded.getAmount().scale(), amount.toString());
+            assertEquals(amount, decoded.getAmount());
+        }
+    }
+
+    @Test
+    void decode_ShouldRejectUnknownVersionAndType() {
+        byte[] payload = CompactEventCodec.encode(TransactionCompletedEvent.builder().transactionId(1L).build());
+
+        byte[] newer = payload.clone();
+        newer[0] = CompactEventCodec.VERSION + 1;
+        byte[] zero = payload.clone();
+        zero[0] = 0;
+        byte[] unknownType = payload.clone();
+        unknownType[1] = 9;
+
+        assertThrows(IllegalArgumentException.class, () -> CompactEventCodec.decode(newer));
+        assertThrows(IllegalArgumentException.class, () -> CompactEventCodec.decode(zero));
+        assertThrows(IllegalArgumentException.class, () -> CompactEventCodec.decode(unknownType));
+    }
+
+    @Test
+    void decode_ShouldRejectEveryTruncation() {
+        byte[] payload = CompactEventCodec.encode(TransactionFailedEvent.builder()
+                .transactionId(7L)
+                .amount(new BigDecimal("-98765432109876543210987654321.12"))
+                .failureReason("Insufficient balance")
+                .failedAt(AT)
+                .build());
+
+        for (int length = 0; length < payload.length; length++) {
+            byte[] truncated = Arrays.copyOf(payload, length);
+            assertThrows(IllegalArgumentException.class, () -> CompactEventCodec.decode(truncated),
+                    "length " + length);
+        }
+    }
+
+    @Test
+    void decode_ShouldRejectOverlongVarint() {
+        byte[] payload = new byte[13];
+        payload[0] = CompactEventCodec.VERSION;
+        payload[1] = 1;
+        Arrays.fill(payload, 2, payload.length, (byte) 0xFF);
+
+        assertThrows(IllegalArgumentException.class, () -> CompactEventCodec.decode(payload));
+    }
+
+    @Test
+    void encode_ShouldRejectUnsupportedType() {
+        assertFalse(CompactEventCodec.supports(String.class));
+        assertThrows(IllegalArgumentException.class, () -> CompactEventCodec.encode("not an event"));
+    }
+
+    private static Object roundTrip(Object event) {
+        return CompactEventCodec.decode(CompactEventCodec.encode(event));
+    }
+}
@@ -0,0 +1,112 @@
+package com.fintech.shared.messaging;
+
+import com.fintech.shared.config.MessagingProperties;
+import com.fintech.shared.config.RabbitMQConfig;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.GetResponse;
+import com.rabbitmq.client.ReturnCallback;
+import com.rabbitmq.client.ReturnListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.rabbit.core.ChannelCallback;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeadLetterReplayServiceTest {
+
+    private static final String ORIGIN = RabbitMQConfig.WALLET_TRANSACTION_COMPLETED_QUEUE;
+    private static final byte[] BODY = { 1, 2, 3 };
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private Channel channel;
+
+    private DeadLetterReplayService replayService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        replayService = new DeadLetterReplayService(rabbitTemplate, new MessagingProperties());
+        lenient().when(rabbitTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<ChannelCallback<?>>getArgument(0).doInRabbit(channel));
+        lenient().when(channel.queueDeclarePassive(any()))
+                .thenAnswer(invocation -> new AMQP.Queue.DeclareOk.Builder().queue(invocation.getArgument(0)).build());
+        lenient().when(channel.addReturnListener(any(ReturnCallback.class))).thenReturn(mock(ReturnListener.class));
+        when(channel.basicGet(RabbitMQConfig.WALLET_DLQ, false)).thenReturn(deadLetter(), (GetResponse) null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        replayService.shutdown();
+    }
+
+    @Test
+    void startReplay_ShouldAckDeadLetter_OnlyAfterRepublishIsConfirmed() throws Exception {
+        // Act
+        replayService.startReplay(RabbitMQConfig.WALLET_DLQ, 100, 1);
+
+        // Assert
+        verify(channel, timeout(2000)).basicAck(7L, false);
+        InOrder order = inOrder(channel);
+        order.verify(channel).basicPublish(eq(""), eq(ORIGIN), eq(true), any(), eq(BODY));
+        order.verify(channel).waitForConfirmsOrDie(anyLong());
+        order.verify(channel).basicAck(7L, false);
+        verify(channel, never()).basicPublish(eq(""), eq(RabbitMQConfig.WALLET_PARKING_LOT), anyBoolean(), any(),
+                any());
+    }
+
+    @Test
+    void startReplay_ShouldParkMessage_WhenOriginQueueNoLongerExists() throws Exception {
+        // Arrange
+        doAnswer(invocation -> {
+            invocation.<ReturnCallback>getArgument(0).handle(null);
+            return mock(ReturnListener.class);
+        }).doReturn(mock(ReturnListener.class)).when(channel).addReturnListener(any(ReturnCallback.class));
+
+        // Act
+        replayService.startReplay(RabbitMQConfig.WALLET_DLQ, 100, 1);
+
+        // Assert
+        verify(channel, timeout(2000)).basicAck(7L, false);
+        verify(channel).basicPublish(eq(""), eq(RabbitMQConfig.WALLET_PARKING_LOT), eq(true), any(), eq(BODY));
+        assertEquals(1, replayService.getStatus(RabbitMQConfig.WALLET_DLQ).getParked());
+        assertEquals(0, replayService.getStatus(RabbitMQConfig.WALLET_DLQ).getReplayed());
+    }
+
+    @Test
+    void startReplay_ShouldNotAck_WhenRepublishIsNotConfirmed() throws Exception {
+        // Arrange
+        doThrow(new TimeoutException("No confirm")).when(channel).waitForConfirmsOrDie(anyLong());
+
+        // Act
+        replayService.startReplay(RabbitMQConfig.WALLET_DLQ, 100, 1);
+
+        // Assert
+        verify(channel, timeout(2000)).waitForConfirmsOrDie(anyLong());
+        verify(channel, after(300).never()).basicAck(anyLong(), anyBoolean());
+    }
+
+    private static GetResponse deadLetter() {
+        AMQP.BasicProperties properties = new AMQP.BasicProperties.Builder()
+                .headers(Map.of("x-death", List.of(Map.of("reason", "rejected", "queue", ORIGIN))))
+                .build();
+        return new GetResponse(new Envelope(7L, false, "", RabbitMQConfig.WALLET_DLQ), properties, BODY, 0);
+    }
+}
@@ -0,0 +1,112 @@
+package com.fintech.shared.messaging;
+
+import com.fintech.shared.events.TransactionCategorizedEvent;
+import com.fintech.shared.events.TransactionCompletedEvent;
+import com.fintech.shared.events.TransactionFailedEvent;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compares the JSON and binary event converters: body size, header size and
+ * encode/decode throughput. Not run by the build; start it from the IDE or with
+ * {@code java -cp <test-classpath> com.fintech.shared.messaging.EventCodecBenchmark}.
+ */
+public class EventCodecBenchmark {
+
+    private static final int WARMUP_ROUNDS = 200_000;
+    private static final int MEASURED_ROUNDS = 1_000_000;
+
+    private static volatile Object sink;
+
+    public static void main(String[] args) {
+        Jackson2JsonMessageConverter jackson = new Jackson2JsonMessageConverter();
+        MessageConverter json = new EventMessageConverter(jackson, EventMessageConverter.EventFormat.JSON);
+        MessageConverter binary = new EventMessageConverter(jackson, EventMessageConverter.EventFormat.BINARY);
+
+        for (Object event : sampleEvents()) {
+            String name = event.getClass().getSimpleName();
+            Message jsonMessage = json.toMessage(event, new MessageProperties());
+            Message binaryMessage = binary.toMessage(event, new MessageProperties());
+            if (!event.equals(binary.fromMessage(binaryMessage))) {
+                throw new IllegalStateException("Binary round trip changed " + name);
+            }
+
+            System.out.printf("%-28s body: json %4d B, binary %4d B | headers: json %d, binary %d%n",
+                    name, jsonMessage.getBody().length, binaryMessage.getBody().length,
+                    jsonMessage.getMessageProperties().getHeaders().size(),
+                    binaryMessage.getMessageProperties().getHeaders().size());
+
+            report(name, "json", json, event, jsonMessage);
+            report(name, "binary", binary, event, binaryMessage);
+        }
+    }
+
+    private static void report(String name, String format, MessageConverter converter, Object event,
+            Message message) {
+        run(converter, event, message, WARMUP_ROUNDS);
+        long encodeNanos = time(() -> sink = converter.toMessage(event, new MessageProperties()));
+        long decodeNanos = time(() -> sink = converter.fromMessage(message));
+        System.out.printf("%-28s %-6s encode %,10.0f ops/s, decode %,10.0f ops/s%n", name, format,
+                MEASURED_ROUNDS * 1e9 / encodeNanos, MEASURED_ROUNDS * 1e9 / decodeNanos);
+    }
+
+    private static void run(MessageConverter converter, Object event, Message message, int rounds) {
+        for (int i = 0; i < rounds; i++) {
+            sink = converter.toMessage(event, new MessageProperties());
+            sink = converter.fromMessage(message);
+        }
+    }
+
+    private static long time(Runnable operation) {
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            operation.run();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static List<Object> sampleEvents() {
+        LocalDateTime now = LocalDateTime.of(2026, 3, 14, 9, 26, 53, 589_793_000);
+        return List.of(
+                TransactionCompletedEvent.builder()
+                        .transactionId(1_234_567L)
+                        .userId(42_001L)
+                        .sourceWalletId(98_765L)
+                        .destinationWalletId(98_766L)
+                        .amount(new BigDecimal("1250.7500"))
+                        .currency("EUR")
+                        .transactionType("TRANSFER")
+                        .description("Monthly rent")
+                        .reference(UUID.randomUUID().toString())
+                        .completedAt(now)
+                        .build(),
+                TransactionFailedEvent.builder()
+                        .transactionId(1_234_568L)
+                        .userId(42_001L)
+                        .sourceWalletId(98_765L)
+                        .amount(new BigDecimal("99.99"))
+                        .currency("EUR")
+                        .transactionType("PAYMENT")
+                        .description("Online order")
+                        .failureReason("Insufficient balance")
+                        .errorCode("INSUFFICIENT_FUNDS")
+                        .failedAt(now)
+                        .build(),
+                TransactionCategorizedEvent.builder()
+                        .transactionId(1_234_567L)
+                        .userId(42_001L)
+                        .category("Housing")
+                        .subCategory("Rent")
+                        .confidenceScore(0.9)
+                        .categorizationMethod("RULE_BASED")
+                        .categorizedAt(now)
+                        .build());
+    }
+}
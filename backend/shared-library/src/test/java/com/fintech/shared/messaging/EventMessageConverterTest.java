@@ -0,0 +1,112 @@
+package com.fintech.shared.messaging;
+
+import com.fintech.shared.events.TransactionCompletedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventMessageConverterTest {
+
+    private static final TransactionCompletedEvent EVENT = TransactionCompletedEvent.builder()
+            .transactionId(1L)
+            .amount(new BigDecimal("10.00"))
+            .currency("EUR")
+            .build();
+
+    @Mock
+    private MessageConverter jsonConverter;
+
+    @Test
+    void toMessage_ShouldWriteBinary_WhenProducerFormatIsBinary() {
+        // Arrange
+        EventMessageConverter converter = new EventMessageConverter(jsonConverter,
+                EventMessageConverter.EventFormat.BINARY);
+
+        // Act
+        Message message = converter.toMessage(EVENT, new MessageProperties());
+
+        // Assert
+        assertEquals(EventMessageConverter.BINARY_CONTENT_TYPE, message.getMessageProperties().getContentType());
+        assertEquals(message.getBody().length, message.getMessageProperties().getContentLength());
+        assertEquals(EVENT, CompactEventCodec.decode(message.getBody()));
+        verifyNoInteractions(jsonConverter);
+    }
+
+    @Test
+    void toMessage_ShouldWriteJson_ForTypesTheCodecDoesNotCover() {
+        // Arrange
+        EventMessageConverter converter = new EventMessageConverter(jsonConverter,
+                EventMessageConverter.EventFormat.BINARY);
+        Map<String, String> other = Map.of("key", "value");
+        MessageProperties properties = new MessageProperties();
+        Message json = new Message(new byte[0], properties);
+        when(jsonConverter.toMessage(other, properties)).thenReturn(json);
+
+        // Act & Assert
+        assertSame(json, converter.toMessage(other, properties));
+    }
+
+    @Test
+    void toMessage_ShouldWriteJson_WhenProducerFormatIsJson() {
+        // Arrange
+        EventMessageConverter converter = new EventMessageConverter(jsonConverter,
+                EventMessageConverter.EventFormat.JSON);
+        MessageProperties properties = new MessageProperties();
+        Message json = new Message(new byte[0], properties);
+        when(jsonConverter.toMessage(EVENT, properties)).thenReturn(json);
+
+        // Act & Assert
+        assertSame(json, converter.toMessage(EVENT, properties));
+    }
+
+    @Test
+    void fromMessage_ShouldChooseDecoderByContentType() {
+        // Arrange: a JSON consumer still reads binary messages
+        EventMessageConverter converter = new EventMessageConverter(jsonConverter,
+                EventMessageConverter.EventFormat.JSON);
+        MessageProperties binaryProperties = new MessageProperties();
+        binaryProperties.setContentType(EventMessageConverter.BINARY_CONTENT_TYPE);
+        Message binary = new Message(CompactEventCodec.encode(EVENT), binaryProperties);
+
+        MessageProperties jsonProperties = new MessageProperties();
+        jsonProperties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        Message json = new Message("{}".getBytes(), jsonProperties);
+        when(jsonConverter.fromMessage(json)).thenReturn(EVENT);
+
+        // Act & Assert
+        assertEquals(EVENT, converter.fromMessage(binary));
+        assertSame(EVENT, converter.fromMessage(json));
+        verify(jsonConverter, never()).fromMessage(binary);
+    }
+
+    @Test
+    void fromMessage_ShouldRaiseConversionException_ForMalformedBinary() {
+        // Arrange
+        EventMessageConverter converter = new EventMessageConverter(jsonConverter,
+                EventMessageConverter.EventFormat.BINARY);
+        byte[] payload = CompactEventCodec.encode(EVENT);
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(EventMessageConverter.BINARY_CONTENT_TYPE);
+
+        // Act & Assert
+        assertThrows(MessageConversionException.class, () -> converter.fromMessage(
+                new Message(Arrays.copyOf(payload, payload.length - 1), properties)));
+        assertThrows(MessageConversionException.class, () -> converter.fromMessage(
+                new Message(new byte[] { 99, 1 }, properties)));
+        verify(jsonConverter, never()).fromMessage(any());
+    }
+}
@@ -0,0 +1,96 @@
+package com.fintech.shared.money;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.function.LongSupplier;
+
+/**
+ * Compares {@link Money} and {@link BigDecimal} on the balance engine's debit/credit
+ * step: check the balance covers the amount, then subtract or add it. Reports
+ * throughput and bytes allocated per operation. Not run by the build; start it with
+ * {@code java -cp <test-classpath> com.fintech.shared.money.MoneyBenchmark}.
+ */
+public class MoneyBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5_000_000;
+    private static final int MEASURED_ROUNDS = 50_000_000;
+    private static final String CURRENCY = "EUR";
+
+    private static final BigDecimal[] DECIMAL_AMOUNTS = {
+            new BigDecimal("12.5000"), new BigDecimal("0.9900"), new BigDecimal("250.0000"),
+            new BigDecimal("7.2500") };
+    private static final Money[] MONEY_AMOUNTS = new Money[DECIMAL_AMOUNTS.length];
+
+    static {
+        for (int i = 0; i < DECIMAL_AMOUNTS.length; i++) {
+            MONEY_AMOUNTS[i] = Money.of(DECIMAL_AMOUNTS[i], CURRENCY);
+        }
+    }
+
+    private static volatile Object sink;
+
+    public static void main(String[] args) {
+        report("BigDecimal", MoneyBenchmark::bigDecimalLoop);
+        report("Money", MoneyBenchmark::moneyLoop);
+        report("Money.of(BigDecimal)", MoneyBenchmark::conversionLoop);
+    }
+
+    private static void report(String name, RoundsLoop loop) {
+        loop.run(WARMUP_ROUNDS);
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long nanos = time(() -> loop.run(MEASURED_ROUNDS));
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        System.out.printf("%-22s %,14.0f ops/s %8.1f B/op%n", name, MEASURED_ROUNDS * 1e9 / nanos,
+                (double) allocated / MEASURED_ROUNDS);
+    }
+
+    private static long bigDecimalLoop(int rounds) {
+        BigDecimal balance = new BigDecimal("1000000.0000");
+        for (int i = 0; i < rounds; i++) {
+            BigDecimal amount = DECIMAL_AMOUNTS[i & 3];
+            if ((i & 1) == 0) {
+                balance = balance.add(amount);
+            } else if (balance.compareTo(amount) >= 0) {
+                balance = balance.subtract(amount);
+            }
+        }
+        sink = balance;
+        return rounds;
+    }
+
+    private static long moneyLoop(int rounds) {
+        Money balance = Money.of(new BigDecimal("1000000.0000"), CURRENCY);
+        for (int i = 0; i < rounds; i++) {
+            Money amount = MONEY_AMOUNTS[i & 3];
+            if ((i & 1) == 0) {
+                balance = balance.plus(amount);
+            } else if (!balance.isLessThan(amount)) {
+                balance = balance.minus(amount);
+            }
+        }
+        sink = balance;
+        return rounds;
+    }
+
+    private static long conversionLoop(int rounds) {
+        long total = 0;
+        for (int i = 0; i < rounds; i++) {
+            total += Money.of(DECIMAL_AMOUNTS[i & 3], CURRENCY).units();
+        }
+        sink = total;
+        return rounds;
+    }
+
+    private static long time(LongSupplier operation) {
+        long start = System.nanoTime();
+        operation.getAsLong();
+        return System.nanoTime() - start;
+    }
+
+    @FunctionalInterface
+    private interface RoundsLoop {
+        long run(int rounds);
+    }
+}
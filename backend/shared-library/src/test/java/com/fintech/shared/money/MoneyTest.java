@@ -0,0 +1,122 @@
+package com.fintech.shared.money;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void of_ShouldConvertExactly_WhenScaleFits() {
+        assertEquals(123_456L, Money.of(new BigDecimal("12.3456"), "EUR").units());
+        assertEquals(15_000L, Money.of(new BigDecimal("1.500000"), "EUR").units());
+        assertEquals(-1L, Money.of(new BigDecimal("-0.0001"), "EUR").units());
+        assertEquals(10_000_000L, Money.of(new BigDecimal("1E+3"), "EUR").units());
+        assertEquals(new BigDecimal("12.3400"), Money.of(new BigDecimal("12.34"), "EUR").toBigDecimal());
+    }
+
+    @Test
+    void of_ShouldReject_WhenAmountWouldBeRounded() {
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("0.00001"), "EUR"));
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("-1.23456"), "EUR"));
+    }
+
+    @Test
+    void of_ShouldReject_WhenAmountExceedsLongUnits() {
+        BigDecimal largest = BigDecimal.valueOf(Long.MAX_VALUE, Money.SCALE);
+
+        assertEquals(Long.MAX_VALUE, Money.of(largest, "EUR").units());
+        assertThrows(ArithmeticException.class,
+                () -> Money.of(largest.add(new BigDecimal("0.0001")), "EUR"));
+    }
+
+    @Test
+    void arithmetic_ShouldFailOnOverflow() {
+        Money max = Money.ofUnits(Long.MAX_VALUE, "EUR");
+        Money min = Money.ofUnits(Long.MIN_VALUE, "EUR");
+        Money unit = Money.ofUnits(1, "EUR");
+
+        assertThrows(ArithmeticException.class, () -> max.plus(unit));
+        assertThrows(ArithmeticException.class, () -> min.minus(unit));
+        assertThrows(ArithmeticException.class, () -> max.times(2));
+        assertThrows(ArithmeticException.class, min::negate);
+    }
+
+    @Test
+    void arithmetic_ShouldRejectCurrencyMismatch() {
+        Money euros = Money.of(new BigDecimal("10"), "EUR");
+        Money dollars = Money.of(new BigDecimal("10"), "USD");
+
+        assertThrows(IllegalArgumentException.class, () -> euros.plus(dollars));
+        assertThrows(IllegalArgumentException.class, () -> euros.minus(dollars));
+        assertThrows(IllegalArgumentException.class, () -> euros.isLessThan(dollars));
+        assertThrows(IllegalArgumentException.class, () -> Money.zero("EURO"));
+        assertThrows(IllegalArgumentException.class, () -> Money.zero(null));
+    }
+
+    @Test
+    void arithmetic_ShouldMatchBigDecimal() {
+        Money balance = Money.of(new BigDecimal("100.00"), "EUR");
+        Money amount = Money.of(new BigDecimal("40.0001"), "EUR");
+
+        assertEquals(new BigDecimal("59.9999"), balance.minus(amount).toBigDecimal());
+        assertEquals(new BigDecimal("140.0001"), balance.plus(amount).toBigDecimal());
+        assertEquals(new BigDecimal("120.0003"), amount.times(3).toBigDecimal());
+        assertTrue(amount.isLessThan(balance));
+        assertEquals(-1, amount.negate().signum());
+    }
+
+    @Test
+    void toString_ShouldKeepSign_ForNegativeAmounts() {
+        assertEquals("-0.5000 EUR", Money.of(new BigDecimal("-0.5"), "EUR").toString());
+        assertEquals("-12.3456 EUR", Money.of(new BigDecimal("-12.3456"), "EUR").toString());
+        assertEquals("-0.0001 EUR", Money.ofUnits(-1, "EUR").toString());
+        assertEquals("0.0000 EUR", Money.zero("EUR").toString());
+        assertEquals("-922337203685477.5808 EUR", Money.ofUnits(Long.MIN_VALUE, "EUR").toString());
+    }
+
+    @Test
+    void json_ShouldRoundTripExactly() throws Exception {
+        Money[] amounts = {
+                Money.of(new BigDecimal("12.34"), "EUR"),
+                Money.ofUnits(-1, "USD"),
+                Money.ofUnits(Long.MAX_VALUE, "JPY") };
+
+        for (Money amount : amounts) {
+            String json = objectMapper.writeValueAsString(amount);
+            assertEquals(amount, objectMapper.readValue(json, Money.class), json);
+        }
+        assertEquals("{\"amount\":12.3400,\"currency\":\"EUR\"}", objectMapper.writeValueAsString(amounts[0]));
+    }
+
+    @Test
+    void json_ShouldReadStringAmountsAndIgnoreUnknownFields() throws Exception {
+        Money money = objectMapper.readValue(
+                "{\"note\":{\"a\":[1]},\"currency\":\"EUR\",\"amount\":\"0.0001\"}", Money.class);
+
+        assertEquals(Money.ofUnits(1, "EUR"), money);
+    }
+
+    @Test
+    void json_ShouldRejectIncompleteMoney() {
+        assertThrows(JsonMappingException.class, () -> objectMapper.readValue("{\"amount\":1}", Money.class));
+        assertThrows(JsonMappingException.class, () -> objectMapper.readValue("12.5", Money.class));
+    }
+
+    @Test
+    void unitsConverter_ShouldMapToNumericColumnExactly() {
+        MoneyUnitsConverter converter = new MoneyUnitsConverter();
+
+        assertEquals(new BigDecimal("-12.3456"), converter.convertToDatabaseColumn(-123_456L));
+        assertEquals(123_456L, converter.convertToEntityAttribute(new BigDecimal("12.3456")));
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+        assertThrows(ArithmeticException.class, () -> converter.convertToEntityAttribute(new BigDecimal("1.00001")));
+    }
+}
@@ -3,8 +3,10 @@ package com.fintech.transaction;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 @ComponentScan(basePackages = { "com.fintech.transaction", "com.fintech.shared" })
 public class TransactionServiceApplication {
     public static void main(String[] args) {
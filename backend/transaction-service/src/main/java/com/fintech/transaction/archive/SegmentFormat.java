@@ -0,0 +1,206 @@
+package com.fintech.transaction.archive;
+
+import com.fintech.transaction.entity.Transaction;
+import com.fintech.transaction.entity.TransactionStatus;
+import com.fintech.transaction.entity.TransactionType;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * On-disk layout of an archived transaction segment (one calendar month):
+ *
+ * <pre>
+ * header     : int MAGIC, int VERSION
+ * blocks     : { int compressedLength, int recordCount, byte[compressedLength] (deflate) } *
+ * directory  : int blockCount, { long offset, long minId, long maxId } * blockCount
+ * wallet idx : int walletCount, { long walletId, int blockCount, int[] blockNumbers } * walletCount
+ * footer     : long directoryOffset, long walletIndexOffset, long rowCount, int MAGIC
+ * </pre>
+ *
+ * Records are sorted by (transactionDate, id) so blocks are in time order. Each
+ * block is compressed independently and can be read without inflating the rest.
+ * IDs are not in date order across instances (pooled sequences), so the directory
+ * holds each block's minimum and maximum ID and those ranges may overlap.
+ */
+final class SegmentFormat {
+
+    static final int MAGIC = 0x54585347; // "TXSG"
+    static final int VERSION = 1;
+    static final int FOOTER_SIZE = Long.BYTES * 3 + Integer.BYTES;
+
+    private static final int HAS_DESTINATION = 1;
+    private static final int HAS_USER = 1 << 1;
+    private static final int HAS_CATEGORY = 1 << 2;
+    private static final int HAS_DESCRIPTION = 1 << 3;
+    private static final int HAS_FAILURE_REASON = 1 << 4;
+    private static final int HAS_IDEMPOTENCY_KEY = 1 << 5;
+    private static final int HAS_CREATED_AT = 1 << 6;
+    private static final int HAS_UPDATED_AT = 1 << 7;
+
+    // Second flags byte: FX fields
+    private static final int HAS_SOURCE_AMOUNT = 1;
+    private static final int HAS_DESTINATION_AMOUNT = 1 << 1;
+    private static final int HAS_FX_RATE_VERSION = 1 << 2;
+    private static final int HAS_SOURCE_CURRENCY = 1 << 3;
+    private static final int HAS_DESTINATION_CURRENCY = 1 << 4;
+
+    private SegmentFormat() {
+    }
+
+    static void writeRecord(DataOutput out, Transaction t) throws IOException {
+        int flags = (t.getDestinationWalletId() != null ? HAS_DESTINATION : 0)
+                | (t.getUserId() != null ? HAS_USER : 0)
+                | (t.getCategory() != null ? HAS_CATEGORY : 0)
+                | (t.getDescription() != null ? HAS_DESCRIPTION : 0)
+                | (t.getFailureReason() != null ? HAS_FAILURE_REASON : 0)
+                | (t.getIdempotencyKey() != null ? HAS_IDEMPOTENCY_KEY : 0)
+                | (t.getCreatedAt() != null ? HAS_CREATED_AT : 0)
+                | (t.getUpdatedAt() != null ? HAS_UPDATED_AT : 0);
+
+        out.writeByte(flags);
+        out.writeLong(t.getId());
+        out.writeLong(t.getSourceWalletId());
+        if (t.getDestinationWalletId() != null) {
+            out.writeLong(t.getDestinationWalletId());
+        }
+        if (t.getUserId() != null) {
+            out.writeLong(t.getUserId());
+        }
+
+        writeDecimal(out, t.getAmount());
+
+        out.writeUTF(t.getCurrency());
+        out.writeUTF(t.getTransactionType().name());
+        out.writeUTF(t.getStatus().name());
+        out.writeUTF(t.getReference());
+        out.writeLong(toEpochMicros(t.getTransactionDate()));
+
+        if (t.getCategory() != null) {
+            out.writeUTF(t.getCategory());
+        }
+        if (t.getDescription() != null) {
+            out.writeUTF(t.getDescription());
+        }
+        if (t.getFailureReason() != null) {
+            out.writeUTF(t.getFailureReason());
+        }
+        if (t.getIdempotencyKey() != null) {
+            out.writeUTF(t.getIdempotencyKey());
+        }
+        if (t.getCreatedAt() != null) {
+            out.writeLong(toEpochMicros(t.getCreatedAt()));
+        }
+        if (t.getUpdatedAt() != null) {
+            out.writeLong(toEpochMicros(t.getUpdatedAt()));
+        }
+
+        int fxFlags = (t.getSourceAmount() != null ? HAS_SOURCE_AMOUNT : 0)
+                | (t.getDestinationAmount() != null ? HAS_DESTINATION_AMOUNT : 0)
+                | (t.getFxRateVersion() != null ? HAS_FX_RATE_VERSION : 0)
+                | (t.getSourceCurrency() != null ? HAS_SOURCE_CURRENCY : 0)
+                | (t.getDestinationCurrency() != null ? HAS_DESTINATION_CURRENCY : 0);
+        out.writeByte(fxFlags);
+        if (t.getSourceAmount() != null) {
+            writeDecimal(out, t.getSourceAmount());
+        }
+        if (t.getDestinationAmount() != null) {
+            writeDecimal(out, t.getDestinationAmount());
+        }
+        if (t.getFxRateVersion() != null) {
+            out.writeLong(t.getFxRateVersion());
+        }
+        if (t.getSourceCurrency() != null) {
+            out.writeUTF(t.getSourceCurrency());
+        }
+        if (t.getDestinationCurrency() != null) {
+            out.writeUTF(t.getDestinationCurrency());
+        }
+    }
+
+    static Transaction readRecord(DataInput in) throws IOException {
+        int flags = in.readUnsignedByte();
+        Transaction t = new Transaction();
+        t.setId(in.readLong());
+        t.setSourceWalletId(in.readLong());
+        if ((flags & HAS_DESTINATION) != 0) {
+            t.setDestinationWalletId(in.readLong());
+        }
+        if ((flags & HAS_USER) != 0) {
+            t.setUserId(in.readLong());
+        }
+
+        t.setAmount(readDecimal(in));
+
+        t.setCurrency(in.readUTF());
+        t.setTransactionType(TransactionType.valueOf(in.readUTF()));
+        t.setStatus(TransactionStatus.valueOf(in.readUTF()));
+        t.setReference(in.readUTF());
+        t.setTransactionDate(fromEpochMicros(in.readLong()));
+
+        if ((flags & HAS_CATEGORY) != 0) {
+            t.setCategory(in.readUTF());
+        }
+        if ((flags & HAS_DESCRIPTION) != 0) {
+            t.setDescription(in.readUTF());
+        }
+        if ((flags & HAS_FAILURE_REASON) != 0) {
+            t.setFailureReason(in.readUTF());
+        }
+        if ((flags & HAS_IDEMPOTENCY_KEY) != 0) {
+            t.setIdempotencyKey(in.readUTF());
+        }
+        if ((flags & HAS_CREATED_AT) != 0) {
+            t.setCreatedAt(fromEpochMicros(in.readLong()));
+        }
+        if ((flags & HAS_UPDATED_AT) != 0) {
+            t.setUpdatedAt(fromEpochMicros(in.readLong()));
+        }
+
+        int fxFlags = in.readUnsignedByte();
+        if ((fxFlags & HAS_SOURCE_AMOUNT) != 0) {
+            t.setSourceAmount(readDecimal(in));
+        }
+        if ((fxFlags & HAS_DESTINATION_AMOUNT) != 0) {
+            t.setDestinationAmount(readDecimal(in));
+        }
+        if ((fxFlags & HAS_FX_RATE_VERSION) != 0) {
+            t.setFxRateVersion(in.readLong());
+        }
+        if ((fxFlags & HAS_SOURCE_CURRENCY) != 0) {
+            t.setSourceCurrency(in.readUTF());
+        }
+        if ((fxFlags & HAS_DESTINATION_CURRENCY) != 0) {
+            t.setDestinationCurrency(in.readUTF());
+        }
+        return t;
+    }
+
+    private static void writeDecimal(DataOutput out, BigDecimal value) throws IOException {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        out.writeByte(value.scale());
+        out.writeByte(unscaled.length);
+        out.write(unscaled);
+    }
+
+    private static BigDecimal readDecimal(DataInput in) throws IOException {
+        int scale = in.readByte();
+        byte[] unscaled = new byte[in.readUnsignedByte()];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    private static long toEpochMicros(LocalDateTime value) {
+        return value.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + value.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromEpochMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,149 @@
+package com.fintech.transaction.archive;
+
+import com.fintech.transaction.entity.Transaction;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Read access to one segment file. The block directory and wallet index are
+ * loaded once on open; blocks are inflated on demand.
+ */
+public class SegmentReader implements Closeable {
+
+    private final FileChannel channel;
+    private final long[] blockOffsets;
+    private final long[] blockMinIds;
+    private final long[] blockMaxIds;
+    private final Map<Long, int[]> walletBlocks;
+    private final long rowCount;
+
+    public SegmentReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            ByteBuffer footer = read(size - SegmentFormat.FOOTER_SIZE, SegmentFormat.FOOTER_SIZE);
+            long directoryOffset = footer.getLong();
+            long walletIndexOffset = footer.getLong();
+            this.rowCount = footer.getLong();
+            if (footer.getInt() != SegmentFormat.MAGIC) {
+                throw new IOException("Not a transaction segment: " + path);
+            }
+            ByteBuffer header = read(0, Integer.BYTES * 2);
+            header.getInt();
+            int version = header.getInt();
+            if (version != SegmentFormat.VERSION) {
+                throw new IOException("Unsupported segment version " + version + ": " + path);
+            }
+
+            ByteBuffer directory = read(directoryOffset, (int) (walletIndexOffset - directoryOffset));
+            int blockCount = directory.getInt();
+            this.blockOffsets = new long[blockCount];
+            this.blockMinIds = new long[blockCount];
+            this.blockMaxIds = new long[blockCount];
+            for (int i = 0; i < blockCount; i++) {
+                blockOffsets[i] = directory.getLong();
+                blockMinIds[i] = directory.getLong();
+                blockMaxIds[i] = directory.getLong();
+            }
+
+            ByteBuffer index = read(walletIndexOffset, (int) (size - SegmentFormat.FOOTER_SIZE - walletIndexOffset));
+            int walletCount = index.getInt();
+            this.walletBlocks = new HashMap<>(walletCount * 2);
+            for (int i = 0; i < walletCount; i++) {
+                long walletId = index.getLong();
+                int[] blocks = new int[index.getInt()];
+                for (int b = 0; b < blocks.length; b++) {
+                    blocks[b] = index.getInt();
+                }
+                walletBlocks.put(walletId, blocks);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public int getBlockCount() {
+        return blockOffsets.length;
+    }
+
+    /**
+     * Block numbers containing at least one transaction of the wallet, in time order.
+     */
+    public int[] blocksForWallet(Long walletId) {
+        return walletBlocks.getOrDefault(walletId, new int[0]);
+    }
+
+    /**
+     * Blocks whose ID range contains the given ID. Ranges may overlap, so the ID can
+     * be in any of them, or in none.
+     */
+    public int[] blocksForId(long id) {
+        int[] blocks = new int[blockOffsets.length];
+        int count = 0;
+        for (int i = 0; i < blockOffsets.length; i++) {
+            if (id >= blockMinIds[i] && id <= blockMaxIds[i]) {
+                blocks[count++] = i;
+            }
+        }
+        return Arrays.copyOf(blocks, count);
+    }
+
+    public List<Transaction> readBlock(int block) {
+        List<Transaction> records = new ArrayList<>();
+        forEachInBlock(block, records::add);
+        return records;
+    }
+
+    public void forEachInBlock(int block, Consumer<Transaction> consumer) {
+        try {
+            ByteBuffer header = read(blockOffsets[block], Integer.BYTES * 2);
+            int compressedLength = header.getInt();
+            int recordCount = header.getInt();
+            ByteBuffer data = read(blockOffsets[block] + Integer.BYTES * 2L, compressedLength);
+
+            try (DataInputStream in = new DataInputStream(new InflaterInputStream(
+                    new ByteArrayInputStream(data.array(), 0, compressedLength)))) {
+                for (int i = 0; i < recordCount; i++) {
+                    consumer.accept(SegmentFormat.readRecord(in));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ByteBuffer read(long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of segment");
+            }
+        }
+        return buffer.flip();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
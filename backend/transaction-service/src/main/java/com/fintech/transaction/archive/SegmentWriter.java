@@ -0,0 +1,157 @@
+package com.fintech.transaction.archive;
+
+import com.fintech.transaction.entity.Transaction;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes a segment file. Records must be appended in (transactionDate, id) order.
+ * The file is written to a temporary path, forced to disk and atomically renamed
+ * on {@link #close()}, then made read-only. An existing file at the target path is
+ * never replaced.
+ */
+public class SegmentWriter implements Closeable {
+
+    private final Path target;
+    private final Path temp;
+    private final FileChannel channel;
+    private final DataOutputStream out;
+    private final int recordsPerBlock;
+
+    private final ByteArrayOutputStream blockBuffer = new ByteArrayOutputStream(64 * 1024);
+    private DataOutputStream blockOut = new DataOutputStream(blockBuffer);
+    private int blockRecords;
+    private long blockMinId;
+    private long blockMaxId;
+
+    private final List<long[]> directory = new ArrayList<>(); // { offset, minId, maxId }
+    private final Map<Long, BitSet> walletBlocks = new TreeMap<>();
+    private long position;
+    private long rowCount;
+
+    public SegmentWriter(Path target, int recordsPerBlock) throws IOException {
+        this.target = target;
+        this.temp = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        this.recordsPerBlock = recordsPerBlock;
+        Files.createDirectories(target.getParent());
+        this.channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+
+        out.writeInt(SegmentFormat.MAGIC);
+        out.writeInt(SegmentFormat.VERSION);
+        position = Integer.BYTES * 2;
+    }
+
+    public void append(Transaction transaction) throws IOException {
+        long transactionId = transaction.getId();
+        if (blockRecords == 0) {
+            blockMinId = transactionId;
+            blockMaxId = transactionId;
+        }
+        SegmentFormat.writeRecord(blockOut, transaction);
+        blockMinId = Math.min(blockMinId, transactionId);
+        blockMaxId = Math.max(blockMaxId, transactionId);
+        blockRecords++;
+        rowCount++;
+
+        int blockNumber = directory.size();
+        walletBlocks.computeIfAbsent(transaction.getSourceWalletId(), id -> new BitSet()).set(blockNumber);
+        if (transaction.getDestinationWalletId() != null) {
+            walletBlocks.computeIfAbsent(transaction.getDestinationWalletId(), id -> new BitSet()).set(blockNumber);
+        }
+
+        if (blockRecords == recordsPerBlock) {
+            flushBlock();
+        }
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    private void flushBlock() throws IOException {
+        if (blockRecords == 0) {
+            return;
+        }
+        blockOut.flush();
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(blockBuffer.size() / 2);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (OutputStream deflate = new DeflaterOutputStream(compressed, deflater)) {
+            blockBuffer.writeTo(deflate);
+        } finally {
+            deflater.end();
+        }
+
+        directory.add(new long[] { position, blockMinId, blockMaxId });
+        out.writeInt(compressed.size());
+        out.writeInt(blockRecords);
+        compressed.writeTo(out);
+        position += Integer.BYTES * 2L + compressed.size();
+
+        blockBuffer.reset();
+        blockOut = new DataOutputStream(blockBuffer);
+        blockRecords = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        flushBlock();
+
+        long directoryOffset = position;
+        out.writeInt(directory.size());
+        for (long[] entry : directory) {
+            out.writeLong(entry[0]);
+            out.writeLong(entry[1]);
+            out.writeLong(entry[2]);
+        }
+        position += Integer.BYTES + (long) directory.size() * Long.BYTES * 3;
+
+        long walletIndexOffset = position;
+        out.writeInt(walletBlocks.size());
+        for (Map.Entry<Long, BitSet> entry : walletBlocks.entrySet()) {
+            BitSet blocks = entry.getValue();
+            out.writeLong(entry.getKey());
+            out.writeInt(blocks.cardinality());
+            for (int block = blocks.nextSetBit(0); block >= 0; block = blocks.nextSetBit(block + 1)) {
+                out.writeInt(block);
+            }
+        }
+
+        out.writeLong(directoryOffset);
+        out.writeLong(walletIndexOffset);
+        out.writeLong(rowCount);
+        out.writeInt(SegmentFormat.MAGIC);
+        out.flush();
+        channel.force(true);
+        out.close();
+
+        if (Files.exists(target)) {
+            Files.delete(temp);
+            throw new FileAlreadyExistsException(target.toString());
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        target.toFile().setReadOnly();
+    }
+}
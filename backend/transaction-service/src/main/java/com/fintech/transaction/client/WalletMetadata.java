@@ -0,0 +1,13 @@
+package com.fintech.transaction.client;
+
+import com.fintech.shared.dto.WalletDTO;
+
+/**
+ * Wallet attributes that never change after creation, and are therefore safe to cache.
+ */
+public record WalletMetadata(Long walletId, Long userId, String currency, String walletType) {
+
+    static WalletMetadata from(WalletDTO wallet) {
+        return new WalletMetadata(wallet.getId(), wallet.getUserId(), wallet.getCurrency(), wallet.getWalletType());
+    }
+}
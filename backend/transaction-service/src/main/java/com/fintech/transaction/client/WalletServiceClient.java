@@ -0,0 +1,289 @@
+package com.fintech.transaction.client;
+
+import com.fintech.shared.dto.WalletBalanceDTO;
+import com.fintech.shared.dto.WalletDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single entry point for calls from transaction-service to wallet-service.
+ *
+ * <p>All calls share one pooled connection provider. Wallet metadata (owner,
+ * currency, type) is kept in a bounded TTL near-cache, and concurrent lookups
+ * of the same uncached wallet share a single HTTP request.
+ */
+@Component
+@Slf4j
+public class WalletServiceClient {
+
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+
+    private static final ParameterizedTypeReference<List<WalletBalanceDTO>> BALANCE_LIST =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final ConnectionProvider connectionProvider;
+    private final WebClient webClient;
+    private final long cacheTtlNanos;
+
+    private final Map<Long, CachedMetadata> cache;
+    private final Map<Long, CompletableFuture<WalletMetadata>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter coalescedCounter;
+    private final Timer lookupTimer;
+    private final Timer debitTimer;
+
+    public WalletServiceClient(WebClient.Builder webClientBuilder,
+            MeterRegistry meterRegistry,
+            @Value("${wallet.service.url}") String walletServiceUrl,
+            @Value("${wallet.service.max-connections:200}") int maxConnections,
+            @Value("${wallet.service.response-timeout:5s}") Duration responseTimeout,
+            @Value("${wallet.service.cache.ttl:10m}") Duration cacheTtl,
+            @Value("${wallet.service.cache.max-size:50000}") int cacheMaxSize) {
+        this.connectionProvider = ConnectionProvider.builder("wallet-service")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(responseTimeout)
+                .maxIdleTime(Duration.ofSeconds(30))
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider).responseTimeout(responseTimeout);
+        this.webClient = webClientBuilder.clone()
+                .baseUrl(walletServiceUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        this.cacheTtlNanos = cacheTtl.toNanos();
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedMetadata> eldest) {
+                return size() > cacheMaxSize;
+            }
+        });
+
+        this.hitCounter = meterRegistry.counter("wallet.client.cache", "result", "hit");
+        this.missCounter = meterRegistry.counter("wallet.client.cache", "result", "miss");
+        this.coalescedCounter = meterRegistry.counter("wallet.client.cache", "result", "coalesced");
+        this.lookupTimer = Timer.builder("wallet.client.latency")
+                .tag("operation", "lookup")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.debitTimer = Timer.builder("wallet.client.latency")
+                .tag("operation", "debit")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        meterRegistry.gaugeMapSize("wallet.client.cache.size", List.of(), cache);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        connectionProvider.dispose();
+    }
+
+    /**
+     * Returns the wallet's immutable attributes, from the near-cache when possible.
+     */
+    public Mono<WalletMetadata> getMetadata(Long walletId) {
+        CachedMetadata cached = cache.get(walletId);
+        if (cached != null && cached.expiresAt() - System.nanoTime() > 0) {
+            hitCounter.increment();
+            return Mono.just(cached.metadata());
+        }
+
+        CompletableFuture<WalletMetadata> future = new CompletableFuture<>();
+        CompletableFuture<WalletMetadata> existing = inFlight.putIfAbsent(walletId, future);
+        if (existing != null) {
+            coalescedCounter.increment();
+            return Mono.fromFuture(existing, true);
+        }
+
+        missCounter.increment();
+        Timer.Sample sample = Timer.start();
+        fetchWallet(walletId)
+                .map(WalletMetadata::from)
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Wallet not found: " + walletId)))
+                .subscribe(
+                        metadata -> {
+                            cache.put(walletId, new CachedMetadata(metadata, System.nanoTime() + cacheTtlNanos));
+                            inFlight.remove(walletId, future);
+                            sample.stop(lookupTimer);
+                            future.complete(metadata);
+                        },
+                        e -> {
+                            inFlight.remove(walletId, future);
+                            sample.stop(lookupTimer);
+                            future.completeExceptionally(e);
+                        });
+        return Mono.fromFuture(future, true);
+    }
+
+    /**
+     * Loads the uncached wallets among {@code walletIds} into the near-cache with
+     * bulk lookups instead of one request per wallet. Unknown wallets are left out
+     * and fail later on their own lookup.
+     */
+    public void prefetchMetadata(Collection<Long> walletIds) {
+        List<Long> missing = walletIds.stream()
+                .distinct()
+                .filter(walletId -> {
+                    CachedMetadata cached = cache.get(walletId);
+                    return cached == null || cached.expiresAt() - System.nanoTime() <= 0;
+                })
+                .toList();
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        missCounter.increment(missing.size());
+        Timer.Sample sample = Timer.start();
+        for (int from = 0; from < missing.size(); from += LOOKUP_CHUNK_SIZE) {
+            List<Long> chunk = missing.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, missing.size()));
+            long expiresAt = System.nanoTime() + cacheTtlNanos;
+            webClient.post()
+                    .uri("/api/wallets/lookup")
+                    .accept(MediaType.APPLICATION_NDJSON)
+                    .bodyValue(chunk)
+                    .retrieve()
+                    .bodyToFlux(WalletDTO.class)
+                    .doOnNext(wallet -> cache.put(wallet.getId(),
+                            new CachedMetadata(WalletMetadata.from(wallet), expiresAt)))
+                    .then()
+                    .block();
+        }
+        sample.stop(lookupTimer);
+    }
+
+    /**
+     * The wallet's metadata if the near-cache holds it; never calls wallet-service.
+     */
+    public Optional<WalletMetadata> getCachedMetadata(Long walletId) {
+        CachedMetadata cached = cache.get(walletId);
+        if (cached == null || cached.expiresAt() - System.nanoTime() <= 0) {
+            return Optional.empty();
+        }
+        hitCounter.increment();
+        return Optional.of(cached.metadata());
+    }
+
+    public WalletMetadata getMetadataBlocking(Long walletId) {
+        return getMetadata(walletId).block();
+    }
+
+    public void evict(Long walletId) {
+        cache.remove(walletId);
+    }
+
+    // Debits are idempotent per transaction reference on the wallet-service side
+    public Mono<Void> debit(Long walletId, BigDecimal amount, String reference) {
+        return webClient.post()
+                .uri(uri -> uri.path("/api/wallets/{id}/debit")
+                        .queryParam("reference", reference)
+                        .build(walletId))
+                .bodyValue(amount)
+                .retrieve()
+                .bodyToMono(Void.class)
+                .transform(this::timeDebit);
+    }
+
+    /**
+     * Moves the funds of one transaction: an atomic transfer when there is a
+     * destination wallet, otherwise a plain debit of the source. Amounts are in
+     * each wallet's own currency.
+     */
+    public Mono<Void> settle(Long sourceWalletId, Long destinationWalletId, BigDecimal amount,
+            BigDecimal destinationAmount, String reference) {
+        if (destinationWalletId == null) {
+            return debit(sourceWalletId, amount, reference);
+        }
+        return webClient.post()
+                .uri("/api/wallets/transfers")
+                .bodyValue(Map.of(
+                        "sourceWalletId", sourceWalletId,
+                        "destinationWalletId", destinationWalletId,
+                        "amount", amount,
+                        "destinationAmount", destinationAmount,
+                        "reference", reference))
+                .retrieve()
+                .bodyToMono(Void.class)
+                .transform(this::timeDebit);
+    }
+
+    /**
+     * Whether wallet-service applied a debit with {@code reference} to the wallet.
+     */
+    public Mono<Boolean> isDebitApplied(Long walletId, String reference) {
+        return webClient.get()
+                .uri(uri -> uri.path("/api/wallets/{id}/debits")
+                        .queryParam("reference", reference)
+                        .build(walletId))
+                .retrieve()
+                .bodyToMono(Boolean.class);
+    }
+
+    public Mono<Void> debitBatch(Long walletId, List<Map<String, Object>> debits) {
+        return webClient.post()
+                .uri("/api/wallets/{id}/debits", walletId)
+                .bodyValue(debits)
+                .retrieve()
+                .bodyToMono(Void.class)
+                .transform(this::timeDebit);
+    }
+
+    public Long getMaxWalletId() {
+        return webClient.get()
+                .uri("/api/wallets/max-id")
+                .retrieve()
+                .bodyToMono(Long.class)
+                .block();
+    }
+
+    public List<WalletBalanceDTO> getBalancesInRange(long fromId, long toId) {
+        return webClient.get()
+                .uri(uri -> uri.path("/api/wallets/balances")
+                        .queryParam("fromId", fromId)
+                        .queryParam("toId", toId)
+                        .build())
+                .retrieve()
+                .bodyToMono(BALANCE_LIST)
+                .block();
+    }
+
+    private Mono<WalletDTO> fetchWallet(Long walletId) {
+        return webClient.get()
+                .uri("/api/wallets/{id}", walletId)
+                .retrieve()
+                .bodyToMono(WalletDTO.class);
+    }
+
+    private Mono<Void> timeDebit(Mono<Void> call) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start();
+            return call.doFinally(signal -> sample.stop(debitTimer));
+        });
+    }
+
+    private record CachedMetadata(WalletMetadata metadata, long expiresAt) {
+    }
+}
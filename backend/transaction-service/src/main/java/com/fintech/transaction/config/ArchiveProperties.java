@@ -0,0 +1,22 @@
+package com.fintech.transaction.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "transaction.archive")
+@Data
+public class ArchiveProperties {
+
+    private boolean enabled = false;
+
+    // Must be shared by all instances (e.g. a mounted volume): segment paths are
+    // recorded in the database and read by every instance
+    private String directory = "/var/lib/transaction-service/segments";
+
+    // Months kept in the transactions table, including the current one
+    private int hotMonths = 12;
+
+    private int recordsPerBlock = 4096;
+}
@@ -0,0 +1,44 @@
+package com.fintech.transaction.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves each id sequence past the ids already in its table. The tables used identity
+ * columns before; {@code ddl-auto} creates the sequences starting at 1, which would
+ * hand out ids that already exist. Runs once the schema update has created the
+ * sequences and before the scheduler, listeners and web server start. Sequences only
+ * move forward, so instances starting concurrently are safe.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class IdSequenceAlignment {
+
+    private static final String ALIGN_SQL = """
+            SELECT setval('%1$s', GREATEST(
+                (SELECT COALESCE(MAX(id), 0) FROM %2$s) + %3$d,
+                (SELECT last_value FROM %1$s)))
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void align() {
+        // Offset by the allocation size: a pooled block ends at the value nextval returns
+        align("transactions_seq", "transactions", 50);
+        align("outbox_events_seq", "outbox_events", 50);
+        align("transaction_aggregates_seq", "transaction_aggregates", 1);
+        align("archived_segments_seq", "archived_segments", 1);
+    }
+
+    private void align(String sequence, String table, int allocationSize) {
+        Long value = jdbcTemplate.queryForObject(ALIGN_SQL.formatted(sequence, table, allocationSize), Long.class);
+        log.info("Sequence {} aligned with {} at {}", sequence, table, value);
+    }
+}
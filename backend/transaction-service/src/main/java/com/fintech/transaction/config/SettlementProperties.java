@@ -0,0 +1,31 @@
+package com.fintech.transaction.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "transaction.settlement")
+@Data
+public class SettlementProperties {
+
+    private SettlementMode mode = SettlementMode.SYNC;
+
+    // Maximum number of transactions settling at the same time in async mode.
+    // New requests are rejected with 429 once this is reached.
+    private int maxInFlight = 256;
+
+    // Upper bound for the wallet-service calls of a single settlement
+    private Duration timeout = Duration.ofSeconds(10);
+
+    public enum SettlementMode {
+        SYNC,
+        ASYNC
+    }
+
+    public boolean isAsync() {
+        return mode == SettlementMode.ASYNC;
+    }
+}
@@ -0,0 +1,56 @@
+package com.fintech.transaction.controller;
+
+import com.fintech.transaction.dto.AggregateDTO;
+import com.fintech.transaction.entity.AggregateScope;
+import com.fintech.transaction.service.TransactionAggregateService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/transactions/analytics")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class AnalyticsController {
+
+    private final TransactionAggregateService aggregateService;
+
+    @GetMapping("/wallet/{walletId}")
+    public ResponseEntity<List<AggregateDTO>> getWalletTotals(@PathVariable Long walletId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") TransactionAggregateService.Granularity granularity) {
+        validateRange(from, to);
+        return ResponseEntity.ok(aggregateService.getTotals(AggregateScope.WALLET, walletId, from, to, granularity));
+    }
+
+    @GetMapping("/user/{userId}")
+    public ResponseEntity<List<AggregateDTO>> getUserTotals(@PathVariable Long userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") TransactionAggregateService.Granularity granularity) {
+        validateRange(from, to);
+        return ResponseEntity.ok(aggregateService.getTotals(AggregateScope.USER, userId, from, to, granularity));
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<Void> rebuild(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        validateRange(from, to);
+        aggregateService.rebuild(from, to);
+        return ResponseEntity.noContent().build();
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must not be after 'to'");
+        }
+    }
+}
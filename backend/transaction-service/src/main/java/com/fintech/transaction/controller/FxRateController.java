@@ -0,0 +1,45 @@
+package com.fintech.transaction.controller;
+
+import com.fintech.transaction.dto.FxRatesDocument;
+import com.fintech.transaction.fx.FxRateSnapshot;
+import com.fintech.transaction.fx.FxRateTable;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Operator endpoints for the FX rate table. Exposed on the service's own port only;
+ * the gateway does not route /internal.
+ */
+@RestController
+@RequestMapping("/internal/fx/rates")
+@RequiredArgsConstructor
+public class FxRateController {
+
+    private final FxRateTable rateTable;
+
+    @GetMapping
+    public ResponseEntity<FxRatesDocument> getRates() {
+        return ResponseEntity.ok(toDocument(rateTable.current()));
+    }
+
+    @PutMapping
+    public ResponseEntity<FxRatesDocument> publishRates(@Valid @RequestBody FxRatesDocument document) {
+        return ResponseEntity.ok(toDocument(rateTable.publish(document)));
+    }
+
+    @PostMapping("/reload")
+    public ResponseEntity<FxRatesDocument> reloadRates() {
+        return ResponseEntity.ok(toDocument(rateTable.reloadFromFile()));
+    }
+
+    private static FxRatesDocument toDocument(FxRateSnapshot snapshot) {
+        return FxRatesDocument.builder()
+                .version(snapshot.getVersion())
+                .base(snapshot.getBase())
+                .asOf(snapshot.getAsOf())
+                .rates(snapshot.getRates())
+                .build();
+    }
+}
@@ -0,0 +1,27 @@
+package com.fintech.transaction.controller;
+
+import com.fintech.transaction.dto.ReconciliationReport;
+import com.fintech.transaction.service.ReconciliationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/transactions/reconciliation")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class ReconciliationController {
+
+    private final ReconciliationService reconciliationService;
+
+    @PostMapping("/runs")
+    public ResponseEntity<ReconciliationReport> startRun() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(reconciliationService.start());
+    }
+
+    @GetMapping("/runs/{runId}")
+    public ResponseEntity<ReconciliationReport> getRun(@PathVariable String runId) {
+        return ResponseEntity.ok(reconciliationService.getReport(runId));
+    }
+}
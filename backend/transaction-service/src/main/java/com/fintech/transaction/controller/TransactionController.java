@@ -1,34 +1,145 @@
 package com.fintech.transaction.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fintech.shared.dto.TransactionDTO;
+import com.fintech.transaction.dto.BatchItemResult;
 import com.fintech.transaction.dto.CreateTransactionRequest;
+import com.fintech.transaction.service.IdempotencyService;
+import com.fintech.transaction.service.TransactionExportService;
 import com.fintech.transaction.service.TransactionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/transactions")
 @RequiredArgsConstructor
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = { "X-Next-Cursor", "Idempotent-Replayed" })
 public class TransactionController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
     private final TransactionService transactionService;
+    private final TransactionExportService transactionExportService;
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${transaction.batch.max-items:5000}")
+    private int maxBatchItems;
 
     @PostMapping
-    public ResponseEntity<TransactionDTO> createTransaction(@Valid @RequestBody CreateTransactionRequest request) {
-        TransactionDTO transaction = transactionService.createTransaction(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(transaction);
+    public ResponseEntity<TransactionDTO> createTransaction(@Valid @RequestBody CreateTransactionRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        HttpStatus status = transactionService.isAsyncSettlement() ? HttpStatus.ACCEPTED : HttpStatus.CREATED;
+
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return ResponseEntity.status(status).body(submit(request, null));
+        }
+        if (idempotencyKey.length() > 100) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Idempotency-Key must be at most 100 characters");
+        }
+
+        IdempotencyService.IdempotentResult result = idempotencyService.execute(idempotencyKey, request,
+                () -> submit(request, idempotencyKey));
+        return ResponseEntity.status(status)
+                .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(result.replayed()))
+                .body(result.transaction());
+    }
+
+    private TransactionDTO submit(CreateTransactionRequest request, String idempotencyKey) {
+        if (transactionService.isAsyncSettlement()) {
+            return transactionService.acceptTransaction(request, idempotencyKey);
+        }
+        return transactionService.createTransaction(request, idempotencyKey);
+    }
+
+    /**
+     * Bulk import. Items are validated individually; results are streamed back as
+     * NDJSON, one {@link BatchItemResult} per line, as each source wallet settles.
+     */
+    @PostMapping(value = "/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> createTransactionBatch(
+            @RequestBody List<CreateTransactionRequest> requests) {
+        if (requests.isEmpty() || requests.size() > maxBatchItems) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Batch must contain between 1 and " + maxBatchItems + " transactions");
+        }
+
+        StreamingResponseBody body = outputStream -> transactionService.ingestBatch(requests, result -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(result));
+                outputStream.write('\n');
+                outputStream.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Full history export for a date range, optionally restricted to one wallet.
+     * Rows are streamed from the database as NDJSON (default) or CSV.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long walletId,
+            @RequestParam(defaultValue = "NDJSON") TransactionExportService.ExportFormat format) {
+        if (!from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must be before 'to'");
+        }
+
+        StreamingResponseBody body = outputStream -> transactionExportService.export(walletId, from, to, format,
+                outputStream);
+
+        MediaType contentType = format == TransactionExportService.ExportFormat.CSV
+                ? new MediaType("text", "csv")
+                : MediaType.APPLICATION_NDJSON;
+        String filename = "transactions." + format.name().toLowerCase();
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
+    @GetMapping("/reference/{reference}")
+    public ResponseEntity<TransactionDTO> getTransactionByReference(@PathVariable String reference) {
+        TransactionDTO transaction = transactionService.getTransactionByReference(reference);
+        return ResponseEntity.ok(transaction);
     }
 
     @GetMapping("/wallet/{walletId}")
-    public ResponseEntity<List<TransactionDTO>> getTransactionsByWallet(@PathVariable Long walletId) {
-        List<TransactionDTO> transactions = transactionService.getTransactionsByWallet(walletId);
-        return ResponseEntity.ok(transactions);
+    public ResponseEntity<List<TransactionDTO>> getTransactionsByWallet(@PathVariable Long walletId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        TransactionService.TransactionPage page = transactionService.getTransactionsByWallet(walletId, cursor, limit);
+
+        // Cursor for the next page travels in a header so the body stays a plain list
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,28 @@
+package com.fintech.transaction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AggregateDTO {
+
+    private LocalDate period; // First day of the day/month bucket
+
+    private String currency;
+
+    private BigDecimal inAmount;
+
+    private long inCount;
+
+    private BigDecimal outAmount;
+
+    private long outCount;
+}
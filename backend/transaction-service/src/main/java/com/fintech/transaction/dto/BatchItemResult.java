@@ -0,0 +1,23 @@
+package com.fintech.transaction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResult {
+
+    private int index; // Position of the item in the submitted batch
+
+    private Long transactionId; // Null when the item was rejected before persistence
+
+    private String reference;
+
+    private String status; // COMPLETED, FAILED, PENDING (left for recovery), REJECTED
+
+    private String error;
+}
@@ -0,0 +1,38 @@
+package com.fintech.transaction.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Rate table as published by the admin endpoint or read from the rates file.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FxRatesDocument {
+
+    @NotNull(message = "Version is required")
+    @Positive(message = "Version must be positive")
+    private Long version; // Must increase with every publication
+
+    @NotBlank(message = "Base currency is required")
+    @Size(min = 3, max = 3, message = "Base currency must be an ISO 4217 code")
+    private String base;
+
+    private LocalDateTime asOf;
+
+    @NotEmpty(message = "Rates are required")
+    private Map<String, @NotNull @Positive BigDecimal> rates; // Units of each currency for one unit of base
+}
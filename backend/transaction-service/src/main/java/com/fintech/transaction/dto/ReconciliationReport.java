@@ -0,0 +1,39 @@
+package com.fintech.transaction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationReport {
+
+    private String runId;
+
+    private String status; // RUNNING, COMPLETED, FAILED
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    private long rangesTotal;
+
+    private long rangesCompleted;
+
+    private long walletsChecked;
+
+    private long mismatchCount;
+
+    private BigDecimal totalAbsoluteDifference;
+
+    private List<WalletMismatch> mismatches; // Capped at the configured maximum
+
+    private String error;
+}
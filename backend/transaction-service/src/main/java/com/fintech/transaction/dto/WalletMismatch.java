@@ -0,0 +1,25 @@
+package com.fintech.transaction.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletMismatch {
+
+    private Long walletId;
+
+    private BigDecimal balance; // Balance reported by wallet-service
+
+    private BigDecimal openingBalance;
+
+    private BigDecimal expectedBalance; // Opening balance + net of COMPLETED transactions
+
+    private BigDecimal difference; // balance - expectedBalance
+}
@@ -0,0 +1,6 @@
+package com.fintech.transaction.entity;
+
+public enum AggregateScope {
+    WALLET,
+    USER
+}
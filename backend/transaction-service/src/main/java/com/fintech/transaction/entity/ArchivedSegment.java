@@ -0,0 +1,46 @@
+package com.fintech.transaction.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A calendar month of transactions moved out of the {@code transactions} table
+ * into an immutable segment file.
+ */
+@Entity
+@Table(name = "archived_segments")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedSegment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "archived_segments_seq")
+    @SequenceGenerator(name = "archived_segments_seq", sequenceName = "archived_segments_seq", allocationSize = 1)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 7)
+    private String month; // yyyy-MM
+
+    @Column(nullable = false)
+    private String path;
+
+    private String node; // Host that wrote the segment
+
+    @Column(nullable = false)
+    private long rowCount;
+
+    @Column(nullable = false)
+    private long sizeBytes;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -12,20 +12,32 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        // Keyset-paginated wallet history
+        @Index(name = "idx_transactions_source_date", columnList = "sourceWalletId, transactionDate, id"),
+        @Index(name = "idx_transactions_destination_date", columnList = "destinationWalletId, transactionDate, id"),
+        // Date-range scans (export)
+        @Index(name = "idx_transactions_date", columnList = "transactionDate, id"),
+        // Stale PENDING lookup (recovery)
+        @Index(name = "idx_transactions_status_created", columnList = "status, createdAt")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Transaction {
 
+    // Pooled sequence IDs let Hibernate batch inserts (IDENTITY disables JDBC batching)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
     private Long sourceWalletId;
 
+    private Long userId; // Owner of the source wallet, known once the transaction completes
+
     private Long destinationWalletId; // Null for withdrawals/deposits
 
     @Column(nullable = false, precision = 19, scale = 4)
@@ -34,6 +46,23 @@ public class Transaction {
     @Column(nullable = false, length = 3)
     private String currency;
 
+    // Amounts moved on each wallet, in that wallet's currency. Null on rows created
+    // before FX conversion, which moved the raw amount.
+    @Column(precision = 19, scale = 4)
+    private BigDecimal sourceAmount;
+
+    @Column(precision = 19, scale = 4)
+    private BigDecimal destinationAmount;
+
+    // Currencies of those wallets, set with the amounts; rollups are kept in them
+    @Column(length = 3)
+    private String sourceCurrency;
+
+    @Column(length = 3)
+    private String destinationCurrency;
+
+    private Long fxRateVersion; // FX rate table version used; null when no conversion was needed
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private TransactionType transactionType;
@@ -49,6 +78,9 @@ public class Transaction {
     @Column(unique = true)
     private String reference;
 
+    @Column(unique = true, length = 100)
+    private String idempotencyKey; // Client-supplied Idempotency-Key header, if any
+
     @Column(nullable = false)
     private LocalDateTime transactionDate;
 
@@ -60,4 +92,28 @@ public class Transaction {
     private LocalDateTime updatedAt;
 
     private String failureReason;
+
+    // Recovery lease: set while a recovery worker owns this PENDING transaction
+    private String leaseOwner;
+
+    private LocalDateTime leaseExpiresAt;
+
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    private int recoveryAttempts;
+
+    public BigDecimal debitedAmount() {
+        return sourceAmount != null ? sourceAmount : amount;
+    }
+
+    public BigDecimal creditedAmount() {
+        return destinationAmount != null ? destinationAmount : amount;
+    }
+
+    public String debitedCurrency() {
+        return sourceCurrency != null ? sourceCurrency : currency;
+    }
+
+    public String creditedCurrency() {
+        return destinationCurrency != null ? destinationCurrency : currency;
+    }
 }
@@ -0,0 +1,57 @@
+package com.fintech.transaction.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Daily rollup of COMPLETED transactions for one wallet or user in one currency.
+ * Rows are upserted as transactions complete; monthly totals are summed from them.
+ */
+@Entity
+@Table(name = "transaction_aggregates", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_transaction_aggregates_bucket",
+                columnNames = { "scope_type", "scope_id", "day", "currency" })
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionAggregate {
+
+    @Id
+    // Rows are only inserted by native upserts, which call nextval themselves
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_aggregates_seq")
+    @SequenceGenerator(name = "transaction_aggregates_seq", sequenceName = "transaction_aggregates_seq", allocationSize = 1)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private AggregateScope scopeType;
+
+    @Column(nullable = false)
+    private Long scopeId; // Wallet ID or user ID depending on scopeType
+
+    @Column(nullable = false)
+    private LocalDate day;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal inAmount;
+
+    @Column(nullable = false)
+    private long inCount;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal outAmount;
+
+    @Column(nullable = false)
+    private long outCount;
+}
@@ -0,0 +1,37 @@
+package com.fintech.transaction.fx;
+
+import com.fintech.transaction.client.WalletMetadata;
+import com.fintech.transaction.entity.Transaction;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * FX conversion stage: expresses a transaction's amount in the source and destination
+ * wallet currencies using a single rate snapshot, and records that snapshot's version
+ * when a conversion took place. Pure in-memory work on already fetched wallet metadata.
+ */
+@Component
+@RequiredArgsConstructor
+public class FxConverter {
+
+    private final FxRateTable fxRateTable;
+
+    /**
+     * @param destinationWallet null when the transaction has no destination wallet
+     */
+    public void convert(Transaction transaction, WalletMetadata sourceWallet, WalletMetadata destinationWallet) {
+        FxRateSnapshot rates = fxRateTable.current();
+        String currency = transaction.getCurrency();
+        transaction.setSourceAmount(rates.convert(transaction.getAmount(), currency, sourceWallet.currency()));
+        transaction.setSourceCurrency(sourceWallet.currency());
+        boolean converted = !currency.equals(sourceWallet.currency());
+
+        if (destinationWallet != null) {
+            transaction.setDestinationAmount(
+                    rates.convert(transaction.getAmount(), currency, destinationWallet.currency()));
+            transaction.setDestinationCurrency(destinationWallet.currency());
+            converted |= !currency.equals(destinationWallet.currency());
+        }
+        transaction.setFxRateVersion(converted ? rates.getVersion() : null);
+    }
+}
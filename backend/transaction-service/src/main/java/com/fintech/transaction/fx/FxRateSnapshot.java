@@ -0,0 +1,91 @@
+package com.fintech.transaction.fx;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable, versioned set of exchange rates. Rates are published against one base
+ * currency; every cross rate is computed once when the snapshot is built, so a
+ * conversion is two map lookups and one multiplication.
+ */
+public final class FxRateSnapshot {
+
+    // Scale of every amount column
+    public static final int AMOUNT_SCALE = 4;
+
+    static final FxRateSnapshot EMPTY = new FxRateSnapshot(0, null, null, Map.of());
+
+    private final long version;
+    private final String base;
+    private final LocalDateTime asOf;
+    private final Map<String, BigDecimal> rates;
+    private final Map<String, Map<String, BigDecimal>> crossRates;
+
+    /**
+     * @param rates units of each currency for one unit of {@code base}
+     */
+    FxRateSnapshot(long version, String base, LocalDateTime asOf, Map<String, BigDecimal> rates) {
+        this.version = version;
+        this.base = base;
+        this.asOf = asOf;
+        this.rates = Map.copyOf(rates);
+
+        Map<String, Map<String, BigDecimal>> cross = new HashMap<>();
+        this.rates.forEach((from, fromRate) -> {
+            Map<String, BigDecimal> targets = new HashMap<>();
+            this.rates.forEach((to, toRate) -> targets.put(to, toRate.divide(fromRate, MathContext.DECIMAL128)));
+            cross.put(from, Map.copyOf(targets));
+        });
+        this.crossRates = Map.copyOf(cross);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public String getBase() {
+        return base;
+    }
+
+    public LocalDateTime getAsOf() {
+        return asOf;
+    }
+
+    public Map<String, BigDecimal> getRates() {
+        return rates;
+    }
+
+    /**
+     * Units of {@code to} for one unit of {@code from}, or null when either
+     * currency is not in this snapshot.
+     */
+    public BigDecimal rate(String from, String to) {
+        if (from.equals(to)) {
+            return BigDecimal.ONE;
+        }
+        Map<String, BigDecimal> targets = crossRates.get(from);
+        return targets != null ? targets.get(to) : null;
+    }
+
+    /**
+     * Converts {@code amount} and rounds it half-even to the amount scale.
+     */
+    public BigDecimal convert(BigDecimal amount, String from, String to) {
+        if (from.equals(to)) {
+            return amount;
+        }
+        BigDecimal rate = rate(from, to);
+        if (rate == null) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "No exchange rate from " + from + " to " + to + " (rates version " + version + ")");
+        }
+        return amount.multiply(rate).setScale(AMOUNT_SCALE, RoundingMode.HALF_EVEN);
+    }
+}
@@ -0,0 +1,115 @@
+package com.fintech.transaction.fx;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fintech.transaction.dto.FxRatesDocument;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Current exchange rates. Readers take the snapshot with a single volatile read and
+ * never block; a new rate table, from the rates file or the admin endpoint, is built
+ * off to the side and swapped in whole, so a conversion never mixes two versions.
+ */
+@Component
+@Slf4j
+public class FxRateTable {
+
+    private final ObjectMapper objectMapper;
+    private final Path ratesFile;
+
+    private volatile FxRateSnapshot current = FxRateSnapshot.EMPTY;
+    private long ratesFileModified;
+
+    public FxRateTable(ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${transaction.fx.rates-file:}") String ratesFile) {
+        this.objectMapper = objectMapper;
+        this.ratesFile = ratesFile.isBlank() ? null : Path.of(ratesFile);
+        meterRegistry.gauge("transaction.fx.rates.version", this, table -> table.current().getVersion());
+    }
+
+    @PostConstruct
+    void loadRatesFile() {
+        if (ratesFile == null) {
+            log.info("No FX rates file configured, waiting for rates from the admin endpoint");
+        } else if (Files.exists(ratesFile)) {
+            reloadFromFile();
+        } else {
+            log.warn("FX rates file {} not found, waiting for rates from the admin endpoint", ratesFile);
+        }
+    }
+
+    public FxRateSnapshot current() {
+        return current;
+    }
+
+    /**
+     * Validates and installs a new rate table. Versions must increase, so a stale
+     * publication cannot replace newer rates.
+     */
+    public synchronized FxRateSnapshot publish(FxRatesDocument document) {
+        // The rates file is not bean-validated
+        if (document.getVersion() == null || document.getBase() == null || document.getRates() == null
+                || document.getRates().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Rates need a version, a base and rates");
+        }
+        if (document.getVersion() <= current.getVersion()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Rates version " + document.getVersion()
+                    + " is not newer than the current version " + current.getVersion());
+        }
+        Map<String, BigDecimal> rates = new HashMap<>(document.getRates());
+        rates.putIfAbsent(document.getBase(), BigDecimal.ONE);
+        if (rates.values().stream().anyMatch(rate -> rate == null || rate.signum() <= 0)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Rates must be positive");
+        }
+
+        current = new FxRateSnapshot(document.getVersion(), document.getBase(), document.getAsOf(), rates);
+        log.info("Installed FX rates version {} ({} currencies, base {})", document.getVersion(), rates.size(),
+                document.getBase());
+        return current;
+    }
+
+    public synchronized FxRateSnapshot reloadFromFile() {
+        if (ratesFile == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No FX rates file configured");
+        }
+        try {
+            // Recorded first, so a rejected file is not retried until it changes again
+            ratesFileModified = Files.getLastModifiedTime(ratesFile).toMillis();
+            return publish(objectMapper.readValue(ratesFile.toFile(), FxRatesDocument.class));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read FX rates file " + ratesFile, e);
+        }
+    }
+
+    /**
+     * Picks up a rewritten rates file.
+     */
+    @Scheduled(fixedDelayString = "${transaction.fx.reload-interval:60000}")
+    public synchronized void reloadIfModified() {
+        if (ratesFile == null || !Files.exists(ratesFile)) {
+            return;
+        }
+        try {
+            if (Files.getLastModifiedTime(ratesFile).toMillis() != ratesFileModified) {
+                reloadFromFile();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not reload FX rates file {}", ratesFile, e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.fintech.transaction.repository;
+
+import com.fintech.transaction.entity.ArchivedSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ArchivedSegmentRepository extends JpaRepository<ArchivedSegment, Long> {
+
+    List<ArchivedSegment> findAllByOrderByMonthAsc();
+
+    boolean existsByMonth(String month);
+
+    boolean existsByPath(String path);
+
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryArchiveLock(long key);
+}
@@ -0,0 +1,42 @@
+package com.fintech.transaction.repository;
+
+import com.fintech.transaction.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    @Query(value = "SELECT * FROM outbox_events WHERE published_at IS NULL AND failed_at IS NULL "
+            + "ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<OutboxEvent> findUnpublishedBatch(int limit);
+
+    long countByPublishedAtIsNullAndFailedAtIsNull();
+
+    // Transaction-scoped advisory lock so only one relay instance drains the outbox at a time
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryRelayLock(long key);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.publishedAt = :publishedAt WHERE e.id IN :ids")
+    int markPublished(Collection<Long> ids, LocalDateTime publishedAt);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1 WHERE e.id IN :ids")
+    int incrementAttempts(Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.failedAt = :failedAt "
+            + "WHERE e.id IN :ids AND e.attempts >= :maxAttempts AND e.failedAt IS NULL")
+    int parkExhausted(Collection<Long> ids, int maxAttempts, LocalDateTime failedAt);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.publishedAt < :before")
+    int deletePublishedBefore(LocalDateTime before);
+}
@@ -0,0 +1,119 @@
+package com.fintech.transaction.repository;
+
+import com.fintech.transaction.entity.TransactionAggregate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TransactionAggregateRepository extends JpaRepository<TransactionAggregate, Long> {
+
+    interface AggregateRow {
+        LocalDate getPeriod();
+
+        String getCurrency();
+
+        BigDecimal getInAmount();
+
+        Long getInCount();
+
+        BigDecimal getOutAmount();
+
+        Long getOutCount();
+    }
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO transaction_aggregates
+                (id, scope_type, scope_id, day, currency, in_amount, in_count, out_amount, out_count)
+            VALUES (nextval('transaction_aggregates_seq'), :scopeType, :scopeId, :day, :currency, :inAmount, :inCount, :outAmount, :outCount)
+            ON CONFLICT (scope_type, scope_id, day, currency) DO UPDATE SET
+                in_amount = transaction_aggregates.in_amount + EXCLUDED.in_amount,
+                in_count = transaction_aggregates.in_count + EXCLUDED.in_count,
+                out_amount = transaction_aggregates.out_amount + EXCLUDED.out_amount,
+                out_count = transaction_aggregates.out_count + EXCLUDED.out_count
+            """, nativeQuery = true)
+    void upsert(String scopeType, Long scopeId, LocalDate day, String currency,
+            BigDecimal inAmount, long inCount, BigDecimal outAmount, long outCount);
+
+    @Query(value = """
+            SELECT CAST(date_trunc(:granularity, day) AS date) AS period, currency,
+                   SUM(in_amount) AS inAmount, CAST(SUM(in_count) AS bigint) AS inCount,
+                   SUM(out_amount) AS outAmount, CAST(SUM(out_count) AS bigint) AS outCount
+            FROM transaction_aggregates
+            WHERE scope_type = :scopeType AND scope_id = :scopeId AND day BETWEEN :from AND :to
+            GROUP BY period, currency
+            ORDER BY period, currency
+            """, nativeQuery = true)
+    List<AggregateRow> findTotals(String scopeType, Long scopeId, LocalDate from, LocalDate to, String granularity);
+
+    // Net position of wallets from rollups only, for days no longer in the transactions table.
+    // Wallet buckets hold the amounts in the wallet's own currency, so they add up.
+    @Query(value = """
+            SELECT scope_id AS walletId, SUM(in_amount - out_amount) AS net
+            FROM transaction_aggregates
+            WHERE scope_type = 'WALLET' AND scope_id >= :fromId AND scope_id < :toId AND day < :before
+            GROUP BY scope_id
+            ORDER BY scope_id
+            """, nativeQuery = true)
+    List<TransactionRepository.NetPosition> findWalletNetPositionsBefore(Long fromId, Long toId, LocalDate before);
+
+    @Modifying
+    @Query(value = "DELETE FROM transaction_aggregates WHERE day >= :from AND day < :to", nativeQuery = true)
+    int deleteDays(LocalDate from, LocalDate to);
+
+    // Rebuild queries: recompute [from, to) from COMPLETED transactions, in wallet currency
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO transaction_aggregates
+                (id, scope_type, scope_id, day, currency, in_amount, in_count, out_amount, out_count)
+            SELECT nextval('transaction_aggregates_seq'), 'WALLET', source_wallet_id, CAST(transaction_date AS date),
+                   COALESCE(source_currency, currency), 0, 0, SUM(COALESCE(source_amount, amount)), COUNT(*)
+            FROM transactions
+            WHERE status = 'COMPLETED' AND transaction_date >= :from AND transaction_date < :to
+            GROUP BY source_wallet_id, CAST(transaction_date AS date), COALESCE(source_currency, currency)
+            ON CONFLICT (scope_type, scope_id, day, currency) DO UPDATE SET
+                out_amount = transaction_aggregates.out_amount + EXCLUDED.out_amount,
+                out_count = transaction_aggregates.out_count + EXCLUDED.out_count
+            """, nativeQuery = true)
+    int rebuildWalletOutflows(LocalDateTime from, LocalDateTime to);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO transaction_aggregates
+                (id, scope_type, scope_id, day, currency, in_amount, in_count, out_amount, out_count)
+            SELECT nextval('transaction_aggregates_seq'), 'WALLET', destination_wallet_id, CAST(transaction_date AS date),
+                   COALESCE(destination_currency, currency), SUM(COALESCE(destination_amount, amount)), COUNT(*), 0, 0
+            FROM transactions
+            WHERE status = 'COMPLETED' AND destination_wallet_id IS NOT NULL
+              AND transaction_date >= :from AND transaction_date < :to
+            GROUP BY destination_wallet_id, CAST(transaction_date AS date), COALESCE(destination_currency, currency)
+            ON CONFLICT (scope_type, scope_id, day, currency) DO UPDATE SET
+                in_amount = transaction_aggregates.in_amount + EXCLUDED.in_amount,
+                in_count = transaction_aggregates.in_count + EXCLUDED.in_count
+            """, nativeQuery = true)
+    int rebuildWalletInflows(LocalDateTime from, LocalDateTime to);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO transaction_aggregates
+                (id, scope_type, scope_id, day, currency, in_amount, in_count, out_amount, out_count)
+            SELECT nextval('transaction_aggregates_seq'), 'USER', user_id, CAST(transaction_date AS date),
+                   COALESCE(source_currency, currency), 0, 0, SUM(COALESCE(source_amount, amount)), COUNT(*)
+            FROM transactions
+            WHERE status = 'COMPLETED' AND user_id IS NOT NULL
+              AND transaction_date >= :from AND transaction_date < :to
+            GROUP BY user_id, CAST(transaction_date AS date), COALESCE(source_currency, currency)
+            ON CONFLICT (scope_type, scope_id, day, currency) DO UPDATE SET
+                out_amount = transaction_aggregates.out_amount + EXCLUDED.out_amount,
+                out_count = transaction_aggregates.out_count + EXCLUDED.out_count
+            """, nativeQuery = true)
+    int rebuildUserOutflows(LocalDateTime from, LocalDateTime to);
+}
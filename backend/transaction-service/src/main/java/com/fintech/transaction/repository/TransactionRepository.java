@@ -3,8 +3,11 @@ package com.fintech.transaction.repository;
 import com.fintech.transaction.entity.Transaction;
 import com.fintech.transaction.entity.TransactionStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -12,13 +15,73 @@ import java.util.Optional;
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
-    List<Transaction> findBySourceWalletIdOrderByTransactionDateDesc(Long sourceWalletId);
+    interface NetPosition {
+        Long getWalletId();
 
-    List<Transaction> findByDestinationWalletIdOrderByTransactionDateDesc(Long destinationWalletId);
+        BigDecimal getNet();
+    }
+
+    /**
+     * One page of a wallet's history (both sides), newest first, strictly after the
+     * {@code (cursorDate, cursorId)} keyset cursor. Each branch walks its own
+     * composite index and stops after {@code limit} rows.
+     */
+    @Query(value = """
+            SELECT * FROM (
+                (SELECT * FROM transactions
+                 WHERE source_wallet_id = :walletId
+                   AND (transaction_date, id) < (:cursorDate, :cursorId)
+                 ORDER BY transaction_date DESC, id DESC
+                 LIMIT :limit)
+                UNION
+                (SELECT * FROM transactions
+                 WHERE destination_wallet_id = :walletId
+                   AND (transaction_date, id) < (:cursorDate, :cursorId)
+                 ORDER BY transaction_date DESC, id DESC
+                 LIMIT :limit)
+            ) page
+            ORDER BY transaction_date DESC, id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Transaction> findWalletHistoryPage(Long walletId, LocalDateTime cursorDate, Long cursorId, int limit);
 
     List<Transaction> findByStatus(TransactionStatus status);
 
     List<Transaction> findByTransactionDateBetween(LocalDateTime startDate, LocalDateTime endDate);
 
     Optional<Transaction> findByReference(String reference);
+
+    Optional<Transaction> findByIdempotencyKey(String idempotencyKey);
+
+    /**
+     * Stores the FX conversion of a PENDING transaction unless one is already stored,
+     * so concurrent settlements of the same transaction agree on the amounts.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            UPDATE Transaction t SET t.sourceAmount = :sourceAmount, t.sourceCurrency = :sourceCurrency,
+                t.destinationAmount = :destinationAmount, t.destinationCurrency = :destinationCurrency,
+                t.fxRateVersion = :fxRateVersion
+            WHERE t.id = :id AND t.sourceAmount IS NULL
+                AND t.status = com.fintech.transaction.entity.TransactionStatus.PENDING
+            """)
+    int recordConversion(Long id, BigDecimal sourceAmount, String sourceCurrency, BigDecimal destinationAmount,
+            String destinationCurrency, Long fxRateVersion);
+
+    /**
+     * Net effect of COMPLETED transactions (credits minus debits) on each wallet with
+     * {@code fromId <= id < toId}, ordered by wallet ID, in each wallet's currency.
+     */
+    @Query(value = """
+            SELECT wallet_id AS walletId, SUM(delta) AS net FROM (
+                SELECT source_wallet_id AS wallet_id, -COALESCE(source_amount, amount) AS delta FROM transactions
+                WHERE status = 'COMPLETED' AND source_wallet_id >= :fromId AND source_wallet_id < :toId
+                UNION ALL
+                SELECT destination_wallet_id, COALESCE(destination_amount, amount) FROM transactions
+                WHERE status = 'COMPLETED' AND destination_wallet_id >= :fromId AND destination_wallet_id < :toId
+            ) deltas
+            GROUP BY wallet_id
+            ORDER BY wallet_id
+            """, nativeQuery = true)
+    List<NetPosition> findNetPositions(Long fromId, Long toId);
 }
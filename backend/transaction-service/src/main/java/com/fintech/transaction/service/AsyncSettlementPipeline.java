@@ -0,0 +1,144 @@
+package com.fintech.transaction.service;
+
+import com.fintech.transaction.client.WalletMetadata;
+import com.fintech.transaction.client.WalletServiceClient;
+import com.fintech.transaction.config.SettlementProperties;
+import com.fintech.transaction.entity.Transaction;
+import com.fintech.transaction.fx.FxConverter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Settles PENDING transactions off the request thread. Wallet-service calls are
+ * non-blocking; only the final status update runs on the bounded elastic scheduler.
+ * The number of in-flight settlements is capped by {@link SettlementProperties#getMaxInFlight()}.
+ * Transactions accepted without cached wallet metadata are FX-converted here, and the
+ * amounts stored before settling so that recovery settles the same ones.
+ * A transaction is marked FAILED only when wallet-service rejects it; on any other
+ * error it stays PENDING and {@link PendingRecoveryService} settles it again.
+ */
+@Component
+@Slf4j
+public class AsyncSettlementPipeline {
+
+    private final TransactionSettlementService settlementService;
+    private final SettlementProperties properties;
+    private final WalletServiceClient walletClient;
+    private final FxConverter fxConverter;
+    private final Semaphore permits;
+
+    private final Counter acceptedCounter;
+    private final Counter rejectedCounter;
+    private final Counter completedCounter;
+    private final Counter failedCounter;
+    private final Counter deferredCounter;
+    private final Timer settlementTimer;
+
+    public AsyncSettlementPipeline(TransactionSettlementService settlementService,
+            SettlementProperties properties,
+            WalletServiceClient walletClient,
+            FxConverter fxConverter,
+            MeterRegistry meterRegistry) {
+        this.settlementService = settlementService;
+        this.properties = properties;
+        this.walletClient = walletClient;
+        this.fxConverter = fxConverter;
+        this.permits = new Semaphore(properties.getMaxInFlight());
+
+        this.acceptedCounter = meterRegistry.counter("transaction.settlement.accepted");
+        this.rejectedCounter = meterRegistry.counter("transaction.settlement.rejected");
+        this.completedCounter = meterRegistry.counter("transaction.settlement.completed");
+        this.failedCounter = meterRegistry.counter("transaction.settlement.failed");
+        this.deferredCounter = meterRegistry.counter("transaction.settlement.deferred");
+        this.settlementTimer = Timer.builder("transaction.settlement.latency")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        meterRegistry.gauge("transaction.settlement.in_flight", permits,
+                p -> properties.getMaxInFlight() - p.availablePermits());
+    }
+
+    /**
+     * Reserves a settlement slot. Callers must either {@link #dispatch} the
+     * transaction or {@link #release()} the slot.
+     */
+    public boolean tryReserve() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        rejectedCounter.increment();
+        return false;
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    /**
+     * Starts settlement of a transaction whose slot was reserved with {@link #tryReserve()}.
+     */
+    public void dispatch(Transaction transaction) {
+        acceptedCounter.increment();
+        Timer.Sample sample = Timer.start();
+        Long transactionId = transaction.getId();
+
+        walletClient.getMetadata(transaction.getSourceWalletId())
+                .flatMap(wallet -> converted(transaction, wallet)
+                        .flatMap(settled -> walletClient.settle(settled.getSourceWalletId(),
+                                settled.getDestinationWalletId(), settled.debitedAmount(),
+                                settled.creditedAmount(), settled.getReference()))
+                        .thenReturn(wallet))
+                .timeout(properties.getTimeout())
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(wallet -> {
+                    settlementService.markCompleted(transactionId, wallet.userId());
+                    completedCounter.increment();
+                })
+                .onErrorResume(e -> Mono.fromRunnable(() -> recordError(transactionId, e))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .then(Mono.empty()))
+                .doFinally(signal -> {
+                    sample.stop(settlementTimer);
+                    permits.release();
+                })
+                .subscribe(
+                        ignored -> {
+                        },
+                        e -> log.error("Could not record settlement outcome for transaction {}", transactionId, e));
+    }
+
+    private Mono<Transaction> converted(Transaction transaction, WalletMetadata sourceWallet) {
+        if (transaction.getSourceAmount() != null) {
+            return Mono.just(transaction);
+        }
+        Mono<Optional<WalletMetadata>> destinationWallet = transaction.getDestinationWalletId() != null
+                ? walletClient.getMetadata(transaction.getDestinationWalletId()).map(Optional::of)
+                : Mono.just(Optional.empty());
+        return destinationWallet
+                .map(destination -> {
+                    fxConverter.convert(transaction, sourceWallet, destination.orElse(null));
+                    return transaction;
+                })
+                .publishOn(Schedulers.boundedElastic())
+                .map(settlementService::recordConversion);
+    }
+
+    private void recordError(Long transactionId, Throwable error) {
+        if (SettlementFailures.isRejection(error)) {
+            log.error("Transaction failed: {}", transactionId, error);
+            settlementService.markFailed(transactionId, error.getMessage());
+            failedCounter.increment();
+            return;
+        }
+        // Timed out, unreachable or failed after the debit: the outcome is unknown
+        log.warn("Transaction {} left PENDING for recovery: {}", transactionId, error.toString());
+        deferredCounter.increment();
+    }
+}
@@ -0,0 +1,72 @@
+package com.fintech.transaction.service;
+
+import com.fintech.shared.config.RabbitListenerConfig;
+import com.fintech.shared.config.RabbitMQConfig;
+import com.fintech.shared.events.TransactionCategorizedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores the category computed by categorization-service on the transaction row.
+ *
+ * <p>Events arrive in batches (messaging.listeners.category-writeback) and are written
+ * with a single JDBC batch of UPDATEs keyed by transaction ID. Rows that already
+ * carry the category are not touched, so redelivered events are harmless.
+ */
+@Service
+@Slf4j
+public class CategoryWritebackService {
+
+    private static final String UPDATE_SQL =
+            "UPDATE transactions SET category = ? WHERE id = ? AND category IS DISTINCT FROM ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Counter updatedCounter;
+    private final Counter skippedCounter;
+
+    public CategoryWritebackService(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.updatedCounter = meterRegistry.counter("transaction.category_writeback.updated");
+        this.skippedCounter = meterRegistry.counter("transaction.category_writeback.skipped");
+    }
+
+    @RabbitListener(id = "category-writeback", queues = RabbitMQConfig.TRANSACTION_CATEGORY_WRITEBACK_QUEUE,
+            containerFactory = RabbitListenerConfig.BATCH_CONTAINER_FACTORY)
+    public void handleCategorized(List<TransactionCategorizedEvent> events) {
+        // Latest categorization wins when a transaction appears twice in the batch
+        Map<Long, String> categories = new LinkedHashMap<>();
+        events.stream()
+                .filter(event -> event.getTransactionId() != null && event.getCategory() != null)
+                .sorted(Comparator.comparing(TransactionCategorizedEvent::getCategorizedAt,
+                        Comparator.nullsFirst(Comparator.naturalOrder())))
+                .forEach(event -> categories.put(event.getTransactionId(), event.getCategory()));
+        if (categories.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> args = new ArrayList<>(categories.size());
+        categories.forEach((id, category) -> args.add(new Object[] { category, id, category }));
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, args);
+
+        int updated = 0;
+        for (int count : counts) {
+            // Batched statements may report SUCCESS_NO_INFO (-2) instead of a row count
+            if (count != 0) {
+                updated++;
+            }
+        }
+        updatedCounter.increment(updated);
+        skippedCounter.increment(events.size() - updated);
+        log.debug("Wrote categories for {} of {} categorized events", updated, events.size());
+    }
+}
@@ -0,0 +1,161 @@
+package com.fintech.transaction.service;
+
+import com.fintech.shared.dto.TransactionDTO;
+import com.fintech.transaction.dto.CreateTransactionRequest;
+import com.fintech.transaction.entity.Transaction;
+import com.fintech.transaction.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates transaction creation by Idempotency-Key. A key is resolved, in order,
+ * against requests currently in flight on this instance, a bounded LRU of recently
+ * seen keys, and finally the unique index on {@code transactions.idempotency_key}.
+ * Only the transaction ID is cached; the returned DTO is always read fresh so
+ * replays report the current status.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    private final TransactionRepository transactionRepository;
+    private final Duration joinTimeout;
+
+    private final Map<String, CompletableFuture<TransactionDTO>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Long> recentKeys;
+
+    private final Counter cacheHits;
+    private final Counter databaseHits;
+    private final Counter joinedInFlight;
+    private final Counter executed;
+
+    public IdempotencyService(TransactionRepository transactionRepository,
+            MeterRegistry meterRegistry,
+            @Value("${transaction.idempotency.cache-size:10000}") int cacheSize,
+            @Value("${transaction.idempotency.join-timeout:30s}") Duration joinTimeout) {
+        this.transactionRepository = transactionRepository;
+        this.joinTimeout = joinTimeout;
+        this.recentKeys = Collections.synchronizedMap(new LinkedHashMap<>(cacheSize, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > cacheSize;
+            }
+        });
+
+        this.cacheHits = meterRegistry.counter("transaction.idempotency.replayed", "source", "cache");
+        this.databaseHits = meterRegistry.counter("transaction.idempotency.replayed", "source", "database");
+        this.joinedInFlight = meterRegistry.counter("transaction.idempotency.replayed", "source", "in_flight");
+        this.executed = meterRegistry.counter("transaction.idempotency.executed");
+        meterRegistry.gaugeMapSize("transaction.idempotency.cache.size", Collections.emptyList(), recentKeys);
+    }
+
+    public record IdempotentResult(TransactionDTO transaction, boolean replayed) {
+    }
+
+    public IdempotentResult execute(String key, CreateTransactionRequest request, Supplier<TransactionDTO> action) {
+        Long cachedId = recentKeys.get(key);
+        if (cachedId != null) {
+            cacheHits.increment();
+            return new IdempotentResult(load(cachedId, request), true);
+        }
+
+        CompletableFuture<TransactionDTO> future = new CompletableFuture<>();
+        CompletableFuture<TransactionDTO> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            joinedInFlight.increment();
+            return new IdempotentResult(join(existing), true);
+        }
+
+        try {
+            Optional<Transaction> stored = transactionRepository.findByIdempotencyKey(key);
+            if (stored.isPresent()) {
+                databaseHits.increment();
+                TransactionDTO result = replay(stored.get(), request);
+                remember(key, result, future);
+                return new IdempotentResult(result, true);
+            }
+
+            TransactionDTO result;
+            boolean replayed = false;
+            try {
+                result = action.get();
+                executed.increment();
+            } catch (DataIntegrityViolationException e) {
+                // Another instance inserted the same key first
+                Transaction winner = transactionRepository.findByIdempotencyKey(key).orElseThrow(() -> e);
+                databaseHits.increment();
+                result = replay(winner, request);
+                replayed = true;
+            }
+
+            remember(key, result, future);
+            return new IdempotentResult(result, replayed);
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private void remember(String key, TransactionDTO result, CompletableFuture<TransactionDTO> future) {
+        recentKeys.put(key, result.getId());
+        future.complete(result);
+    }
+
+    private TransactionDTO join(CompletableFuture<TransactionDTO> existing) {
+        try {
+            return existing.get(joinTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "A request with this Idempotency-Key is still in progress");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private TransactionDTO load(Long transactionId, CreateTransactionRequest request) {
+        Transaction transaction = transactionRepository.findById(transactionId)
+                .orElseThrow(() -> new RuntimeException("Transaction not found"));
+        return replay(transaction, request);
+    }
+
+    private TransactionDTO replay(Transaction transaction, CreateTransactionRequest request) {
+        boolean samePayload = Objects.equals(transaction.getSourceWalletId(), request.getSourceWalletId())
+                && Objects.equals(transaction.getDestinationWalletId(), request.getDestinationWalletId())
+                && transaction.getAmount().compareTo(request.getAmount()) == 0
+                && Objects.equals(transaction.getCurrency(), request.getCurrency());
+        if (!samePayload) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used with a different request");
+        }
+
+        log.info("Replaying transaction {} for repeated Idempotency-Key", transaction.getId());
+        return TransactionService.convertToDTO(transaction);
+    }
+}
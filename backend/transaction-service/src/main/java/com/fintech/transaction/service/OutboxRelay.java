@@ -0,0 +1,194 @@
+package com.fintech.transaction.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fintech.transaction.entity.OutboxEvent;
+import com.fintech.transaction.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the outbox in id order and publishes each batch with publisher confirms.
+ * A batch is marked published only once the broker has confirmed all of it, so
+ * delivery is at-least-once. A single relay instance runs at a time (advisory lock),
+ * which keeps events of a wallet in the order they were written.
+ *
+ * <p>When a batch is not confirmed, its events are published one by one so a single
+ * unreadable or unroutable event does not hold back the others. An event that keeps
+ * failing while others go through is parked after {@code max-attempts}: it gets a
+ * {@code failed_at} timestamp and is skipped from then on. Clearing {@code failed_at}
+ * puts it back in the queue.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private static final long RELAY_LOCK_KEY = 0x6F7574626F78L; // "outbox"
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+    private final long confirmTimeoutMillis;
+    private final Duration retention;
+    private final int maxAttempts;
+
+    private final AtomicLong backlog = new AtomicLong();
+    private final Counter publishedCounter;
+    private final Counter failedBatchCounter;
+    private final Counter parkedCounter;
+    private final Timer publishLag;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+            RabbitTemplate rabbitTemplate,
+            ObjectMapper objectMapper,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${transaction.outbox.batch-size:200}") int batchSize,
+            @Value("${transaction.outbox.confirm-timeout:5s}") Duration confirmTimeout,
+            @Value("${transaction.outbox.retention:7d}") Duration retention,
+            @Value("${transaction.outbox.max-attempts:10}") int maxAttempts) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.confirmTimeoutMillis = confirmTimeout.toMillis();
+        this.retention = retention;
+        this.maxAttempts = maxAttempts;
+
+        this.publishedCounter = meterRegistry.counter("transaction.outbox.published");
+        this.failedBatchCounter = meterRegistry.counter("transaction.outbox.failed_batches");
+        this.parkedCounter = meterRegistry.counter("transaction.outbox.parked");
+        this.publishLag = Timer.builder("transaction.outbox.publish.lag")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        meterRegistry.gauge("transaction.outbox.backlog", backlog);
+    }
+
+    @Scheduled(fixedDelayString = "${transaction.outbox.relay-interval:500}")
+    public void relay() {
+        int published;
+        do {
+            Integer result = transactionTemplate.execute(status -> drainBatch());
+            published = result != null ? result : 0;
+        } while (published == batchSize);
+    }
+
+    @Scheduled(cron = "${transaction.outbox.cleanup-cron:0 0 3 * * *}")
+    public void purgePublished() {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minus(retention)));
+        log.info("Purged {} published outbox events", deleted);
+    }
+
+    private int drainBatch() {
+        if (!outboxEventRepository.tryRelayLock(RELAY_LOCK_KEY)) {
+            return 0;
+        }
+
+        backlog.set(outboxEventRepository.countByPublishedAtIsNullAndFailedAtIsNull());
+
+        List<OutboxEvent> batch = outboxEventRepository.findUnpublishedBatch(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<OutboxEvent, Object> messages = new LinkedHashMap<>();
+        List<OutboxEvent> failed = new ArrayList<>();
+        for (OutboxEvent event : batch) {
+            try {
+                messages.put(event, deserialize(event));
+            } catch (IllegalStateException e) {
+                log.error("Skipping unreadable outbox event {}", event.getId(), e);
+                failed.add(event);
+            }
+        }
+
+        List<OutboxEvent> published = new ArrayList<>();
+        try {
+            publish(messages);
+            published.addAll(messages.keySet());
+        } catch (Exception e) {
+            log.warn("Outbox batch of {} events not confirmed, publishing one by one", messages.size(), e);
+            failedBatchCounter.increment();
+
+            List<OutboxEvent> rejected = new ArrayList<>();
+            messages.forEach((event, message) -> {
+                try {
+                    publish(Map.of(event, message));
+                    published.add(event);
+                } catch (Exception single) {
+                    log.warn("Outbox event {} not confirmed", event.getId(), single);
+                    rejected.add(event);
+                }
+            });
+            // Nothing confirmed means the broker is failing, which is not the events' fault
+            if (!published.isEmpty()) {
+                failed.addAll(rejected);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (!failed.isEmpty()) {
+            recordFailures(failed, now);
+        }
+        if (published.isEmpty()) {
+            return 0;
+        }
+
+        outboxEventRepository.markPublished(published.stream().map(OutboxEvent::getId).toList(), now);
+        for (OutboxEvent event : published) {
+            publishLag.record(Duration.between(event.getCreatedAt(), now));
+        }
+        publishedCounter.increment(published.size());
+        backlog.addAndGet(-published.size());
+
+        log.debug("Published {} outbox events", published.size());
+        return published.size();
+    }
+
+    private void publish(Map<OutboxEvent, Object> messages) {
+        rabbitTemplate.invoke(operations -> {
+            messages.forEach((event, message) ->
+                    operations.convertAndSend(event.getExchange(), event.getRoutingKey(), message));
+            operations.waitForConfirmsOrDie(confirmTimeoutMillis);
+            return null;
+        });
+    }
+
+    private void recordFailures(List<OutboxEvent> failed, LocalDateTime now) {
+        List<Long> ids = failed.stream().map(OutboxEvent::getId).toList();
+        outboxEventRepository.incrementAttempts(ids);
+        int parked = outboxEventRepository.parkExhausted(ids, maxAttempts, now);
+        if (parked > 0) {
+            log.error("Parked {} outbox events after {} failed attempts", parked, maxAttempts);
+            parkedCounter.increment(parked);
+            backlog.addAndGet(-parked);
+        }
+    }
+
+    private Object deserialize(OutboxEvent event) {
+        try {
+            return objectMapper.readValue(event.getPayload(), Class.forName(event.getEventType()));
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not deserialize outbox event " + event.getId(), e);
+        }
+    }
+}
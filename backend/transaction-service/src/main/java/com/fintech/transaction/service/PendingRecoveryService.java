@@ -0,0 +1,198 @@
+package com.fintech.transaction.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Re-drives transactions stuck in PENDING, e.g. after the service died between
+ * saving the row and finishing settlement.
+ *
+ * <p>Each run leases a batch of stale rows with {@code FOR UPDATE SKIP LOCKED}, so
+ * several instances can share the backlog without claiming the same row. A lease
+ * that is not resolved (wallet-service unavailable, etc.) simply expires and the
+ * row is claimed again later. A 4xx answer from wallet-service fails the row at
+ * once. Rows still PENDING after {@code max-attempts} leases are resolved from
+ * wallet-service's record of the reference: COMPLETED if the debit was applied,
+ * FAILED otherwise; while wallet-service cannot answer, they stay PENDING.
+ */
+@Service
+@Slf4j
+public class PendingRecoveryService {
+
+    private static final String CLAIM_SQL = """
+            UPDATE transactions
+            SET lease_owner = ?, lease_expires_at = ?, recovery_attempts = recovery_attempts + 1
+            WHERE id IN (
+                SELECT id FROM transactions
+                WHERE status = 'PENDING' AND created_at < ?
+                  AND (lease_expires_at IS NULL OR lease_expires_at < ?)
+                ORDER BY id
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED)
+            RETURNING id, recovery_attempts
+            """;
+
+    private static final String BACKLOG_SQL =
+            "SELECT COUNT(*) FROM transactions WHERE status = 'PENDING' AND created_at < ?";
+
+    private final TransactionService transactionService;
+    private final TransactionSettlementService settlementService;
+    private final JdbcTemplate jdbcTemplate;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final boolean enabled;
+    private final Duration staleAfter;
+    private final Duration leaseDuration;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final ExecutorService workers;
+    private final RateLimiter rateLimiter;
+
+    private final AtomicLong backlog = new AtomicLong();
+    private final Counter recoveredCounter;
+    private final Counter retriedCounter;
+    private final Counter exhaustedCounter;
+    private final Counter rejectedCounter;
+
+    public PendingRecoveryService(TransactionService transactionService,
+            TransactionSettlementService settlementService,
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${transaction.recovery.enabled:true}") boolean enabled,
+            @Value("${transaction.recovery.stale-after:5m}") Duration staleAfter,
+            @Value("${transaction.recovery.lease-duration:2m}") Duration leaseDuration,
+            @Value("${transaction.recovery.batch-size:100}") int batchSize,
+            @Value("${transaction.recovery.max-attempts:5}") int maxAttempts,
+            @Value("${transaction.recovery.parallelism:4}") int parallelism,
+            @Value("${transaction.recovery.max-per-second:50}") double maxPerSecond) {
+        this.transactionService = transactionService;
+        this.settlementService = settlementService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.staleAfter = staleAfter;
+        this.leaseDuration = leaseDuration;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.workers = Executors.newFixedThreadPool(parallelism);
+        this.rateLimiter = new RateLimiter(maxPerSecond);
+
+        this.recoveredCounter = meterRegistry.counter("transaction.recovery.recovered");
+        this.retriedCounter = meterRegistry.counter("transaction.recovery.retried");
+        this.exhaustedCounter = meterRegistry.counter("transaction.recovery.exhausted");
+        this.rejectedCounter = meterRegistry.counter("transaction.recovery.rejected");
+        meterRegistry.gauge("transaction.recovery.backlog", backlog);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${transaction.recovery.interval:30000}")
+    public void recoverStalePending() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp staleBefore = Timestamp.valueOf(now.minus(staleAfter));
+        Long stale = jdbcTemplate.queryForObject(BACKLOG_SQL, Long.class, staleBefore);
+        backlog.set(stale != null ? stale : 0);
+        if (backlog.get() == 0) {
+            return;
+        }
+
+        List<long[]> claimed = jdbcTemplate.query(CLAIM_SQL,
+                (rs, rowNum) -> new long[] { rs.getLong("id"), rs.getInt("recovery_attempts") },
+                instanceId, Timestamp.valueOf(now.plus(leaseDuration)), staleBefore, Timestamp.valueOf(now),
+                batchSize);
+        if (claimed.isEmpty()) {
+            return;
+        }
+        log.info("Recovering {} stale PENDING transactions (backlog {})", claimed.size(), backlog.get());
+
+        List<Callable<Void>> tasks = claimed.stream()
+                .<Callable<Void>>map(row -> () -> {
+                    rateLimiter.acquire();
+                    recover(row[0], (int) row[1]);
+                    return null;
+                })
+                .toList();
+        workers.invokeAll(tasks);
+    }
+
+    private void recover(long transactionId, int attempt) {
+        if (attempt > maxAttempts) {
+            try {
+                transactionService.resolveAbandonedTransaction(transactionId,
+                        "Settlement could not be completed after recovery");
+                exhaustedCounter.increment();
+            } catch (Exception e) {
+                // Failing now could hide applied money; ask again on the next lease
+                log.warn("Could not resolve transaction {} after {} attempts: {}", transactionId, maxAttempts,
+                        e.getMessage());
+                retriedCounter.increment();
+            }
+            return;
+        }
+
+        try {
+            transactionService.resettleTransaction(transactionId);
+            recoveredCounter.increment();
+        } catch (Exception e) {
+            if (SettlementFailures.isRejection(e)) {
+                log.warn("Transaction {} rejected by wallet-service during recovery: {}", transactionId,
+                        e.getMessage());
+                settlementService.markFailed(transactionId, e.getMessage());
+                rejectedCounter.increment();
+                return;
+            }
+            // Keep the lease; the row is claimed again once it expires
+            log.warn("Recovery attempt {} failed for transaction {}: {}", attempt, transactionId, e.getMessage());
+            retriedCounter.increment();
+        }
+    }
+
+    /**
+     * Spaces permits evenly at {@code permitsPerSecond}.
+     */
+    static final class RateLimiter {
+
+        private final long intervalNanos;
+        private long nextFreeNanos = System.nanoTime();
+
+        RateLimiter(double permitsPerSecond) {
+            this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        }
+
+        void acquire() throws InterruptedException {
+            long waitNanos;
+            synchronized (this) {
+                long now = System.nanoTime();
+                long slot = Math.max(now, nextFreeNanos);
+                nextFreeNanos = slot + intervalNanos;
+                waitNanos = slot - now;
+            }
+            if (waitNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        }
+    }
+}
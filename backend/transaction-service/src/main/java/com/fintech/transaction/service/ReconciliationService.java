@@ -0,0 +1,267 @@
+package com.fintech.transaction.service;
+
+import com.fintech.shared.dto.WalletBalanceDTO;
+import com.fintech.transaction.client.WalletServiceClient;
+import com.fintech.transaction.dto.ReconciliationReport;
+import com.fintech.transaction.dto.WalletMismatch;
+import com.fintech.transaction.repository.TransactionAggregateRepository;
+import com.fintech.transaction.repository.TransactionRepository;
+import com.fintech.transaction.repository.TransactionRepository.NetPosition;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Checks every wallet balance held by wallet-service against its opening balance
+ * plus the net of its COMPLETED transactions.
+ *
+ * <p>The wallet-ID space is split recursively on a dedicated fork/join pool. Each
+ * leaf range fetches the wallet balances and the net positions for that range,
+ * both ordered by wallet ID, and merge-joins them, so memory is bounded by the
+ * range size rather than the number of wallets. For months moved to the archive,
+ * net positions come from the daily rollups.
+ */
+@Service
+@Slf4j
+public class ReconciliationService {
+
+    private static final int RETAINED_RUNS = 20;
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionAggregateRepository aggregateRepository;
+    private final TransactionArchiveService archiveService;
+    private final WalletServiceClient walletClient;
+    private final ForkJoinPool pool;
+    private final long rangeSize;
+    private final int maxReportedMismatches;
+
+    private final AtomicLong walletsCheckedGauge = new AtomicLong();
+    private final Counter mismatchCounter;
+    private final Timer runTimer;
+
+    private final Map<String, Run> runs = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Run> eldest) {
+            return size() > RETAINED_RUNS;
+        }
+    });
+    private final AtomicReference<Run> activeRun = new AtomicReference<>();
+
+    public ReconciliationService(TransactionRepository transactionRepository,
+            TransactionAggregateRepository aggregateRepository,
+            TransactionArchiveService archiveService,
+            WalletServiceClient walletClient,
+            MeterRegistry meterRegistry,
+            @Value("${transaction.reconciliation.parallelism:8}") int parallelism,
+            @Value("${transaction.reconciliation.range-size:5000}") long rangeSize,
+            @Value("${transaction.reconciliation.max-reported-mismatches:1000}") int maxReportedMismatches) {
+        this.transactionRepository = transactionRepository;
+        this.aggregateRepository = aggregateRepository;
+        this.archiveService = archiveService;
+        this.walletClient = walletClient;
+        this.pool = new ForkJoinPool(parallelism);
+        this.rangeSize = rangeSize;
+        this.maxReportedMismatches = maxReportedMismatches;
+
+        this.mismatchCounter = meterRegistry.counter("transaction.reconciliation.mismatches");
+        this.runTimer = meterRegistry.timer("transaction.reconciliation.duration");
+        meterRegistry.gauge("transaction.reconciliation.wallets_checked", walletsCheckedGauge);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    public ReconciliationReport start() {
+        Long maxWalletId = walletClient.getMaxWalletId();
+        long upperBound = (maxWalletId != null ? maxWalletId : 0L) + 1;
+        Optional<LocalDate> archivedUntil = archiveService.getArchivedUntil();
+
+        Run run = new Run(UUID.randomUUID().toString(), (upperBound + rangeSize - 1) / rangeSize);
+        if (!activeRun.compareAndSet(null, run)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A reconciliation run is already in progress");
+        }
+        runs.put(run.id, run);
+        walletsCheckedGauge.set(0);
+        log.info("Starting reconciliation run {} over wallet IDs [1, {})", run.id, upperBound);
+
+        Timer.Sample sample = Timer.start();
+        CompletableFuture
+                .runAsync(() -> new RangeTask(run, 1, upperBound, archivedUntil.orElse(null)).invoke(), pool)
+                .whenComplete((ignored, error) -> {
+                    sample.stop(runTimer);
+                    run.finish(error);
+                    activeRun.set(null);
+                    log.info("Reconciliation run {} finished: {} wallets checked, {} mismatches",
+                            run.id, run.walletsChecked.get(), run.mismatchCount.get(), error);
+                });
+
+        return run.toReport();
+    }
+
+    public ReconciliationReport getReport(String runId) {
+        Run run = runs.get(runId);
+        if (run == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Reconciliation run not found");
+        }
+        return run.toReport();
+    }
+
+    private void reconcileRange(Run run, long fromId, long toId, LocalDate archivedUntil) {
+        List<WalletBalanceDTO> balances = walletClient.getBalancesInRange(fromId, toId);
+        if (balances == null || balances.isEmpty()) {
+            return;
+        }
+
+        List<NetPosition> hot = transactionRepository.findNetPositions(fromId, toId);
+        List<NetPosition> cold = archivedUntil != null
+                ? aggregateRepository.findWalletNetPositionsBefore(fromId, toId, archivedUntil)
+                : List.of();
+
+        // All three lists are sorted by wallet ID: merge-join them
+        int h = 0;
+        int c = 0;
+        for (WalletBalanceDTO wallet : balances) {
+            BigDecimal net = BigDecimal.ZERO;
+            while (h < hot.size() && hot.get(h).getWalletId() < wallet.getId()) {
+                h++;
+            }
+            if (h < hot.size() && hot.get(h).getWalletId().equals(wallet.getId())) {
+                net = net.add(hot.get(h).getNet());
+            }
+            while (c < cold.size() && cold.get(c).getWalletId() < wallet.getId()) {
+                c++;
+            }
+            if (c < cold.size() && cold.get(c).getWalletId().equals(wallet.getId())) {
+                net = net.add(cold.get(c).getNet());
+            }
+
+            BigDecimal opening = wallet.getOpeningBalance() != null ? wallet.getOpeningBalance() : BigDecimal.ZERO;
+            BigDecimal expected = opening.add(net);
+            BigDecimal difference = wallet.getBalance().subtract(expected);
+            if (difference.signum() != 0) {
+                run.recordMismatch(WalletMismatch.builder()
+                        .walletId(wallet.getId())
+                        .balance(wallet.getBalance())
+                        .openingBalance(wallet.getOpeningBalance())
+                        .expectedBalance(expected)
+                        .difference(difference)
+                        .build());
+                mismatchCounter.increment();
+            }
+        }
+
+        run.walletsChecked.addAndGet(balances.size());
+        walletsCheckedGauge.addAndGet(balances.size());
+    }
+
+    private final class RangeTask extends RecursiveTask<Void> {
+
+        private final Run run;
+        private final long fromId;
+        private final long toId;
+        private final LocalDate archivedUntil;
+
+        RangeTask(Run run, long fromId, long toId, LocalDate archivedUntil) {
+            this.run = run;
+            this.fromId = fromId;
+            this.toId = toId;
+            this.archivedUntil = archivedUntil;
+        }
+
+        @Override
+        protected Void compute() {
+            if (toId - fromId <= rangeSize) {
+                reconcileRange(run, fromId, toId, archivedUntil);
+                run.rangesCompleted.incrementAndGet();
+                return null;
+            }
+
+            // Split on a range boundary so leaves line up with rangesTotal
+            long ranges = (toId - fromId + rangeSize - 1) / rangeSize;
+            long middle = fromId + (ranges / 2) * rangeSize;
+            invokeAll(new RangeTask(run, fromId, middle, archivedUntil),
+                    new RangeTask(run, middle, toId, archivedUntil));
+            return null;
+        }
+    }
+
+    private final class Run {
+
+        private final String id;
+        private final long rangesTotal;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicLong rangesCompleted = new AtomicLong();
+        private final AtomicLong walletsChecked = new AtomicLong();
+        private final AtomicLong mismatchCount = new AtomicLong();
+        private final AtomicReference<BigDecimal> totalAbsoluteDifference = new AtomicReference<>(BigDecimal.ZERO);
+        private final ConcurrentLinkedQueue<WalletMismatch> mismatches = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger reported = new AtomicInteger();
+        private volatile String status = "RUNNING";
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+
+        Run(String id, long rangesTotal) {
+            this.id = id;
+            this.rangesTotal = rangesTotal;
+        }
+
+        void recordMismatch(WalletMismatch mismatch) {
+            mismatchCount.incrementAndGet();
+            totalAbsoluteDifference.accumulateAndGet(mismatch.getDifference().abs(), BigDecimal::add);
+            if (reported.getAndIncrement() < maxReportedMismatches) {
+                mismatches.add(mismatch);
+            }
+        }
+
+        void finish(Throwable failure) {
+            finishedAt = LocalDateTime.now();
+            if (failure != null) {
+                status = "FAILED";
+                error = failure.getMessage();
+            } else {
+                status = "COMPLETED";
+            }
+        }
+
+        ReconciliationReport toReport() {
+            return ReconciliationReport.builder()
+                    .runId(id)
+                    .status(status)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .rangesTotal(rangesTotal)
+                    .rangesCompleted(rangesCompleted.get())
+                    .walletsChecked(walletsChecked.get())
+                    .mismatchCount(mismatchCount.get())
+                    .totalAbsoluteDifference(totalAbsoluteDifference.get())
+                    .mismatches(List.copyOf(mismatches))
+                    .error(error)
+                    .build();
+        }
+    }
+}
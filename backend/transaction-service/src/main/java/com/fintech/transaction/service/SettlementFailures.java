@@ -0,0 +1,44 @@
+package com.fintech.transaction.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.Exceptions;
+
+/**
+ * Sorts settlement errors into definite rejections and unknown outcomes. Only a 4xx
+ * answer (from wallet-service or from a local check such as a missing FX rate) means
+ * no money moved. Timeouts, connection errors and 5xx may arrive after the debit was
+ * applied, so those transactions stay PENDING until recovery settles them again
+ * under the same reference.
+ */
+final class SettlementFailures {
+
+    private SettlementFailures() {
+    }
+
+    static boolean isRejection(Throwable error) {
+        Throwable current = Exceptions.unwrap(error);
+        while (current != null) {
+            HttpStatusCode status = statusOf(current);
+            if (status != null) {
+                return status.is4xxClientError()
+                        && status.value() != HttpStatus.REQUEST_TIMEOUT.value()
+                        && status.value() != HttpStatus.TOO_MANY_REQUESTS.value();
+            }
+            current = current.getCause() != current ? current.getCause() : null;
+        }
+        return false;
+    }
+
+    private static HttpStatusCode statusOf(Throwable error) {
+        if (error instanceof WebClientResponseException response) {
+            return response.getStatusCode();
+        }
+        if (error instanceof ResponseStatusException response) {
+            return response.getStatusCode();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,126 @@
+package com.fintech.transaction.service;
+
+import com.fintech.transaction.dto.AggregateDTO;
+import com.fintech.transaction.entity.AggregateScope;
+import com.fintech.transaction.entity.Transaction;
+import com.fintech.transaction.entity.TransactionStatus;
+import com.fintech.transaction.repository.TransactionAggregateRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Maintains the daily rollups in {@code transaction_aggregates} and answers range
+ * queries from them only.
+ *
+ * <p>Wallet rollups track both sides (outflow on the source, inflow on the
+ * destination) in each wallet's own currency, the amounts it was actually debited or
+ * credited. User rollups track the flows initiated by the source wallet owner, the
+ * only user transaction-service knows about, in the source wallet's currency.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionAggregateService {
+
+    public enum Granularity {
+        DAY,
+        MONTH
+    }
+
+    private final TransactionAggregateRepository aggregateRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionArchiveService archiveService;
+
+    /**
+     * Adds a newly COMPLETED transaction to its buckets. Runs in the caller's
+     * transaction so the rollup commits together with the status change.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Transaction transaction) {
+        LocalDate day = transaction.getTransactionDate().toLocalDate();
+        BigDecimal debited = transaction.debitedAmount();
+
+        aggregateRepository.upsert(AggregateScope.WALLET.name(), transaction.getSourceWalletId(), day,
+                transaction.debitedCurrency(), BigDecimal.ZERO, 0, debited, 1);
+
+        if (transaction.getDestinationWalletId() != null) {
+            aggregateRepository.upsert(AggregateScope.WALLET.name(), transaction.getDestinationWalletId(), day,
+                    transaction.creditedCurrency(), transaction.creditedAmount(), 1, BigDecimal.ZERO, 0);
+        }
+
+        if (transaction.getUserId() != null) {
+            aggregateRepository.upsert(AggregateScope.USER.name(), transaction.getUserId(), day,
+                    transaction.debitedCurrency(), BigDecimal.ZERO, 0, debited, 1);
+        }
+    }
+
+    public List<AggregateDTO> getTotals(AggregateScope scope, Long scopeId, LocalDate from, LocalDate to,
+            Granularity granularity) {
+        return aggregateRepository
+                .findTotals(scope.name(), scopeId, from, to, granularity.name().toLowerCase())
+                .stream()
+                .map(row -> AggregateDTO.builder()
+                        .period(row.getPeriod())
+                        .currency(row.getCurrency())
+                        .inAmount(row.getInAmount())
+                        .inCount(row.getInCount())
+                        .outAmount(row.getOutAmount())
+                        .outCount(row.getOutCount())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Recomputes the rollups of {@code [from, to]}, one month per database transaction
+     * to keep each rewrite short. Archived months are read back from their segments,
+     * the others from the transactions table.
+     */
+    public void rebuild(LocalDate from, LocalDate to) {
+        log.info("Rebuilding transaction aggregates from {} to {}", from, to);
+
+        // Chunks start on the 1st after the first one and archiving works by whole months,
+        // so each chunk is either entirely archived or entirely in the transactions table
+        archiveService.refreshSegments();
+        LocalDate archivedUntil = archiveService.getArchivedUntil().orElse(LocalDate.MIN);
+
+        LocalDate chunkStart = from;
+        while (!chunkStart.isAfter(to)) {
+            LocalDate chunkEnd = chunkStart.withDayOfMonth(1).plusMonths(1);
+            if (chunkEnd.isAfter(to.plusDays(1))) {
+                chunkEnd = to.plusDays(1);
+            }
+
+            LocalDate start = chunkStart;
+            LocalDate end = chunkEnd;
+            boolean archived = start.isBefore(archivedUntil);
+            transactionTemplate.executeWithoutResult(status -> {
+                int deleted = aggregateRepository.deleteDays(start, end);
+                if (archived) {
+                    archiveService.forEachInRange(null, start.atStartOfDay(), end.atStartOfDay(), transaction -> {
+                        if (transaction.getStatus() == TransactionStatus.COMPLETED) {
+                            record(transaction);
+                        }
+                    });
+                } else {
+                    aggregateRepository.rebuildWalletOutflows(start.atStartOfDay(), end.atStartOfDay());
+                    aggregateRepository.rebuildWalletInflows(start.atStartOfDay(), end.atStartOfDay());
+                    aggregateRepository.rebuildUserOutflows(start.atStartOfDay(), end.atStartOfDay());
+                }
+                log.debug("Rebuilt aggregates for [{}, {}) from {}, replaced {} rows", start, end,
+                        archived ? "segments" : "transactions", deleted);
+            });
+
+            chunkStart = chunkEnd;
+        }
+
+        log.info("Transaction aggregates rebuilt");
+    }
+}
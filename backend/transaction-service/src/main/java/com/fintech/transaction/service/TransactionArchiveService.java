@@ -0,0 +1,397 @@
+package com.fintech.transaction.service;
+
+import com.fintech.transaction.archive.SegmentReader;
+import com.fintech.transaction.archive.SegmentWriter;
+import com.fintech.transaction.config.ArchiveProperties;
+import com.fintech.transaction.entity.ArchivedSegment;
+import com.fintech.transaction.entity.Transaction;
+import com.fintech.transaction.entity.TransactionStatus;
+import com.fintech.transaction.entity.TransactionType;
+import com.fintech.transaction.repository.ArchivedSegmentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Moves whole months older than {@code hot-months} out of the transactions table
+ * into compressed, immutable segment files, and serves reads over those segments
+ * so history and export queries see hot and cold data as one.
+ *
+ * <p>A month is archived only when it has no PENDING rows, and archiving stops at
+ * the first month left in place, so archived months always precede the hot table.
+ * Each month is archived in one database transaction holding the archive advisory
+ * lock: the checks, the segment write, its registration and the deletion of the
+ * month's rows, after checking that the deleted count matches the segment's row
+ * count. Segment files
+ * get a unique name per attempt and are never replaced. The archive directory must
+ * be shared by all instances; each segment records the node that wrote it.
+ */
+@Service
+@Slf4j
+public class TransactionArchiveService {
+
+    private static final long ARCHIVE_LOCK_KEY = 0x61726368697665L; // "archive"
+    private static final String NODE = localNode();
+
+    private static final String MONTH_QUERY = """
+            SELECT id, source_wallet_id, destination_wallet_id, user_id, amount, currency, source_amount,
+                   destination_amount, source_currency, destination_currency, fx_rate_version, transaction_type,
+                   status, reference, transaction_date, category, description, failure_reason, idempotency_key,
+                   created_at, updated_at
+            FROM transactions
+            WHERE transaction_date >= ? AND transaction_date < ?
+            ORDER BY transaction_date, id
+            """;
+
+    private final ArchiveProperties properties;
+    private final ArchivedSegmentRepository segmentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile List<ArchivedSegment> segments = List.of(); // Oldest month first
+    private final Map<String, SegmentReader> readers = new ConcurrentHashMap<>();
+
+    public TransactionArchiveService(ArchiveProperties properties,
+            ArchivedSegmentRepository segmentRepository,
+            TransactionTemplate transactionTemplate,
+            DataSource dataSource,
+            @Value("${transaction.export.fetch-size:1000}") int fetchSize) {
+        this.properties = properties;
+        this.segmentRepository = segmentRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    // ==================== ARCHIVING ====================
+
+    @Scheduled(cron = "${transaction.archive.cron:0 30 2 * * *}")
+    public void archiveColdMonths() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        YearMonth cutoff = YearMonth.now().minusMonths(properties.getHotMonths() - 1L);
+        Timestamp oldest = jdbcTemplate.queryForObject("SELECT MIN(transaction_date) FROM transactions",
+                Timestamp.class);
+        if (oldest == null) {
+            return;
+        }
+
+        // Stop at the first month left hot: history paging and reconciliation rely on every
+        // archived month being older than every row still in the table
+        for (YearMonth month = YearMonth.from(oldest.toLocalDateTime()); month.isBefore(cutoff); month = month
+                .plusMonths(1)) {
+            if (!archiveMonth(month)) {
+                log.info("Archiving stopped at {}, later months stay hot", month);
+                break;
+            }
+        }
+        refreshSegments();
+    }
+
+    /**
+     * Archives one month. Returns {@code false} when the month was left in the
+     * transactions table (lock held elsewhere, segment already registered or PENDING rows).
+     */
+    boolean archiveMonth(YearMonth month) {
+        LocalDateTime start = month.atDay(1).atStartOfDay();
+        LocalDateTime end = month.plusMonths(1).atDay(1).atStartOfDay();
+        // Unique per attempt: a segment file is never replaced, and a failed attempt only removes its own file
+        Path path = Path.of(properties.getDirectory(),
+                "transactions-" + month + "-" + UUID.randomUUID().toString().substring(0, 8) + ".seg");
+
+        Long rowCount;
+        try {
+            rowCount = transactionTemplate.execute(status -> {
+                // Held until commit, so one instance at a time checks, writes, registers and deletes a month
+                if (!segmentRepository.tryArchiveLock(ARCHIVE_LOCK_KEY)) {
+                    log.info("Another instance is archiving, skipping {}", month);
+                    return null;
+                }
+                if (segmentRepository.existsByMonth(month.toString())) {
+                    log.warn("Segment for {} already exists but the month still has hot rows, skipping", month);
+                    return null;
+                }
+                Long pending = jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM transactions WHERE status = 'PENDING' AND transaction_date >= ? AND transaction_date < ?",
+                        Long.class, Timestamp.valueOf(start), Timestamp.valueOf(end));
+                if (pending != null && pending > 0) {
+                    log.warn("Skipping archive of {}: {} transactions still PENDING", month, pending);
+                    return null;
+                }
+
+                long written = writeSegment(path, start, end);
+                if (written == 0) {
+                    return 0L;
+                }
+                segmentRepository.save(ArchivedSegment.builder()
+                        .month(month.toString())
+                        .path(path.toString())
+                        .node(NODE)
+                        .rowCount(written)
+                        .sizeBytes(sizeOf(path))
+                        .build());
+                int deleted = jdbcTemplate.update(
+                        "DELETE FROM transactions WHERE transaction_date >= ? AND transaction_date < ?",
+                        Timestamp.valueOf(start), Timestamp.valueOf(end));
+                if (deleted != written) {
+                    throw new IllegalStateException("Month " + month + " changed while archiving: segment has "
+                            + written + " rows, deleted " + deleted);
+                }
+                return written;
+            });
+        } catch (RuntimeException e) {
+            discardUnregistered(path);
+            throw e;
+        }
+
+        if (rowCount == null) {
+            return false;
+        }
+        if (rowCount == 0) {
+            deleteQuietly(path);
+            return true;
+        }
+        log.info("Archived {} transactions of {} to {} ({} bytes)", rowCount, month, path, sizeOf(path));
+        return true;
+    }
+
+    private long writeSegment(Path path, LocalDateTime start, LocalDateTime end) {
+        try (SegmentWriter writer = new SegmentWriter(path, properties.getRecordsPerBlock())) {
+            jdbcTemplate.query(MONTH_QUERY, rs -> {
+                try {
+                    writer.append(mapRow(rs));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, Timestamp.valueOf(start), Timestamp.valueOf(end));
+            return writer.getRowCount();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write segment " + path, e);
+        }
+    }
+
+    // The commit may have failed after the row was written; keep the file unless it is surely unreferenced
+    private void discardUnregistered(Path path) {
+        try {
+            if (!segmentRepository.existsByPath(path.toString())) {
+                deleteQuietly(path);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not check segment {}, leaving it in place", path, e);
+        }
+    }
+
+    // ==================== READS ====================
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${transaction.archive.refresh-interval:60000}")
+    public void refreshSegments() {
+        if (properties.isEnabled()) {
+            segments = List.copyOf(segmentRepository.findAllByOrderByMonthAsc());
+        }
+    }
+
+    /**
+     * Archived part of a wallet history page: up to {@code limit} transactions strictly
+     * before the {@code (cursorDate, cursorId)} position, newest first.
+     */
+    public List<Transaction> findWalletHistory(Long walletId, LocalDateTime cursorDate, Long cursorId, int limit) {
+        List<Transaction> page = new ArrayList<>(limit);
+        Comparator<Transaction> newestFirst = Comparator.comparing(Transaction::getTransactionDate)
+                .thenComparing(Transaction::getId)
+                .reversed();
+
+        List<ArchivedSegment> snapshot = segments;
+        for (int s = snapshot.size() - 1; s >= 0 && page.size() < limit; s--) {
+            ArchivedSegment segment = snapshot.get(s);
+            if (!YearMonth.parse(segment.getMonth()).atDay(1).atStartOfDay().isBefore(cursorDate)) {
+                continue;
+            }
+
+            SegmentReader reader = reader(segment);
+            int[] blocks = reader.blocksForWallet(walletId);
+            for (int b = blocks.length - 1; b >= 0 && page.size() < limit; b--) {
+                List<Transaction> matches = new ArrayList<>();
+                reader.forEachInBlock(blocks[b], t -> {
+                    if (involves(t, walletId) && isBefore(t, cursorDate, cursorId)) {
+                        matches.add(t);
+                    }
+                });
+                matches.sort(newestFirst);
+                for (Transaction t : matches) {
+                    if (page.size() == limit) {
+                        break;
+                    }
+                    page.add(t);
+                }
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Visits archived transactions in {@code [from, to)}, oldest first, optionally
+     * restricted to one wallet. Only one block is held in memory at a time.
+     */
+    public void forEachInRange(Long walletId, LocalDateTime from, LocalDateTime to, Consumer<Transaction> consumer) {
+        for (ArchivedSegment segment : segments) {
+            YearMonth month = YearMonth.parse(segment.getMonth());
+            if (!month.plusMonths(1).atDay(1).atStartOfDay().isAfter(from)
+                    || !month.atDay(1).atStartOfDay().isBefore(to)) {
+                continue;
+            }
+
+            SegmentReader reader = reader(segment);
+            int[] blocks = walletId != null ? reader.blocksForWallet(walletId) : allBlocks(reader);
+            for (int block : blocks) {
+                reader.forEachInBlock(block, t -> {
+                    if ((walletId == null || involves(t, walletId))
+                            && !t.getTransactionDate().isBefore(from)
+                            && t.getTransactionDate().isBefore(to)) {
+                        consumer.accept(t);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * First day still held in the transactions table, when at least one month is archived.
+     */
+    public Optional<LocalDate> getArchivedUntil() {
+        List<ArchivedSegment> snapshot = segments;
+        if (!properties.isEnabled() || snapshot.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(YearMonth.parse(snapshot.get(snapshot.size() - 1).getMonth()).plusMonths(1).atDay(1));
+    }
+
+    public Optional<Transaction> findById(Long id) {
+        // IDs are not ordered by month, so every segment and every block in range is a candidate
+        for (ArchivedSegment segment : segments) {
+            SegmentReader reader = reader(segment);
+            for (int block : reader.blocksForId(id)) {
+                Optional<Transaction> match = reader.readBlock(block).stream()
+                        .filter(t -> t.getId().equals(id))
+                        .findFirst();
+                if (match.isPresent()) {
+                    return match;
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private SegmentReader reader(ArchivedSegment segment) {
+        return readers.computeIfAbsent(segment.getPath(), path -> {
+            try {
+                return new SegmentReader(Path.of(path));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not open segment " + path + " written by node "
+                        + segment.getNode() + "; the archive directory must be shared by all instances", e);
+            }
+        });
+    }
+
+    private static int[] allBlocks(SegmentReader reader) {
+        int[] blocks = new int[reader.getBlockCount()];
+        for (int i = 0; i < blocks.length; i++) {
+            blocks[i] = i;
+        }
+        return blocks;
+    }
+
+    private static boolean involves(Transaction t, Long walletId) {
+        return walletId.equals(t.getSourceWalletId()) || walletId.equals(t.getDestinationWalletId());
+    }
+
+    private static boolean isBefore(Transaction t, LocalDateTime cursorDate, Long cursorId) {
+        int byDate = t.getTransactionDate().compareTo(cursorDate);
+        return byDate < 0 || (byDate == 0 && t.getId() < cursorId);
+    }
+
+    private static Transaction mapRow(ResultSet rs) throws SQLException {
+        Transaction t = new Transaction();
+        t.setId(rs.getLong("id"));
+        t.setSourceWalletId(rs.getLong("source_wallet_id"));
+        t.setDestinationWalletId(rs.getObject("destination_wallet_id", Long.class));
+        t.setUserId(rs.getObject("user_id", Long.class));
+        t.setAmount(rs.getBigDecimal("amount"));
+        t.setCurrency(rs.getString("currency"));
+        t.setSourceAmount(rs.getBigDecimal("source_amount"));
+        t.setDestinationAmount(rs.getBigDecimal("destination_amount"));
+        t.setSourceCurrency(rs.getString("source_currency"));
+        t.setDestinationCurrency(rs.getString("destination_currency"));
+        t.setFxRateVersion(rs.getObject("fx_rate_version", Long.class));
+        t.setTransactionType(TransactionType.valueOf(rs.getString("transaction_type")));
+        t.setStatus(TransactionStatus.valueOf(rs.getString("status")));
+        t.setReference(rs.getString("reference"));
+        t.setTransactionDate(rs.getTimestamp("transaction_date").toLocalDateTime());
+        t.setCategory(rs.getString("category"));
+        t.setDescription(rs.getString("description"));
+        t.setFailureReason(rs.getString("failure_reason"));
+        t.setIdempotencyKey(rs.getString("idempotency_key"));
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        t.setCreatedAt(createdAt != null ? createdAt.toLocalDateTime() : null);
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        t.setUpdatedAt(updatedAt != null ? updatedAt.toLocalDateTime() : null);
+        return t;
+    }
+
+    private static String localNode() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            return "unknown";
+        }
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            path.toFile().setWritable(true);
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete segment {}", path, e);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.fintech.transaction.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fintech.transaction.entity.Transaction;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams transaction history straight from a server-side cursor to the response.
+ * Rows are written as they are fetched, without building entities or DTOs, so
+ * memory use does not depend on the size of the export. Archived months are read
+ * from their segments one block at a time.
+ */
+@Service
+@Slf4j
+public class TransactionExportService {
+
+    private static final String[] COLUMNS = {
+            "id", "reference", "source_wallet_id", "destination_wallet_id", "amount", "currency",
+            "transaction_type", "status", "category", "description", "transaction_date", "failure_reason"
+    };
+
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionArchiveService archiveService;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final int flushEvery;
+
+    public TransactionExportService(DataSource dataSource,
+            TransactionArchiveService archiveService,
+            @Value("${transaction.export.fetch-size:1000}") int fetchSize,
+            @Value("${transaction.export.flush-every:1000}") int flushEvery) {
+        // Dedicated template: PostgreSQL only uses a cursor when a fetch size is set
+        // and the statement runs inside a transaction
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.archiveService = archiveService;
+        this.flushEvery = flushEvery;
+    }
+
+    public enum ExportFormat {
+        NDJSON,
+        CSV
+    }
+
+    @Transactional(readOnly = true)
+    public long export(Long walletId, LocalDateTime from, LocalDateTime to, ExportFormat format, OutputStream out) {
+        StringBuilder sql = new StringBuilder("SELECT ")
+                .append(String.join(", ", COLUMNS))
+                .append(" FROM transactions WHERE transaction_date >= ? AND transaction_date < ?");
+        List<Object> args = new ArrayList<>(List.of(Timestamp.valueOf(from), Timestamp.valueOf(to)));
+        if (walletId != null) {
+            sql.append(" AND (source_wallet_id = ? OR destination_wallet_id = ?)");
+            args.add(walletId);
+            args.add(walletId);
+        }
+        sql.append(" ORDER BY transaction_date, id");
+
+        log.info("Exporting transactions {} -> {} (wallet {}) as {}", from, to, walletId, format);
+
+        try (OutputStream buffered = new BufferedOutputStream(out, OUTPUT_BUFFER_SIZE)) {
+            RowWriter writer = format == ExportFormat.CSV ? new CsvRowWriter(buffered) : new NdjsonRowWriter(buffered);
+            Object[] values = new Object[COLUMNS.length];
+            long[] rows = {0};
+
+            // Archived months are older than anything left in the table, so they come first
+            if (archiveService.isEnabled()) {
+                archiveService.forEachInRange(walletId, from, to, transaction -> {
+                    fillValues(values, transaction);
+                    writeRow(writer, values, rows);
+                });
+            }
+
+            jdbcTemplate.query(sql.toString(), rs -> {
+                try {
+                    for (int i = 0; i < COLUMNS.length; i++) {
+                        values[i] = rs.getObject(i + 1);
+                    }
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+                writeRow(writer, values, rows);
+            }, args.toArray());
+
+            writer.flush();
+            log.info("Exported {} transactions", rows[0]);
+            return rows[0];
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeRow(RowWriter writer, Object[] values, long[] rows) {
+        try {
+            writer.write(values);
+            if (++rows[0] % flushEvery == 0) {
+                writer.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Same order as COLUMNS
+    private static void fillValues(Object[] values, Transaction t) {
+        values[0] = t.getId();
+        values[1] = t.getReference();
+        values[2] = t.getSourceWalletId();
+        values[3] = t.getDestinationWalletId();
+        values[4] = t.getAmount();
+        values[5] = t.getCurrency();
+        values[6] = t.getTransactionType().name();
+        values[7] = t.getStatus().name();
+        values[8] = t.getCategory();
+        values[9] = t.getDescription();
+        values[10] = t.getTransactionDate();
+        values[11] = t.getFailureReason();
+    }
+
+    private interface RowWriter {
+        void write(Object[] values) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    private final class NdjsonRowWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(OutputStream out) throws IOException {
+            this.generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8);
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(Object[] values) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < COLUMNS.length; i++) {
+                Object value = values[i];
+                generator.writeFieldName(COLUMNS[i]);
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof BigDecimal decimal) {
+                    generator.writeNumber(decimal);
+                } else if (value instanceof Number number) {
+                    generator.writeNumber(number.longValue());
+                } else if (value instanceof Timestamp timestamp) {
+                    generator.writeString(timestamp.toLocalDateTime().toString());
+                } else if (value instanceof LocalDateTime dateTime) {
+                    generator.writeString(dateTime.toString());
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+
+        private final OutputStream out;
+        private final StringBuilder line = new StringBuilder(256);
+
+        CsvRowWriter(OutputStream out) throws IOException {
+            this.out = out;
+            out.write((String.join(",", COLUMNS) + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void write(Object[] values) throws IOException {
+            line.setLength(0);
+            for (int i = 0; i < COLUMNS.length; i++) {
+                if (i > 0) {
+                    line.append(',');
+                }
+                Object value = values[i];
+                if (value instanceof Timestamp timestamp) {
+                    line.append(timestamp.toLocalDateTime());
+                } else if (value instanceof LocalDateTime dateTime) {
+                    line.append(dateTime);
+                } else if (value instanceof BigDecimal decimal) {
+                    line.append(decimal.toPlainString());
+                } else if (value != null) {
+                    appendEscaped(value.toString());
+                }
+            }
+            line.append('\n');
+            out.write(line.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void appendEscaped(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                line.append(value);
+                return;
+            }
+            line.append('"').append(value.replace("\"", "\"\"")).append('"');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+    }
+}
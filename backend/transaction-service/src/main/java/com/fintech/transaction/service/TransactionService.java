@@ -1,26 +1,42 @@
 package com.fintech.transaction.service;
 
 import com.fintech.shared.dto.TransactionDTO;
-import com.fintech.shared.dto.WalletDTO;
-import com.fintech.shared.events.TransactionCompletedEvent;
-import com.fintech.shared.events.TransactionFailedEvent;
+import com.fintech.transaction.client.WalletMetadata;
+import com.fintech.transaction.client.WalletServiceClient;
+import com.fintech.transaction.config.SettlementProperties;
+import com.fintech.transaction.dto.BatchItemResult;
 import com.fintech.transaction.dto.CreateTransactionRequest;
 import com.fintech.transaction.entity.Transaction;
 import com.fintech.transaction.entity.TransactionStatus;
 import com.fintech.transaction.entity.TransactionType;
+import com.fintech.transaction.fx.FxConverter;
 import com.fintech.transaction.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -28,18 +44,90 @@ import java.util.stream.Collectors;
 public class TransactionService {
 
     private final TransactionRepository transactionRepository;
-    private final RabbitTemplate rabbitTemplate;
-    private final WebClient.Builder webClientBuilder;
+    private final TransactionSettlementService settlementService;
+    private final AsyncSettlementPipeline settlementPipeline;
+    private final SettlementProperties settlementProperties;
+    private final TransactionArchiveService archiveService;
+    private final WalletServiceClient walletClient;
+    private final FxConverter fxConverter;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final Validator validator;
 
-    @Value("${wallet.service.url}")
-    private String walletServiceUrl;
+    private static final int MAX_PAGE_SIZE = 500;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int jdbcBatchSize;
 
     @Transactional
     public TransactionDTO createTransaction(CreateTransactionRequest request) {
+        return createTransaction(request, null);
+    }
+
+    @Transactional
+    public TransactionDTO createTransaction(CreateTransactionRequest request, String idempotencyKey) {
         log.info("Creating transaction from wallet {} to wallet {}",
                 request.getSourceWalletId(), request.getDestinationWalletId());
 
-        Transaction transaction = Transaction.builder()
+        Transaction transaction = buildPendingTransaction(request);
+        transaction.setIdempotencyKey(idempotencyKey);
+        // Flush now so a duplicate Idempotency-Key fails before any wallet call
+        transaction = transactionRepository.saveAndFlush(transaction);
+
+        processTransaction(transaction);
+
+        return convertToDTO(transaction);
+    }
+
+    /**
+     * Async settlement mode: persists the PENDING transaction and hands it to the
+     * settlement pipeline without waiting for wallet-service. The returned DTO
+     * carries the reference the client can poll.
+     */
+    public TransactionDTO acceptTransaction(CreateTransactionRequest request) {
+        return acceptTransaction(request, null);
+    }
+
+    public TransactionDTO acceptTransaction(CreateTransactionRequest request, String idempotencyKey) {
+        log.info("Accepting transaction from wallet {} to wallet {}",
+                request.getSourceWalletId(), request.getDestinationWalletId());
+
+        // Converted here only from cached metadata, so wallet-service is never called before
+        // the 202; otherwise the pipeline converts and stores the amounts before settling
+        Transaction transaction = buildPendingTransaction(request);
+        transaction.setIdempotencyKey(idempotencyKey);
+        Optional<WalletMetadata> sourceWallet = walletClient.getCachedMetadata(transaction.getSourceWalletId());
+        Optional<WalletMetadata> destinationWallet = transaction.getDestinationWalletId() != null
+                ? walletClient.getCachedMetadata(transaction.getDestinationWalletId())
+                : Optional.empty();
+        if (sourceWallet.isPresent()
+                && (transaction.getDestinationWalletId() == null || destinationWallet.isPresent())) {
+            fxConverter.convert(transaction, sourceWallet.get(), destinationWallet.orElse(null));
+        }
+
+        if (!settlementPipeline.tryReserve()) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                    "Settlement capacity exhausted, retry later");
+        }
+
+        try {
+            transaction = transactionRepository.save(transaction);
+        } catch (RuntimeException e) {
+            settlementPipeline.release();
+            throw e;
+        }
+
+        settlementPipeline.dispatch(transaction);
+
+        return convertToDTO(transaction);
+    }
+
+    public boolean isAsyncSettlement() {
+        return settlementProperties.isAsync();
+    }
+
+    private Transaction buildPendingTransaction(CreateTransactionRequest request) {
+        return Transaction.builder()
                 .sourceWalletId(request.getSourceWalletId())
                 .destinationWalletId(request.getDestinationWalletId())
                 .amount(request.getAmount())
@@ -50,130 +138,301 @@ public class TransactionService {
                 .reference(UUID.randomUUID().toString())
                 .transactionDate(LocalDateTime.now())
                 .build();
-
-        transaction = transactionRepository.save(transaction);
-
-        // Process transaction asynchronously
-        processTransaction(transaction);
-
-        return convertToDTO(transaction);
     }
 
     private void processTransaction(Transaction transaction) {
         try {
-            // Get wallet details to get userId
-            WalletDTO sourceWallet = getWallet(transaction.getSourceWalletId());
-
-            // Validate and debit source wallet
-            debitWallet(transaction.getSourceWalletId(), transaction.getAmount());
-
-            // Update transaction status
-            transaction.setStatus(TransactionStatus.COMPLETED);
-            transactionRepository.save(transaction);
-
-            // Publish transaction completed event
-            TransactionCompletedEvent event = TransactionCompletedEvent.builder()
-                    .transactionId(transaction.getId())
-                    .userId(sourceWallet.getUserId())
-                    .sourceWalletId(transaction.getSourceWalletId())
-                    .destinationWalletId(transaction.getDestinationWalletId())
-                    .amount(transaction.getAmount())
-                    .currency(transaction.getCurrency())
-                    .transactionType(transaction.getTransactionType().name())
-                    .description(transaction.getDescription())
-                    .reference(transaction.getReference())
-                    .completedAt(LocalDateTime.now())
-                    .build();
-
-            rabbitTemplate.convertAndSend(
-                    TransactionCompletedEvent.EXCHANGE,
-                    TransactionCompletedEvent.ROUTING_KEY,
-                    event);
-
-            log.info("Transaction completed successfully: {}", transaction.getId());
+            // Owner comes from the wallet metadata near-cache
+            WalletMetadata sourceWallet = walletClient.getMetadataBlocking(transaction.getSourceWalletId());
+            convertAmounts(transaction, sourceWallet);
+
+            // Debit source wallet, or transfer atomically when there is a destination
+            walletClient.settle(transaction.getSourceWalletId(), transaction.getDestinationWalletId(),
+                    transaction.debitedAmount(), transaction.creditedAmount(), transaction.getReference())
+                    .block();
+
+            settlementService.markCompleted(transaction.getId(), sourceWallet.userId());
 
         } catch (Exception e) {
+            if (!SettlementFailures.isRejection(e)) {
+                // The debit may have been applied; recovery settles it again under the same reference
+                log.warn("Transaction {} left PENDING for recovery: {}", transaction.getId(), e.toString());
+                return;
+            }
             log.error("Transaction failed: {}", transaction.getId(), e);
+            settlementService.markFailed(transaction.getId(), e.getMessage());
+        }
+    }
+
+    // Blocking lookups: only for the synchronous paths and recovery
+    private void convertAmounts(Transaction transaction, WalletMetadata sourceWallet) {
+        WalletMetadata destinationWallet = transaction.getDestinationWalletId() != null
+                ? walletClient.getMetadataBlocking(transaction.getDestinationWalletId())
+                : null;
+        fxConverter.convert(transaction, sourceWallet, destinationWallet);
+    }
 
-            transaction.setStatus(TransactionStatus.FAILED);
-            transaction.setFailureReason(e.getMessage());
-            transactionRepository.save(transaction);
-
-            // Publish transaction failed event
-            TransactionFailedEvent event = TransactionFailedEvent.builder()
-                    .transactionId(transaction.getId())
-                    .userId(null) // We might not have user ID if wallet call failed
-                    .sourceWalletId(transaction.getSourceWalletId())
-                    .destinationWalletId(transaction.getDestinationWalletId())
-                    .amount(transaction.getAmount())
-                    .currency(transaction.getCurrency())
-                    .transactionType(transaction.getTransactionType().name())
-                    .description(transaction.getDescription())
-                    .failureReason(e.getMessage())
-                    .errorCode("TRANSACTION_FAILED")
-                    .failedAt(LocalDateTime.now())
-                    .build();
-
-            rabbitTemplate.convertAndSend(
-                    TransactionFailedEvent.EXCHANGE,
-                    TransactionFailedEvent.ROUTING_KEY,
-                    event);
-        }
-    }
-
-    private WalletDTO getWallet(Long walletId) {
-        WebClient client = webClientBuilder.baseUrl(walletServiceUrl).build();
-
-        return client.get()
-                .uri("/api/wallets/" + walletId)
-                .retrieve()
-                .bodyToMono(WalletDTO.class)
+    /**
+     * Bulk import: validates every item, persists the valid ones with JDBC batching,
+     * then settles them with one debit per source wallet. Each item's outcome is
+     * passed to {@code resultSink} as soon as its wallet group is settled.
+     */
+    public void ingestBatch(List<CreateTransactionRequest> requests, Consumer<BatchItemResult> resultSink) {
+        log.info("Ingesting batch of {} transactions", requests.size());
+
+        // One bulk lookup warms the metadata near-cache for the per-item conversions below
+        try {
+            walletClient.prefetchMetadata(requests.stream()
+                    .flatMap(request -> Stream.of(request.getSourceWalletId(), request.getDestinationWalletId()))
+                    .filter(Objects::nonNull)
+                    .toList());
+        } catch (RuntimeException e) {
+            log.warn("Could not prefetch wallet metadata, falling back to single lookups", e);
+        }
+
+        List<Integer> validIndexes = new ArrayList<>();
+        List<Transaction> pending = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            CreateTransactionRequest request = requests.get(i);
+            String error = validateBatchItem(request);
+            if (error != null) {
+                resultSink.accept(BatchItemResult.builder()
+                        .index(i)
+                        .status("REJECTED")
+                        .error(error)
+                        .build());
+                continue;
+            }
+            Transaction transaction = buildPendingTransaction(request);
+            try {
+                convertAmounts(transaction, walletClient.getMetadataBlocking(transaction.getSourceWalletId()));
+            } catch (RuntimeException e) {
+                resultSink.accept(BatchItemResult.builder()
+                        .index(i)
+                        .status("REJECTED")
+                        .error(e instanceof ResponseStatusException rse ? rse.getReason() : e.getMessage())
+                        .build());
+                continue;
+            }
+            validIndexes.add(i);
+            pending.add(transaction);
+        }
+
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> persistBatch(pending));
+
+        // Group by source wallet, keeping submission order inside each group
+        Map<Long, List<Integer>> positionsByWallet = new LinkedHashMap<>();
+        for (int i = 0; i < pending.size(); i++) {
+            positionsByWallet.computeIfAbsent(pending.get(i).getSourceWalletId(), id -> new ArrayList<>()).add(i);
+        }
+
+        positionsByWallet.forEach((walletId, positions) -> {
+            List<Long> ids = positions.stream().map(p -> pending.get(p).getId()).toList();
+            List<Map<String, Object>> debits = positions.stream()
+                    .map(p -> Map.<String, Object>of(
+                            "reference", pending.get(p).getReference(),
+                            "amount", pending.get(p).debitedAmount()))
+                    .toList();
+
+            String status;
+            String error = null;
+            try {
+                WalletMetadata sourceWallet = walletClient.getMetadataBlocking(walletId);
+                walletClient.debitBatch(walletId, debits).block();
+                settlementService.markCompletedBatch(ids, sourceWallet.userId());
+                status = TransactionStatus.COMPLETED.name();
+            } catch (Exception e) {
+                error = e.getMessage();
+                if (!SettlementFailures.isRejection(e)) {
+                    // The batch debit may have been applied; recovery settles each item again
+                    // under its own reference
+                    log.warn("Batch for wallet {} left PENDING for recovery: {}", walletId, e.toString());
+                    status = TransactionStatus.PENDING.name();
+                } else {
+                    log.error("Batch settlement failed for wallet {}", walletId, e);
+                    settlementService.markFailedBatch(ids, e.getMessage());
+                    status = TransactionStatus.FAILED.name();
+                }
+            }
+
+            for (Integer position : positions) {
+                Transaction transaction = pending.get(position);
+                resultSink.accept(BatchItemResult.builder()
+                        .index(validIndexes.get(position))
+                        .transactionId(transaction.getId())
+                        .reference(transaction.getReference())
+                        .status(status)
+                        .error(error)
+                        .build());
+            }
+        });
+    }
+
+    private String validateBatchItem(CreateTransactionRequest request) {
+        Set<ConstraintViolation<CreateTransactionRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        if (request.getAmount().signum() <= 0) {
+            return "Amount must be positive";
+        }
+        try {
+            TransactionType.valueOf(request.getTransactionType());
+        } catch (IllegalArgumentException e) {
+            return "Unknown transaction type: " + request.getTransactionType();
+        }
+        return null;
+    }
+
+    private void persistBatch(List<Transaction> transactions) {
+        // Flush and clear per JDBC batch so the persistence context stays small
+        for (int i = 0; i < transactions.size(); i++) {
+            entityManager.persist(transactions.get(i));
+            if ((i + 1) % jdbcBatchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    /**
+     * Re-runs settlement of a transaction left PENDING (used by recovery). Safe to
+     * repeat because the debit is deduplicated by the transaction reference.
+     */
+    public void resettleTransaction(Long transactionId) {
+        Transaction transaction = transactionRepository.findById(transactionId)
+                .orElseThrow(() -> new RuntimeException("Transaction not found"));
+        if (transaction.getStatus() != TransactionStatus.PENDING) {
+            return;
+        }
+
+        WalletMetadata sourceWallet = walletClient.getMetadataBlocking(transaction.getSourceWalletId());
+        if (transaction.getSourceAmount() == null) {
+            // Accepted without cached metadata and not converted by the pipeline yet
+            convertAmounts(transaction, sourceWallet);
+            transaction = settlementService.recordConversion(transaction);
+        }
+        walletClient.settle(transaction.getSourceWalletId(), transaction.getDestinationWalletId(),
+                transaction.debitedAmount(), transaction.creditedAmount(), transaction.getReference())
                 .block();
+        settlementService.markCompleted(transaction.getId(), sourceWallet.userId());
     }
 
-    private void debitWallet(Long walletId, java.math.BigDecimal amount) {
-        WebClient client = webClientBuilder.baseUrl(walletServiceUrl).build();
+    /**
+     * Final outcome of a transaction recovery stopped retrying, decided by what
+     * wallet-service recorded for its reference: COMPLETED when the debit was applied,
+     * FAILED otherwise, including a transfer whose debit was credited back.
+     */
+    public void resolveAbandonedTransaction(Long transactionId, String failureReason) {
+        Transaction transaction = transactionRepository.findById(transactionId)
+                .orElseThrow(() -> new RuntimeException("Transaction not found"));
+        if (transaction.getStatus() != TransactionStatus.PENDING) {
+            return;
+        }
 
-        client.post()
-                .uri("/api/wallets/" + walletId + "/debit")
-                .bodyValue(amount)
-                .retrieve()
-                .bodyToMono(Void.class)
+        Boolean applied = walletClient.isDebitApplied(transaction.getSourceWalletId(), transaction.getReference())
                 .block();
+        if (Boolean.TRUE.equals(applied)) {
+            WalletMetadata sourceWallet = walletClient.getMetadataBlocking(transaction.getSourceWalletId());
+            settlementService.markCompleted(transaction.getId(), sourceWallet.userId());
+        } else {
+            settlementService.markFailed(transaction.getId(), failureReason);
+        }
     }
 
-    public List<TransactionDTO> getTransactionsByWallet(Long walletId) {
+    /**
+     * Keyset-paginated wallet history, newest first. Pass the {@code nextCursor}
+     * of the previous page to continue; a null cursor starts from the newest entry.
+     */
+    public TransactionPage getTransactionsByWallet(Long walletId, String cursor, int limit) {
         log.info("Fetching transactions for wallet: {}", walletId);
 
-        List<Transaction> sourceTransactions = transactionRepository
-                .findBySourceWalletIdOrderByTransactionDateDesc(walletId);
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        HistoryCursor position = cursor != null ? HistoryCursor.decode(cursor) : HistoryCursor.START;
 
-        List<Transaction> destTransactions = transactionRepository
-                .findByDestinationWalletIdOrderByTransactionDateDesc(walletId);
+        List<Transaction> page = new ArrayList<>(transactionRepository.findWalletHistoryPage(
+                walletId, position.transactionDate(), position.id(), pageSize));
 
-        // Combine and sort
-        sourceTransactions.addAll(destTransactions);
+        // Archived months are all older than the hot table, so continue into them
+        if (page.size() < pageSize && archiveService.isEnabled()) {
+            HistoryCursor from = page.isEmpty()
+                    ? position
+                    : new HistoryCursor(page.get(page.size() - 1).getTransactionDate(), page.get(page.size() - 1).getId());
+            page.addAll(archiveService.findWalletHistory(walletId, from.transactionDate(), from.id(),
+                    pageSize - page.size()));
+        }
 
-        return sourceTransactions.stream()
-                .distinct()
-                .sorted((t1, t2) -> t2.getTransactionDate().compareTo(t1.getTransactionDate()))
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        String nextCursor = null;
+        if (page.size() == pageSize) {
+            Transaction last = page.get(page.size() - 1);
+            nextCursor = new HistoryCursor(last.getTransactionDate(), last.getId()).encode();
+        }
+
+        return new TransactionPage(page.stream().map(TransactionService::convertToDTO).toList(), nextCursor);
+    }
+
+    public record TransactionPage(List<TransactionDTO> items, String nextCursor) {
+    }
+
+    /**
+     * Opaque position in a wallet history: the {@code (transactionDate, id)} of the
+     * last row returned, base64url encoded.
+     */
+    record HistoryCursor(LocalDateTime transactionDate, Long id) {
+
+        static final HistoryCursor START = new HistoryCursor(LocalDateTime.of(9999, 12, 31, 0, 0), Long.MAX_VALUE);
+
+        String encode() {
+            String raw = transactionDate + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static HistoryCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                return new HistoryCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                        Long.parseLong(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+        }
+    }
+
+    public TransactionDTO getTransactionByReference(String reference) {
+        Transaction transaction = transactionRepository.findByReference(reference)
+                .orElseThrow(() -> new RuntimeException("Transaction not found"));
+        return convertToDTO(transaction);
     }
 
     public TransactionDTO getTransactionById(Long id) {
         Transaction transaction = transactionRepository.findById(id)
+                .or(() -> archiveService.isEnabled() ? archiveService.findById(id) : Optional.empty())
                 .orElseThrow(() -> new RuntimeException("Transaction not found"));
         return convertToDTO(transaction);
     }
 
-    private TransactionDTO convertToDTO(Transaction transaction) {
+    static TransactionDTO convertToDTO(Transaction transaction) {
         return TransactionDTO.builder()
                 .id(transaction.getId())
                 .sourceWalletId(transaction.getSourceWalletId())
                 .destinationWalletId(transaction.getDestinationWalletId())
                 .amount(transaction.getAmount())
                 .currency(transaction.getCurrency())
+                .sourceAmount(transaction.getSourceAmount())
+                .destinationAmount(transaction.getDestinationAmount())
+                .sourceCurrency(transaction.getSourceCurrency())
+                .destinationCurrency(transaction.getDestinationCurrency())
+                .fxRateVersion(transaction.getFxRateVersion())
                 .transactionType(transaction.getTransactionType().name())
                 .status(transaction.getStatus().name())
                 .description(transaction.getDescription())
@@ -0,0 +1,143 @@
+package com.fintech.transaction.service;
+
+import com.fintech.shared.events.TransactionCompletedEvent;
+import com.fintech.shared.events.TransactionFailedEvent;
+import com.fintech.transaction.entity.Transaction;
+import com.fintech.transaction.entity.TransactionStatus;
+import com.fintech.transaction.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Applies the final state of a settlement (COMPLETED or FAILED) and publishes
+ * the matching event. Shared by the synchronous and asynchronous settlement paths.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionSettlementService {
+
+    private final TransactionRepository transactionRepository;
+    private final OutboxService outboxService;
+    private final TransactionAggregateService aggregateService;
+
+    @Transactional
+    public Transaction markCompleted(Long transactionId, Long userId) {
+        Transaction transaction = transactionRepository.findById(transactionId)
+                .orElseThrow(() -> new RuntimeException("Transaction not found"));
+
+        return complete(transaction, userId);
+    }
+
+    @Transactional
+    public Transaction markFailed(Long transactionId, String failureReason) {
+        Transaction transaction = transactionRepository.findById(transactionId)
+                .orElseThrow(() -> new RuntimeException("Transaction not found"));
+
+        return fail(transaction, failureReason);
+    }
+
+    /**
+     * Persists the FX conversion computed for {@code converted} if none is stored yet,
+     * and returns the stored transaction, whose amounts are the ones to settle.
+     */
+    @Transactional
+    public Transaction recordConversion(Transaction converted) {
+        transactionRepository.recordConversion(converted.getId(), converted.getSourceAmount(),
+                converted.getSourceCurrency(), converted.getDestinationAmount(),
+                converted.getDestinationCurrency(), converted.getFxRateVersion());
+        return transactionRepository.findById(converted.getId())
+                .orElseThrow(() -> new RuntimeException("Transaction not found"));
+    }
+
+    /**
+     * Completes a group of transactions settled together (e.g. one grouped debit
+     * of a bulk import) in a single database transaction.
+     */
+    @Transactional
+    public List<Transaction> markCompletedBatch(List<Long> transactionIds, Long userId) {
+        return transactionRepository.findAllById(transactionIds).stream()
+                .map(transaction -> complete(transaction, userId))
+                .toList();
+    }
+
+    @Transactional
+    public List<Transaction> markFailedBatch(List<Long> transactionIds, String failureReason) {
+        return transactionRepository.findAllById(transactionIds).stream()
+                .map(transaction -> fail(transaction, failureReason))
+                .toList();
+    }
+
+    private Transaction complete(Transaction transaction, Long userId) {
+        if (transaction.getStatus() != TransactionStatus.PENDING) {
+            // Already settled, e.g. by recovery racing a slow settlement
+            return transaction;
+        }
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        transaction.setUserId(userId);
+        transaction = transactionRepository.save(transaction);
+
+        aggregateService.record(transaction);
+
+        TransactionCompletedEvent event = TransactionCompletedEvent.builder()
+                .transactionId(transaction.getId())
+                .userId(userId)
+                .sourceWalletId(transaction.getSourceWalletId())
+                .destinationWalletId(transaction.getDestinationWalletId())
+                .amount(transaction.getAmount())
+                .currency(transaction.getCurrency())
+                .transactionType(transaction.getTransactionType().name())
+                .description(transaction.getDescription())
+                .reference(transaction.getReference())
+                .completedAt(LocalDateTime.now())
+                .destinationAmount(transaction.getDestinationWalletId() != null
+                        ? transaction.creditedAmount()
+                        : null)
+                .build();
+
+        // Published by OutboxRelay once this transaction commits
+        outboxService.enqueue(transaction.getId(),
+                TransactionCompletedEvent.EXCHANGE,
+                TransactionCompletedEvent.ROUTING_KEY,
+                event);
+
+        log.info("Transaction completed successfully: {}", transaction.getId());
+        return transaction;
+    }
+
+    private Transaction fail(Transaction transaction, String failureReason) {
+        if (transaction.getStatus() != TransactionStatus.PENDING) {
+            return transaction;
+        }
+        transaction.setStatus(TransactionStatus.FAILED);
+        transaction.setFailureReason(failureReason);
+        transaction = transactionRepository.save(transaction);
+
+        TransactionFailedEvent event = TransactionFailedEvent.builder()
+                .transactionId(transaction.getId())
+                .userId(null) // We might not have user ID if wallet call failed
+                .sourceWalletId(transaction.getSourceWalletId())
+                .destinationWalletId(transaction.getDestinationWalletId())
+                .amount(transaction.getAmount())
+                .currency(transaction.getCurrency())
+                .transactionType(transaction.getTransactionType().name())
+                .description(transaction.getDescription())
+                .failureReason(failureReason)
+                .errorCode("TRANSACTION_FAILED")
+                .failedAt(LocalDateTime.now())
+                .build();
+
+        // Published by OutboxRelay once this transaction commits
+        outboxService.enqueue(transaction.getId(),
+                TransactionFailedEvent.EXCHANGE,
+                TransactionFailedEvent.ROUTING_KEY,
+                event);
+
+        return transaction;
+    }
+}
@@ -0,0 +1,171 @@
+package com.fintech.transaction.archive;
+
+import com.fintech.transaction.entity.Transaction;
+import com.fintech.transaction.entity.TransactionStatus;
+import com.fintech.transaction.entity.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentRoundTripTest {
+
+    private static final LocalDateTime MONTH_START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reader_ShouldReturnEveryRecordWritten() throws IOException {
+        // Arrange
+        List<Transaction> written = interleavedMonth(50);
+        Path path = write(written, 8);
+
+        // Act
+        List<Transaction> read = new ArrayList<>();
+        try (SegmentReader reader = new SegmentReader(path)) {
+            for (int block = 0; block < reader.getBlockCount(); block++) {
+                read.addAll(reader.readBlock(block));
+            }
+
+            // Assert
+            assertEquals(written.size(), reader.getRowCount());
+            assertEquals(7, reader.getBlockCount());
+        }
+        assertEquals(written, read);
+    }
+
+    @Test
+    void blocksForId_ShouldFindEveryId_WhenIdsAreNotInDateOrder() throws IOException {
+        // Arrange: two instances allocating from pooled blocks write interleaved IDs
+        List<Transaction> written = interleavedMonth(40);
+        Path path = write(written, 5);
+
+        try (SegmentReader reader = new SegmentReader(path)) {
+            for (Transaction transaction : written) {
+                // Act
+                int[] blocks = reader.blocksForId(transaction.getId());
+
+                // Assert
+                assertTrue(Arrays.stream(blocks).anyMatch(block -> reader.readBlock(block).stream()
+                                .anyMatch(t -> t.getId().equals(transaction.getId()))),
+                        "ID " + transaction.getId() + " not found in blocks " + Arrays.toString(blocks));
+            }
+            assertEquals(0, reader.blocksForId(10_000L).length);
+            assertEquals(0, reader.blocksForId(0L).length);
+        }
+    }
+
+    @Test
+    void reader_ShouldRoundTripOptionalAndFxFields() throws IOException {
+        // Arrange
+        Transaction full = transaction(1L, MONTH_START.plusHours(1));
+        full.setDestinationWalletId(20L);
+        full.setUserId(5L);
+        full.setCategory("TRAVEL");
+        full.setDescription("Train ticket");
+        full.setIdempotencyKey("key-1");
+        full.setSourceAmount(new BigDecimal("-12.3456"));
+        full.setDestinationAmount(new BigDecimal("1234567890123456789.1234"));
+        full.setFxRateVersion(7L);
+        full.setSourceCurrency("EUR");
+        full.setDestinationCurrency("JPY");
+        full.setCreatedAt(MONTH_START.plusHours(1).plusNanos(123_000));
+        full.setUpdatedAt(MONTH_START.plusHours(2));
+
+        Transaction minimal = transaction(2L, MONTH_START.plusHours(3));
+        minimal.setStatus(TransactionStatus.FAILED);
+        minimal.setFailureReason("Insufficient balance");
+        minimal.setTransactionType(TransactionType.PAYMENT);
+        minimal.setAmount(new BigDecimal("1E+3"));
+
+        // Act
+        List<Transaction> read;
+        try (SegmentReader reader = new SegmentReader(write(List.of(full, minimal), 4096))) {
+            read = reader.readBlock(0);
+        }
+
+        // Assert
+        assertEquals(List.of(full, minimal), read);
+        assertEquals(-3, read.get(1).getAmount().scale());
+    }
+
+    @Test
+    void reader_ShouldRejectUnknownVersion() throws IOException {
+        // Arrange: bump the version in the header of a valid segment
+        Path path = write(interleavedMonth(3), 4096);
+        path.toFile().setWritable(true); // Segments are written read-only
+        try (RandomAccessFile raw = new RandomAccessFile(path.toFile(), "rw")) {
+            raw.seek(Integer.BYTES);
+            raw.writeInt(SegmentFormat.VERSION + 1);
+        }
+
+        // Act & Assert
+        IOException error = assertThrows(IOException.class, () -> new SegmentReader(path));
+        assertTrue(error.getMessage().startsWith("Unsupported segment version"));
+    }
+
+    @Test
+    void writer_ShouldNotReplaceExistingSegment() throws IOException {
+        // Arrange
+        Path path = write(interleavedMonth(3), 4096);
+        byte[] original = Files.readAllBytes(path);
+
+        // Act
+        SegmentWriter writer = new SegmentWriter(path, 4096);
+        assertThrows(FileAlreadyExistsException.class, writer::close);
+
+        // Assert
+        assertArrayEquals(original, Files.readAllBytes(path));
+        try (var files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    private Path write(List<Transaction> transactions, int recordsPerBlock) throws IOException {
+        Path path = directory.resolve("transactions-2024-01.seg");
+        try (SegmentWriter writer = new SegmentWriter(path, recordsPerBlock)) {
+            for (Transaction transaction : transactions) {
+                writer.append(transaction);
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Transactions in date order whose IDs alternate between two pooled blocks,
+     * 1..50 and 51..100, as two instances would allocate them.
+     */
+    private static List<Transaction> interleavedMonth(int count) {
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long id = (i % 2 == 0 ? 1 : 51) + i / 2;
+            transactions.add(transaction(id, MONTH_START.plusMinutes(i)));
+        }
+        return transactions;
+    }
+
+    private static Transaction transaction(long id, LocalDateTime date) {
+        return Transaction.builder()
+                .id(id)
+                .sourceWalletId(10L)
+                .amount(new BigDecimal("25.0000"))
+                .currency("EUR")
+                .transactionType(TransactionType.TRANSFER)
+                .status(TransactionStatus.COMPLETED)
+                .reference("TXN-" + id)
+                .transactionDate(date)
+                .build();
+    }
+}
@@ -0,0 +1,64 @@
+package com.fintech.transaction.fx;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FxRateSnapshotTest {
+
+    private final FxRateSnapshot snapshot = new FxRateSnapshot(3, "EUR", LocalDateTime.now(), Map.of(
+            "EUR", BigDecimal.ONE,
+            "USD", new BigDecimal("1.0850"),
+            "GBP", new BigDecimal("0.8550"),
+            "JPY", new BigDecimal("162.30")));
+
+    @Test
+    void convert_ShouldReturnSameAmount_WhenCurrenciesMatch() {
+        BigDecimal amount = new BigDecimal("12.34");
+
+        assertSame(amount, snapshot.convert(amount, "USD", "USD"));
+    }
+
+    @Test
+    void convert_ShouldApplyBaseRate() {
+        assertEquals(new BigDecimal("108.5000"), snapshot.convert(new BigDecimal("100"), "EUR", "USD"));
+    }
+
+    @Test
+    void convert_ShouldCrossThroughBase() {
+        // 100 USD = 100 / 1.0850 EUR = 78.8018... GBP
+        assertEquals(new BigDecimal("78.8018"), snapshot.convert(new BigDecimal("100"), "USD", "GBP"));
+    }
+
+    @Test
+    void convert_ShouldRoundHalfEvenToAmountScale() {
+        FxRateSnapshot halves = new FxRateSnapshot(1, "EUR", null, Map.of(
+                "EUR", BigDecimal.ONE,
+                "XXX", new BigDecimal("0.5")));
+
+        assertEquals(new BigDecimal("0.0000"), halves.convert(new BigDecimal("0.0001"), "EUR", "XXX"));
+        assertEquals(new BigDecimal("0.0002"), halves.convert(new BigDecimal("0.0003"), "EUR", "XXX"));
+        assertEquals(FxRateSnapshot.AMOUNT_SCALE, snapshot.convert(BigDecimal.TEN, "EUR", "JPY").scale());
+    }
+
+    @Test
+    void convert_ShouldReject_WhenRateIsMissing() {
+        ResponseStatusException error = assertThrows(ResponseStatusException.class,
+                () -> snapshot.convert(BigDecimal.TEN, "EUR", "CHF"));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, error.getStatusCode());
+    }
+
+    @Test
+    void rate_ShouldBeNull_WhenCurrencyIsUnknown() {
+        assertNull(snapshot.rate("CHF", "EUR"));
+        assertNull(snapshot.rate("EUR", "CHF"));
+        assertEquals(BigDecimal.ONE, snapshot.rate("CHF", "CHF"));
+    }
+}
@@ -0,0 +1,85 @@
+package com.fintech.transaction.fx;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fintech.transaction.dto.FxRatesDocument;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FxRateTableTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private FxRateTable rateTable;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        rateTable = new FxRateTable(new ObjectMapper(), meterRegistry, "");
+    }
+
+    @Test
+    void publish_ShouldInstallRates_AndAddBaseCurrency() {
+        // Act
+        FxRateSnapshot installed = rateTable.publish(document(1L, Map.of("USD", new BigDecimal("1.08"))));
+
+        // Assert
+        assertSame(installed, rateTable.current());
+        assertEquals(1L, installed.getVersion());
+        assertEquals(BigDecimal.ONE, installed.getRates().get("EUR"));
+        assertEquals(1.0, meterRegistry.get("transaction.fx.rates.version").gauge().value());
+    }
+
+    @Test
+    void publish_ShouldRejectVersionThatIsNotNewer() {
+        // Arrange
+        FxRateSnapshot installed = rateTable.publish(document(2L, Map.of("USD", new BigDecimal("1.08"))));
+
+        // Act
+        ResponseStatusException same = assertThrows(ResponseStatusException.class,
+                () -> rateTable.publish(document(2L, Map.of("USD", new BigDecimal("1.10")))));
+        ResponseStatusException older = assertThrows(ResponseStatusException.class,
+                () -> rateTable.publish(document(1L, Map.of("USD", new BigDecimal("1.10")))));
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, same.getStatusCode());
+        assertEquals(HttpStatus.CONFLICT, older.getStatusCode());
+        assertSame(installed, rateTable.current());
+    }
+
+    @Test
+    void publish_ShouldRejectIncompleteDocument() {
+        FxRatesDocument document = document(1L, Map.of());
+
+        ResponseStatusException error = assertThrows(ResponseStatusException.class,
+                () -> rateTable.publish(document));
+
+        assertEquals(HttpStatus.BAD_REQUEST, error.getStatusCode());
+        assertEquals(0L, rateTable.current().getVersion());
+    }
+
+    @Test
+    void publish_ShouldRejectNonPositiveRates() {
+        FxRatesDocument document = document(1L, Map.of("USD", BigDecimal.ZERO));
+
+        ResponseStatusException error = assertThrows(ResponseStatusException.class,
+                () -> rateTable.publish(document));
+
+        assertEquals(HttpStatus.BAD_REQUEST, error.getStatusCode());
+        assertEquals(0L, rateTable.current().getVersion());
+    }
+
+    private static FxRatesDocument document(Long version, Map<String, BigDecimal> rates) {
+        return FxRatesDocument.builder()
+                .version(version)
+                .base("EUR")
+                .rates(rates)
+                .build();
+    }
+}
@@ -0,0 +1,149 @@
+package com.fintech.transaction.service;
+
+import com.fintech.transaction.client.WalletMetadata;
+import com.fintech.transaction.client.WalletServiceClient;
+import com.fintech.transaction.config.SettlementProperties;
+import com.fintech.transaction.entity.Transaction;
+import com.fintech.transaction.entity.TransactionStatus;
+import com.fintech.transaction.entity.TransactionType;
+import com.fintech.transaction.fx.FxConverter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncSettlementPipelineTest {
+
+    private static final WalletMetadata SOURCE = new WalletMetadata(10L, 5L, "EUR", "CHECKING");
+    private static final WalletMetadata DESTINATION = new WalletMetadata(20L, 6L, "USD", "CHECKING");
+
+    @Mock
+    private TransactionSettlementService settlementService;
+
+    @Mock
+    private WalletServiceClient walletClient;
+
+    @Mock
+    private FxConverter fxConverter;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AsyncSettlementPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        pipeline = new AsyncSettlementPipeline(settlementService, new SettlementProperties(), walletClient,
+                fxConverter, meterRegistry);
+    }
+
+    @Test
+    void dispatch_ShouldStoreConversionBeforeSettling_WhenAcceptedUnconverted() {
+        // Arrange
+        Transaction transaction = transfer();
+        Transaction stored = transfer();
+        stored.setSourceAmount(new BigDecimal("25.00"));
+        stored.setDestinationAmount(new BigDecimal("27.5000"));
+        when(walletClient.getMetadata(10L)).thenReturn(Mono.just(SOURCE));
+        when(walletClient.getMetadata(20L)).thenReturn(Mono.just(DESTINATION));
+        when(settlementService.recordConversion(transaction)).thenReturn(stored);
+        when(walletClient.settle(10L, 20L, new BigDecimal("25.00"), new BigDecimal("27.5000"), "TXN-1"))
+                .thenReturn(Mono.empty());
+        assertTrue(pipeline.tryReserve());
+
+        // Act
+        pipeline.dispatch(transaction);
+
+        // Assert
+        verify(settlementService, timeout(2000)).markCompleted(1L, 5L);
+        InOrder order = inOrder(fxConverter, settlementService, walletClient);
+        order.verify(fxConverter).convert(transaction, SOURCE, DESTINATION);
+        order.verify(settlementService).recordConversion(transaction);
+        order.verify(walletClient).settle(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void dispatch_ShouldSkipConversion_WhenAlreadyConverted() {
+        // Arrange
+        Transaction transaction = transfer();
+        transaction.setSourceAmount(new BigDecimal("25.00"));
+        transaction.setDestinationAmount(new BigDecimal("27.5000"));
+        when(walletClient.getMetadata(10L)).thenReturn(Mono.just(SOURCE));
+        when(walletClient.settle(10L, 20L, new BigDecimal("25.00"), new BigDecimal("27.5000"), "TXN-1"))
+                .thenReturn(Mono.empty());
+        assertTrue(pipeline.tryReserve());
+
+        // Act
+        pipeline.dispatch(transaction);
+
+        // Assert
+        verify(settlementService, timeout(2000)).markCompleted(1L, 5L);
+        verify(walletClient, never()).getMetadata(20L);
+        verifyNoInteractions(fxConverter);
+    }
+
+    @Test
+    void dispatch_ShouldMarkFailed_WhenWalletServiceRejects() {
+        // Arrange
+        Transaction transaction = transfer();
+        transaction.setSourceAmount(new BigDecimal("25.00"));
+        when(walletClient.getMetadata(10L)).thenReturn(Mono.just(SOURCE));
+        when(walletClient.settle(any(), any(), any(), any(), any())).thenReturn(Mono.error(
+                WebClientResponseException.create(422, "Unprocessable Entity", HttpHeaders.EMPTY, new byte[0], null)));
+        assertTrue(pipeline.tryReserve());
+
+        // Act
+        pipeline.dispatch(transaction);
+
+        // Assert
+        verify(settlementService, timeout(2000)).markFailed(eq(1L), any());
+        verify(settlementService, never()).markCompleted(anyLong(), any());
+    }
+
+    @Test
+    void dispatch_ShouldLeavePending_WhenOutcomeIsUnknown() {
+        // Arrange
+        Transaction transaction = transfer();
+        transaction.setSourceAmount(new BigDecimal("25.00"));
+        when(walletClient.getMetadata(10L)).thenReturn(Mono.just(SOURCE));
+        when(walletClient.settle(any(), any(), any(), any(), any()))
+                .thenReturn(Mono.error(new IllegalStateException("Connection reset")));
+        assertTrue(pipeline.tryReserve());
+
+        // Act
+        pipeline.dispatch(transaction);
+
+        // Assert
+        verify(settlementService, after(300).never()).markFailed(anyLong(), any());
+        verify(settlementService, never()).markCompleted(anyLong(), any());
+        assertEquals(1.0, meterRegistry.counter("transaction.settlement.deferred").count());
+    }
+
+    private static Transaction transfer() {
+        return Transaction.builder()
+                .id(1L)
+                .sourceWalletId(10L)
+                .destinationWalletId(20L)
+                .amount(new BigDecimal("25.00"))
+                .currency("EUR")
+                .transactionType(TransactionType.TRANSFER)
+                .status(TransactionStatus.PENDING)
+                .reference("TXN-1")
+                .transactionDate(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,100 @@
+package com.fintech.transaction.service;
+
+import com.fintech.shared.events.TransactionCategorizedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryWritebackServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CategoryWritebackService writebackService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        writebackService = new CategoryWritebackService(jdbcTemplate, meterRegistry);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void handleCategorized_ShouldWriteOneUpdatePerTransaction_KeepingLatestCategory() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        List<TransactionCategorizedEvent> events = List.of(
+                event(1L, "GROCERIES", now.minusMinutes(1)),
+                event(2L, "TRAVEL", now),
+                event(1L, "RESTAURANTS", now),
+                event(1L, "SHOPPING", now.minusMinutes(5)));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[] { 1, 1 });
+
+        // Act
+        writebackService.handleCategorized(events);
+
+        // Assert
+        ArgumentCaptor<List<Object[]>> args = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), args.capture());
+        assertEquals(2, args.getValue().size());
+        assertArrayEquals(new Object[] { "RESTAURANTS", 1L, "RESTAURANTS" }, args.getValue().get(0));
+        assertArrayEquals(new Object[] { "TRAVEL", 2L, "TRAVEL" }, args.getValue().get(1));
+        assertEquals(2.0, meterRegistry.counter("transaction.category_writeback.updated").count());
+        assertEquals(2.0, meterRegistry.counter("transaction.category_writeback.skipped").count());
+    }
+
+    @Test
+    void handleCategorized_ShouldSkipEventsWithoutCategoryOrTransaction() {
+        // Arrange
+        List<TransactionCategorizedEvent> events = List.of(
+                event(null, "TRAVEL", LocalDateTime.now()),
+                event(3L, null, LocalDateTime.now()));
+
+        // Act
+        writebackService.handleCategorized(events);
+
+        // Assert
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void handleCategorized_ShouldCountRowsAlreadyCategorizedAsSkipped() {
+        // Arrange
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[] { 0, -2 });
+
+        // Act
+        writebackService.handleCategorized(List.of(
+                event(1L, "TRAVEL", null),
+                event(2L, "TRAVEL", null)));
+
+        // Assert
+        verify(jdbcTemplate).batchUpdate(eq("UPDATE transactions SET category = ? WHERE id = ? "
+                + "AND category IS DISTINCT FROM ?"), anyList());
+        assertEquals(1.0, meterRegistry.counter("transaction.category_writeback.updated").count());
+        assertEquals(1.0, meterRegistry.counter("transaction.category_writeback.skipped").count());
+    }
+
+    private static TransactionCategorizedEvent event(Long transactionId, String category, LocalDateTime at) {
+        return TransactionCategorizedEvent.builder()
+                .transactionId(transactionId)
+                .category(category)
+                .categorizedAt(at)
+                .build();
+    }
+}
@@ -0,0 +1,59 @@
+package com.fintech.transaction.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistoryCursorTest {
+
+    @Test
+    void decode_ShouldReturnEncodedPosition() {
+        // Arrange
+        TransactionService.HistoryCursor cursor = new TransactionService.HistoryCursor(
+                LocalDateTime.of(2025, 3, 14, 9, 26, 53, 589_000_000), 42L);
+
+        // Act
+        TransactionService.HistoryCursor decoded = TransactionService.HistoryCursor.decode(cursor.encode());
+
+        // Assert
+        assertEquals(cursor, decoded);
+    }
+
+    @Test
+    void encode_ShouldBeUrlSafe() {
+        // Arrange
+        TransactionService.HistoryCursor cursor = TransactionService.HistoryCursor.START;
+
+        // Act
+        String encoded = cursor.encode();
+
+        // Assert
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"), encoded);
+        assertEquals(cursor, TransactionService.HistoryCursor.decode(encoded));
+    }
+
+    @Test
+    void decode_ShouldRejectGarbage() {
+        ResponseStatusException error = assertThrows(ResponseStatusException.class,
+                () -> TransactionService.HistoryCursor.decode("not a cursor!"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, error.getStatusCode());
+    }
+
+    @Test
+    void decode_ShouldRejectCursorWithoutId() {
+        String cursor = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("2025-03-14T09:26:53".getBytes(StandardCharsets.UTF_8));
+
+        ResponseStatusException error = assertThrows(ResponseStatusException.class,
+                () -> TransactionService.HistoryCursor.decode(cursor));
+
+        assertEquals(HttpStatus.BAD_REQUEST, error.getStatusCode());
+    }
+}
@@ -0,0 +1,242 @@
+package com.fintech.transaction.service;
+
+import com.fintech.shared.dto.TransactionDTO;
+import com.fintech.transaction.dto.CreateTransactionRequest;
+import com.fintech.transaction.entity.Transaction;
+import com.fintech.transaction.entity.TransactionStatus;
+import com.fintech.transaction.entity.TransactionType;
+import com.fintech.transaction.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    private static final String KEY = "key-1";
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        idempotencyService = new IdempotencyService(transactionRepository, meterRegistry, 100, Duration.ofSeconds(5));
+    }
+
+    @Test
+    void execute_ShouldRunAction_WhenKeyIsNew() {
+        // Arrange
+        when(transactionRepository.findByIdempotencyKey(KEY)).thenReturn(Optional.empty());
+
+        // Act
+        IdempotencyService.IdempotentResult result = idempotencyService.execute(KEY, request(),
+                () -> dto(transaction(1L)));
+
+        // Assert
+        assertFalse(result.replayed());
+        assertEquals(1L, result.transaction().getId());
+        assertEquals(1.0, meterRegistry.counter("transaction.idempotency.executed").count());
+    }
+
+    @Test
+    void execute_ShouldReplayFromCache_WhenKeyWasJustUsed() {
+        // Arrange
+        Transaction transaction = transaction(1L);
+        when(transactionRepository.findByIdempotencyKey(KEY)).thenReturn(Optional.empty());
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+        AtomicInteger executions = new AtomicInteger();
+        idempotencyService.execute(KEY, request(), () -> {
+            executions.incrementAndGet();
+            return dto(transaction);
+        });
+
+        // Act
+        IdempotencyService.IdempotentResult replay = idempotencyService.execute(KEY, request(), () -> {
+            executions.incrementAndGet();
+            return dto(transaction);
+        });
+
+        // Assert
+        assertTrue(replay.replayed());
+        assertEquals(1L, replay.transaction().getId());
+        assertEquals(1, executions.get());
+        verify(transactionRepository, times(1)).findByIdempotencyKey(KEY);
+    }
+
+    @Test
+    void execute_ShouldReplayStoredTransaction_WhenKeyIsOnlyInDatabase() {
+        // Arrange
+        Transaction stored = transaction(7L);
+        stored.setStatus(TransactionStatus.COMPLETED);
+        when(transactionRepository.findByIdempotencyKey(KEY)).thenReturn(Optional.of(stored));
+
+        // Act
+        IdempotencyService.IdempotentResult result = idempotencyService.execute(KEY, request(),
+                () -> fail("Action must not run for a stored key"));
+
+        // Assert
+        assertTrue(result.replayed());
+        assertEquals(7L, result.transaction().getId());
+        assertEquals("COMPLETED", result.transaction().getStatus());
+    }
+
+    @Test
+    void execute_ShouldReject_WhenKeyWasUsedWithDifferentPayload() {
+        // Arrange
+        when(transactionRepository.findByIdempotencyKey(KEY)).thenReturn(Optional.of(transaction(7L)));
+        CreateTransactionRequest different = request();
+        different.setAmount(new BigDecimal("99.00"));
+
+        // Act
+        ResponseStatusException error = assertThrows(ResponseStatusException.class,
+                () -> idempotencyService.execute(KEY, different, () -> fail("Action must not run")));
+
+        // Assert
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, error.getStatusCode());
+    }
+
+    @Test
+    void execute_ShouldReplayWinner_WhenAnotherInstanceInsertedTheKeyFirst() {
+        // Arrange
+        when(transactionRepository.findByIdempotencyKey(KEY))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(transaction(9L)));
+
+        // Act
+        IdempotencyService.IdempotentResult result = idempotencyService.execute(KEY, request(), () -> {
+            throw new DataIntegrityViolationException("duplicate key");
+        });
+
+        // Assert
+        assertTrue(result.replayed());
+        assertEquals(9L, result.transaction().getId());
+    }
+
+    @Test
+    void execute_ShouldJoinInFlightRequest_WithSameKey() throws Exception {
+        // Arrange
+        when(transactionRepository.findByIdempotencyKey(KEY)).thenReturn(Optional.empty());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        CompletableFuture<IdempotencyService.IdempotentResult> first = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute(KEY, request(), () -> {
+                    executions.incrementAndGet();
+                    started.countDown();
+                    await(release);
+                    return dto(transaction(1L));
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Act
+        AtomicReference<IdempotencyService.IdempotentResult> joined = new AtomicReference<>();
+        Thread second = new Thread(() -> joined.set(idempotencyService.execute(KEY, request(), () -> {
+            executions.incrementAndGet();
+            return dto(transaction(2L));
+        })));
+        second.start();
+        awaitBlocked(second);
+        release.countDown();
+        second.join(5000);
+
+        // Assert
+        assertFalse(first.get(5, TimeUnit.SECONDS).replayed());
+        assertTrue(joined.get().replayed());
+        assertEquals(1L, joined.get().transaction().getId());
+        assertEquals(1, executions.get());
+        assertEquals(1.0, meterRegistry.counter("transaction.idempotency.replayed", "source", "in_flight").count());
+    }
+
+    @Test
+    void execute_ShouldReturnConflict_WhenInFlightRequestOutlastsJoinTimeout() throws Exception {
+        // Arrange
+        idempotencyService = new IdempotencyService(transactionRepository, meterRegistry, 100, Duration.ofMillis(50));
+        when(transactionRepository.findByIdempotencyKey(KEY)).thenReturn(Optional.empty());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<IdempotencyService.IdempotentResult> first = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute(KEY, request(), () -> {
+                    started.countDown();
+                    await(release);
+                    return dto(transaction(1L));
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Act
+        ResponseStatusException error = assertThrows(ResponseStatusException.class,
+                () -> idempotencyService.execute(KEY, request(), () -> dto(transaction(2L))));
+        release.countDown();
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, error.getStatusCode());
+        assertEquals(1L, first.get(5, TimeUnit.SECONDS).transaction().getId());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void awaitBlocked(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != Thread.State.TIMED_WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(Thread.State.TIMED_WAITING, thread.getState());
+    }
+
+    private static CreateTransactionRequest request() {
+        return CreateTransactionRequest.builder()
+                .sourceWalletId(1L)
+                .destinationWalletId(2L)
+                .amount(new BigDecimal("25.00"))
+                .currency("EUR")
+                .transactionType("TRANSFER")
+                .build();
+    }
+
+    private static Transaction transaction(Long id) {
+        return Transaction.builder()
+                .id(id)
+                .sourceWalletId(1L)
+                .destinationWalletId(2L)
+                .amount(new BigDecimal("25.00"))
+                .currency("EUR")
+                .transactionType(TransactionType.TRANSFER)
+                .status(TransactionStatus.PENDING)
+                .reference("TXN-" + id)
+                .transactionDate(LocalDateTime.now())
+                .build();
+    }
+
+    private static TransactionDTO dto(Transaction transaction) {
+        return TransactionService.convertToDTO(transaction);
+    }
+}
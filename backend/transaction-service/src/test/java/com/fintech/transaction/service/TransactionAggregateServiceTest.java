@@ -0,0 +1,145 @@
+package com.fintech.transaction.service;
+
+import com.fintech.transaction.entity.Transaction;
+import com.fintech.transaction.entity.TransactionStatus;
+import com.fintech.transaction.entity.TransactionType;
+import com.fintech.transaction.repository.TransactionAggregateRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionAggregateServiceTest {
+
+    private static final LocalDateTime AT = LocalDateTime.of(2024, 3, 15, 10, 0);
+
+    @Mock
+    private TransactionAggregateRepository aggregateRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private TransactionArchiveService archiveService;
+
+    @InjectMocks
+    private TransactionAggregateService aggregateService;
+
+    @Test
+    void record_ShouldRollUpEachWalletInItsOwnCurrency_WhenConverted() {
+        // Arrange
+        Transaction transaction = transaction();
+        transaction.setSourceAmount(new BigDecimal("92.5000"));
+        transaction.setSourceCurrency("EUR");
+        transaction.setDestinationAmount(new BigDecimal("15120.0000"));
+        transaction.setDestinationCurrency("JPY");
+
+        // Act
+        aggregateService.record(transaction);
+
+        // Assert
+        LocalDate day = AT.toLocalDate();
+        verify(aggregateRepository).upsert("WALLET", 10L, day, "EUR", BigDecimal.ZERO, 0,
+                new BigDecimal("92.5000"), 1);
+        verify(aggregateRepository).upsert("WALLET", 20L, day, "JPY", new BigDecimal("15120.0000"), 1,
+                BigDecimal.ZERO, 0);
+        verify(aggregateRepository).upsert("USER", 5L, day, "EUR", BigDecimal.ZERO, 0,
+                new BigDecimal("92.5000"), 1);
+    }
+
+    @Test
+    void record_ShouldUseTransactionAmountAndCurrency_WhenNotConverted() {
+        // Arrange
+        Transaction transaction = transaction();
+
+        // Act
+        aggregateService.record(transaction);
+
+        // Assert
+        LocalDate day = AT.toLocalDate();
+        verify(aggregateRepository).upsert("WALLET", 10L, day, "USD", BigDecimal.ZERO, 0,
+                new BigDecimal("100.00"), 1);
+        verify(aggregateRepository).upsert("WALLET", 20L, day, "USD", new BigDecimal("100.00"), 1,
+                BigDecimal.ZERO, 0);
+    }
+
+    @Test
+    void rebuild_ShouldReadArchivedMonthsFromSegments() {
+        // Arrange
+        runTransactionCallbacks();
+        when(archiveService.getArchivedUntil()).thenReturn(Optional.of(LocalDate.of(2024, 4, 1)));
+        Transaction failed = transaction();
+        failed.setStatus(TransactionStatus.FAILED);
+        doAnswer(invocation -> {
+            Consumer<Transaction> consumer = invocation.getArgument(3);
+            consumer.accept(transaction());
+            consumer.accept(failed);
+            return null;
+        }).when(archiveService).forEachInRange(isNull(), eq(LocalDate.of(2024, 3, 1).atStartOfDay()),
+                eq(LocalDate.of(2024, 4, 1).atStartOfDay()), any());
+
+        // Act
+        aggregateService.rebuild(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 4, 30));
+
+        // Assert
+        LocalDate day = AT.toLocalDate();
+        verify(aggregateRepository).deleteDays(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 4, 1));
+        verify(aggregateRepository, times(1)).upsert("WALLET", 10L, day, "USD", BigDecimal.ZERO, 0,
+                new BigDecimal("100.00"), 1);
+        verify(aggregateRepository, never()).rebuildWalletOutflows(LocalDate.of(2024, 3, 1).atStartOfDay(),
+                LocalDate.of(2024, 4, 1).atStartOfDay());
+        verify(aggregateRepository).deleteDays(LocalDate.of(2024, 4, 1), LocalDate.of(2024, 5, 1));
+        verify(aggregateRepository).rebuildWalletOutflows(LocalDate.of(2024, 4, 1).atStartOfDay(),
+                LocalDate.of(2024, 5, 1).atStartOfDay());
+    }
+
+    @Test
+    void rebuild_ShouldOnlyReadTransactionsTable_WhenNothingIsArchived() {
+        // Arrange
+        runTransactionCallbacks();
+        when(archiveService.getArchivedUntil()).thenReturn(Optional.empty());
+
+        // Act
+        aggregateService.rebuild(LocalDate.of(2024, 3, 10), LocalDate.of(2024, 3, 20));
+
+        // Assert
+        verify(aggregateRepository).deleteDays(LocalDate.of(2024, 3, 10), LocalDate.of(2024, 3, 21));
+        verify(aggregateRepository).rebuildWalletInflows(LocalDate.of(2024, 3, 10).atStartOfDay(),
+                LocalDate.of(2024, 3, 21).atStartOfDay());
+        verify(archiveService, never()).forEachInRange(any(), any(), any(), any());
+    }
+
+    private void runTransactionCallbacks() {
+        doAnswer(invocation -> {
+            Consumer<org.springframework.transaction.TransactionStatus> callback = invocation.getArgument(0);
+            callback.accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private static Transaction transaction() {
+        return Transaction.builder()
+                .id(1L)
+                .sourceWalletId(10L)
+                .destinationWalletId(20L)
+                .userId(5L)
+                .amount(new BigDecimal("100.00"))
+                .currency("USD")
+                .transactionType(TransactionType.TRANSFER)
+                .status(TransactionStatus.COMPLETED)
+                .transactionDate(AT)
+                .build();
+    }
+}
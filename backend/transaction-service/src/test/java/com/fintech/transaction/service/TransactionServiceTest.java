@@ -0,0 +1,269 @@
+package com.fintech.transaction.service;
+
+import com.fintech.transaction.client.WalletMetadata;
+import com.fintech.transaction.client.WalletServiceClient;
+import com.fintech.transaction.config.SettlementProperties;
+import com.fintech.transaction.dto.BatchItemResult;
+import com.fintech.transaction.entity.Transaction;
+import com.fintech.transaction.entity.TransactionStatus;
+import com.fintech.transaction.entity.TransactionType;
+import com.fintech.transaction.dto.CreateTransactionRequest;
+import com.fintech.transaction.fx.FxConverter;
+import com.fintech.transaction.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private TransactionSettlementService settlementService;
+
+    @Mock
+    private AsyncSettlementPipeline settlementPipeline;
+
+    @Mock
+    private SettlementProperties settlementProperties;
+
+    @Mock
+    private TransactionArchiveService archiveService;
+
+    @Mock
+    private WalletServiceClient walletClient;
+
+    @Mock
+    private FxConverter fxConverter;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Validator validator;
+
+    @InjectMocks
+    private TransactionService transactionService;
+
+    @Test
+    void resolveAbandonedTransaction_ShouldComplete_WhenWalletServiceAppliedTheDebit() {
+        // Arrange
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(pending()));
+        when(walletClient.isDebitApplied(10L, "TXN-1")).thenReturn(Mono.just(true));
+        when(walletClient.getMetadataBlocking(10L)).thenReturn(new WalletMetadata(10L, 5L, "EUR", "CHECKING"));
+
+        // Act
+        transactionService.resolveAbandonedTransaction(1L, "gave up");
+
+        // Assert
+        verify(settlementService).markCompleted(1L, 5L);
+        verify(settlementService, never()).markFailed(anyLong(), any());
+    }
+
+    @Test
+    void resolveAbandonedTransaction_ShouldFail_WhenNoDebitWasApplied() {
+        // Arrange
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(pending()));
+        when(walletClient.isDebitApplied(10L, "TXN-1")).thenReturn(Mono.just(false));
+
+        // Act
+        transactionService.resolveAbandonedTransaction(1L, "gave up");
+
+        // Assert
+        verify(settlementService).markFailed(1L, "gave up");
+        verify(settlementService, never()).markCompleted(anyLong(), any());
+    }
+
+    @Test
+    void resolveAbandonedTransaction_ShouldNotDecide_WhenWalletServiceCannotAnswer() {
+        // Arrange
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(pending()));
+        when(walletClient.isDebitApplied(10L, "TXN-1"))
+                .thenReturn(Mono.error(new IllegalStateException("Connection refused")));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> transactionService.resolveAbandonedTransaction(1L, "gave up"));
+        verifyNoInteractions(settlementService);
+    }
+
+    @Test
+    void resolveAbandonedTransaction_ShouldIgnoreSettledTransaction() {
+        // Arrange
+        Transaction completed = pending();
+        completed.setStatus(TransactionStatus.COMPLETED);
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(completed));
+
+        // Act
+        transactionService.resolveAbandonedTransaction(1L, "gave up");
+
+        // Assert
+        verifyNoInteractions(walletClient, settlementService);
+    }
+
+    @Test
+    void acceptTransaction_ShouldNotCallWalletService_WhenMetadataIsNotCached() {
+        // Arrange
+        when(walletClient.getCachedMetadata(10L)).thenReturn(Optional.empty());
+        when(walletClient.getCachedMetadata(20L)).thenReturn(Optional.empty());
+        when(settlementPipeline.tryReserve()).thenReturn(true);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> {
+            Transaction saved = invocation.getArgument(0);
+            saved.setId(1L);
+            return saved;
+        });
+
+        // Act
+        transactionService.acceptTransaction(transferRequest(), "key-1");
+
+        // Assert
+        verify(walletClient, never()).getMetadata(any());
+        verify(walletClient, never()).getMetadataBlocking(any());
+        verifyNoInteractions(fxConverter);
+        verify(settlementPipeline).dispatch(argThat(transaction -> transaction.getSourceAmount() == null));
+    }
+
+    @Test
+    void acceptTransaction_ShouldConvert_WhenBothWalletsAreCached() {
+        // Arrange
+        WalletMetadata source = new WalletMetadata(10L, 5L, "EUR", "CHECKING");
+        WalletMetadata destination = new WalletMetadata(20L, 6L, "USD", "CHECKING");
+        when(walletClient.getCachedMetadata(10L)).thenReturn(Optional.of(source));
+        when(walletClient.getCachedMetadata(20L)).thenReturn(Optional.of(destination));
+        when(settlementPipeline.tryReserve()).thenReturn(true);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        transactionService.acceptTransaction(transferRequest(), null);
+
+        // Assert
+        verify(fxConverter).convert(any(Transaction.class), eq(source), eq(destination));
+        verify(walletClient, never()).getMetadataBlocking(any());
+    }
+
+    @Test
+    void resettleTransaction_ShouldConvertAndStoreAmounts_WhenNotConvertedYet() {
+        // Arrange
+        Transaction transaction = pending();
+        Transaction stored = pending();
+        stored.setSourceAmount(new BigDecimal("27.5000"));
+        WalletMetadata source = new WalletMetadata(10L, 5L, "USD", "CHECKING");
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+        when(walletClient.getMetadataBlocking(10L)).thenReturn(source);
+        when(settlementService.recordConversion(transaction)).thenReturn(stored);
+        when(walletClient.settle(10L, null, new BigDecimal("27.5000"), new BigDecimal("25.00"), "TXN-1"))
+                .thenReturn(Mono.empty());
+
+        // Act
+        transactionService.resettleTransaction(1L);
+
+        // Assert
+        verify(fxConverter).convert(transaction, source, null);
+        verify(settlementService).markCompleted(1L, 5L);
+    }
+
+    @Test
+    void ingestBatch_ShouldLeaveItemsPending_WhenWalletServiceIsUnavailable() {
+        // Arrange
+        when(walletClient.getMetadataBlocking(10L)).thenReturn(new WalletMetadata(10L, 5L, "EUR", "CHECKING"));
+        when(walletClient.debitBatch(eq(10L), any())).thenReturn(Mono.error(WebClientResponseException.create(
+                503, "Service Unavailable", HttpHeaders.EMPTY, new byte[0], null)));
+        List<BatchItemResult> results = new ArrayList<>();
+
+        // Act
+        transactionService.ingestBatch(List.of(withdrawalRequest(), withdrawalRequest()), results::add);
+
+        // Assert
+        assertEquals(2, results.size());
+        assertTrue(results.stream().allMatch(result -> "PENDING".equals(result.getStatus())));
+        verify(settlementService, never()).markFailedBatch(any(), any());
+        verify(settlementService, never()).markCompletedBatch(any(), any());
+    }
+
+    @Test
+    void ingestBatch_ShouldLeaveItemsPending_WhenBatchDebitTimesOut() {
+        // Arrange
+        when(walletClient.getMetadataBlocking(10L)).thenReturn(new WalletMetadata(10L, 5L, "EUR", "CHECKING"));
+        when(walletClient.debitBatch(eq(10L), any())).thenReturn(Mono.error(new TimeoutException("Read timed out")));
+        List<BatchItemResult> results = new ArrayList<>();
+
+        // Act
+        transactionService.ingestBatch(List.of(withdrawalRequest()), results::add);
+
+        // Assert
+        assertEquals("PENDING", results.get(0).getStatus());
+        verify(settlementService, never()).markFailedBatch(any(), any());
+    }
+
+    @Test
+    void ingestBatch_ShouldFailItems_WhenWalletServiceRejectsTheBatch() {
+        // Arrange
+        when(walletClient.getMetadataBlocking(10L)).thenReturn(new WalletMetadata(10L, 5L, "EUR", "CHECKING"));
+        when(walletClient.debitBatch(eq(10L), any())).thenReturn(Mono.error(WebClientResponseException.create(
+                422, "Unprocessable Entity", HttpHeaders.EMPTY, new byte[0], null)));
+        List<BatchItemResult> results = new ArrayList<>();
+
+        // Act
+        transactionService.ingestBatch(List.of(withdrawalRequest()), results::add);
+
+        // Assert
+        assertEquals("FAILED", results.get(0).getStatus());
+        verify(settlementService).markFailedBatch(any(), any());
+    }
+
+    private static CreateTransactionRequest withdrawalRequest() {
+        CreateTransactionRequest request = new CreateTransactionRequest();
+        request.setSourceWalletId(10L);
+        request.setAmount(new BigDecimal("25.00"));
+        request.setCurrency("EUR");
+        request.setTransactionType("WITHDRAWAL");
+        return request;
+    }
+
+    private static CreateTransactionRequest transferRequest() {
+        CreateTransactionRequest request = new CreateTransactionRequest();
+        request.setSourceWalletId(10L);
+        request.setDestinationWalletId(20L);
+        request.setAmount(new BigDecimal("25.00"));
+        request.setCurrency("EUR");
+        request.setTransactionType("TRANSFER");
+        return request;
+    }
+
+    private static Transaction pending() {
+        return Transaction.builder()
+                .id(1L)
+                .sourceWalletId(10L)
+                .amount(new BigDecimal("25.00"))
+                .currency("EUR")
+                .transactionType(TransactionType.WITHDRAWAL)
+                .status(TransactionStatus.PENDING)
+                .reference("TXN-1")
+                .transactionDate(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,163 @@
+package com.fintech.transaction.service;
+
+import com.fintech.shared.events.TransactionCompletedEvent;
+import com.fintech.shared.events.TransactionFailedEvent;
+import com.fintech.transaction.entity.Transaction;
+import com.fintech.transaction.entity.TransactionStatus;
+import com.fintech.transaction.entity.TransactionType;
+import com.fintech.transaction.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionSettlementServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private TransactionAggregateService aggregateService;
+
+    @InjectMocks
+    private TransactionSettlementService settlementService;
+
+    @BeforeEach
+    void saveReturnsEntity() {
+        lenient().when(transactionRepository.save(any(Transaction.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void markCompleted_ShouldCompletePendingTransaction_AndEnqueueEvent() {
+        // Arrange
+        Transaction transaction = transaction(TransactionStatus.PENDING);
+        transaction.setDestinationAmount(new BigDecimal("21.5000"));
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+
+        // Act
+        Transaction result = settlementService.markCompleted(1L, 5L);
+
+        // Assert
+        assertEquals(TransactionStatus.COMPLETED, result.getStatus());
+        assertEquals(5L, result.getUserId());
+        verify(aggregateService).record(transaction);
+
+        ArgumentCaptor<Object> event = ArgumentCaptor.forClass(Object.class);
+        verify(outboxService).enqueue(eq(1L), eq(TransactionCompletedEvent.EXCHANGE),
+                eq(TransactionCompletedEvent.ROUTING_KEY), event.capture());
+        TransactionCompletedEvent completed = (TransactionCompletedEvent) event.getValue();
+        assertEquals("TXN-1", completed.getReference());
+        assertEquals(new BigDecimal("25.00"), completed.getAmount());
+        assertEquals(new BigDecimal("21.5000"), completed.getDestinationAmount());
+    }
+
+    @Test
+    void markCompleted_ShouldLeaveSettledTransactionUnchanged() {
+        // Arrange
+        Transaction transaction = transaction(TransactionStatus.FAILED);
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+
+        // Act
+        Transaction result = settlementService.markCompleted(1L, 5L);
+
+        // Assert
+        assertEquals(TransactionStatus.FAILED, result.getStatus());
+        assertNull(result.getUserId());
+        verify(transactionRepository, never()).save(any());
+        verifyNoInteractions(outboxService, aggregateService);
+    }
+
+    @Test
+    void markFailed_ShouldFailPendingTransaction_AndEnqueueEvent() {
+        // Arrange
+        Transaction transaction = transaction(TransactionStatus.PENDING);
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+
+        // Act
+        Transaction result = settlementService.markFailed(1L, "Insufficient balance");
+
+        // Assert
+        assertEquals(TransactionStatus.FAILED, result.getStatus());
+        assertEquals("Insufficient balance", result.getFailureReason());
+        verifyNoInteractions(aggregateService);
+
+        ArgumentCaptor<Object> event = ArgumentCaptor.forClass(Object.class);
+        verify(outboxService).enqueue(eq(1L), eq(TransactionFailedEvent.EXCHANGE),
+                eq(TransactionFailedEvent.ROUTING_KEY), event.capture());
+        assertEquals("Insufficient balance", ((TransactionFailedEvent) event.getValue()).getFailureReason());
+    }
+
+    @Test
+    void markFailed_ShouldNotFailCompletedTransaction() {
+        // Arrange
+        Transaction transaction = transaction(TransactionStatus.COMPLETED);
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+
+        // Act
+        Transaction result = settlementService.markFailed(1L, "Settlement could not be completed");
+
+        // Assert
+        assertEquals(TransactionStatus.COMPLETED, result.getStatus());
+        assertNull(result.getFailureReason());
+        verify(transactionRepository, never()).save(any());
+        verify(outboxService, never()).enqueue(anyLong(), anyString(), anyString(), any());
+    }
+
+    @Test
+    void markCompletedBatch_ShouldOnlyCompletePendingTransactions() {
+        // Arrange
+        Transaction pending = transaction(TransactionStatus.PENDING);
+        Transaction failed = transaction(TransactionStatus.FAILED);
+        failed.setId(2L);
+        when(transactionRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(pending, failed));
+
+        // Act
+        List<Transaction> result = settlementService.markCompletedBatch(List.of(1L, 2L), 5L);
+
+        // Assert
+        assertEquals(TransactionStatus.COMPLETED, result.get(0).getStatus());
+        assertEquals(TransactionStatus.FAILED, result.get(1).getStatus());
+        verify(outboxService, times(1)).enqueue(eq(1L), anyString(), anyString(), any());
+    }
+
+    @Test
+    void markCompleted_ShouldThrow_WhenTransactionMissing() {
+        when(transactionRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> settlementService.markCompleted(1L, 5L));
+    }
+
+    private static Transaction transaction(TransactionStatus status) {
+        return Transaction.builder()
+                .id(1L)
+                .sourceWalletId(10L)
+                .destinationWalletId(20L)
+                .amount(new BigDecimal("25.00"))
+                .currency("EUR")
+                .transactionType(TransactionType.TRANSFER)
+                .status(status)
+                .reference("TXN-1")
+                .transactionDate(LocalDateTime.now())
+                .build();
+    }
+}
@@ -3,8 +3,10 @@ package com.fintech.wallet;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 @ComponentScan(basePackages = { "com.fintech.wallet", "com.fintech.shared" })
 public class WalletServiceApplication {
     public static void main(String[] args) {
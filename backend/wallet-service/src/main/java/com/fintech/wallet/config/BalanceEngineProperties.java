@@ -0,0 +1,42 @@
+package com.fintech.wallet.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+@Configuration
+@ConfigurationProperties(prefix = "wallet.engine")
+@Data
+public class BalanceEngineProperties {
+
+    private boolean enabled = false;
+
+    // Hot wallets whose balance is owned by the engine. The engine assumes it is the
+    // only writer: route these wallets to a single wallet-service instance.
+    private Set<Long> walletIds = new HashSet<>();
+
+    // One writer thread per shard; a wallet always maps to the same shard
+    private int shards = 4;
+
+    // Inbox capacity per shard, rounded up to a power of two
+    private int ringSize = 8192;
+
+    // Commands applied (and journaled with one fsync) per writer iteration
+    private int maxBatch = 256;
+
+    // Journaled changes are written to Postgres when this old or this many
+    private Duration commitInterval = Duration.ofMillis(10);
+    private int commitBatchSize = 1000;
+
+    private String journalDirectory = "/var/lib/wallet-service/journal";
+
+    // References kept in memory per wallet to answer replays without a lookup; older
+    // replays are caught when their operation row conflicts at commit
+    private Duration dedupWindow = Duration.ofHours(24);
+
+    private Duration submitTimeout = Duration.ofSeconds(2);
+}
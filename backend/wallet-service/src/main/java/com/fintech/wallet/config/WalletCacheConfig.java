@@ -0,0 +1,37 @@
+package com.fintech.wallet.config;
+
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Base64UrlNamingStrategy;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Fanout exchange broadcasting wallet changes. Every instance binds its own
+ * exclusive, auto-delete queue, so each one receives every invalidation.
+ */
+@Configuration
+public class WalletCacheConfig {
+
+    public static final String WALLET_CACHE_EXCHANGE = "wallet.cache.events";
+
+    @Bean
+    public FanoutExchange walletCacheExchange() {
+        return new FanoutExchange(WALLET_CACHE_EXCHANGE);
+    }
+
+    @Bean
+    public Queue walletCacheQueue() {
+        return new AnonymousQueue(new Base64UrlNamingStrategy("wallet.cache."));
+    }
+
+    @Bean
+    public Binding walletCacheBinding() {
+        return BindingBuilder
+                .bind(walletCacheQueue())
+                .to(walletCacheExchange());
+    }
+}
@@ -0,0 +1,44 @@
+package com.fintech.wallet.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+@ConfigurationProperties(prefix = "wallet.locking")
+@Data
+public class WalletLockingProperties {
+
+    private LockStrategy defaultStrategy = LockStrategy.OPTIMISTIC;
+
+    // Per-operation override, keyed by operation: debit, debit-batch, credit, transfer.
+    // Transfers stay pessimistic unless configured: they hold two rows, and an optimistic
+    // conflict on either one retries the whole transfer.
+    private Map<String, LockStrategy> strategies = new HashMap<>(Map.of("transfer", LockStrategy.PESSIMISTIC));
+
+    // Attempts per operation when it loses a lock conflict, including the first one
+    private int maxAttempts = 5;
+    private Duration initialBackoff = Duration.ofMillis(10);
+    private Duration maxBackoff = Duration.ofMillis(200);
+    private double backoffMultiplier = 2.0;
+
+    // Each backoff is randomized by +/- this fraction
+    private double jitter = 0.5;
+
+    // Wallets with individual conflict counters, the rest are only counted in total
+    private int maxTrackedWallets = 10_000;
+
+    public LockStrategy strategyFor(String operation) {
+        return strategies.getOrDefault(operation, defaultStrategy);
+    }
+
+    public enum LockStrategy {
+        OPTIMISTIC, // Version check at commit
+        PESSIMISTIC, // SELECT ... FOR UPDATE
+        ATOMIC // Single conditional UPDATE, no read-modify-write
+    }
+}
@@ -0,0 +1,37 @@
+package com.fintech.wallet.controller;
+
+import com.fintech.wallet.service.ConflictRetryExecutor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Per-wallet lock conflicts at {@code /actuator/walletcontention}. Kept out of Micrometer
+ * tags, where one series per wallet would explode the metric cardinality.
+ */
+@Component
+@Endpoint(id = "walletcontention")
+@RequiredArgsConstructor
+public class WalletContentionEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final ConflictRetryExecutor conflictRetryExecutor;
+
+    @ReadOperation
+    public Map<String, Object> contention(@Nullable Integer limit) {
+        return Map.of(
+                "wallets", conflictRetryExecutor.topContended(limit != null ? limit : DEFAULT_LIMIT),
+                "untrackedConflicts", conflictRetryExecutor.getUntrackedConflicts());
+    }
+
+    @DeleteOperation
+    public void reset() {
+        conflictRetryExecutor.resetContention();
+    }
+}
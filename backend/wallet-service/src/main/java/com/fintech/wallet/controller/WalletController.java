@@ -1,15 +1,37 @@
 package com.fintech.wallet.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fintech.shared.dto.WalletBalanceDTO;
 import com.fintech.shared.dto.WalletDTO;
 import com.fintech.wallet.dto.CreateWalletRequest;
+import com.fintech.wallet.dto.LedgerBalanceDTO;
+import com.fintech.wallet.dto.LedgerEntryDTO;
+import com.fintech.wallet.dto.TransferRequest;
+import com.fintech.wallet.dto.WalletOperationRequest;
+import com.fintech.wallet.service.WalletLedgerService;
 import com.fintech.wallet.service.WalletService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/api/wallets")
@@ -17,7 +39,15 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class WalletController {
 
+    private static final long MAX_BALANCE_RANGE = 100_000;
+    private static final int MAX_LEDGER_PAGE = 1000;
+
     private final WalletService walletService;
+    private final WalletLedgerService walletLedgerService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${wallet.lookup.max-ids:10000}")
+    private int maxLookupIds;
 
     @PostMapping
     public ResponseEntity<WalletDTO> createWallet(@Valid @RequestBody CreateWalletRequest request) {
@@ -26,17 +56,125 @@ public class WalletController {
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<WalletDTO>> getWalletsByUserId(@PathVariable Long userId) {
-        List<WalletDTO> wallets = walletService.getWalletsByUserId(userId);
+    public ResponseEntity<List<WalletDTO>> getWalletsByUserId(@PathVariable Long userId,
+            @RequestParam(defaultValue = "false") boolean strict) {
+        List<WalletDTO> wallets = walletService.getWalletsByUserId(userId, strict);
         return ResponseEntity.ok(wallets);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<WalletDTO> getWalletById(@PathVariable Long id) {
-        WalletDTO wallet = walletService.getWalletById(id);
+    public ResponseEntity<WalletDTO> getWalletById(@PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean strict) {
+        WalletDTO wallet = walletService.getWalletById(id, strict);
+        return ResponseEntity.ok(wallet);
+    }
+
+    @PostMapping("/{id}/debit")
+    public ResponseEntity<WalletDTO> debitWallet(@PathVariable Long id, @RequestBody BigDecimal amount,
+            @RequestParam(required = false) String reference) {
+        WalletDTO wallet = walletService.debitWallet(id, amount, reference);
+        return ResponseEntity.ok(wallet);
+    }
+
+    @PostMapping("/{id}/debits")
+    public ResponseEntity<WalletDTO> debitWalletBatch(@PathVariable Long id,
+            @Valid @RequestBody List<@Valid WalletOperationRequest> operations) {
+        WalletDTO wallet = walletService.debitWalletBatch(id, operations);
         return ResponseEntity.ok(wallet);
     }
 
+    // Whether a debit with this reference was applied and not reversed, so a caller can settle an unknown outcome
+    @GetMapping("/{id}/debits")
+    public ResponseEntity<Boolean> isDebitApplied(@PathVariable Long id, @RequestParam String reference) {
+        return ResponseEntity.ok(walletService.isDebitApplied(id, reference));
+    }
+
+    @PostMapping("/transfers")
+    public ResponseEntity<WalletDTO> transfer(@Valid @RequestBody TransferRequest request) {
+        WalletDTO wallet = walletService.transfer(request.getSourceWalletId(), request.getDestinationWalletId(),
+                request.getAmount(), request.getDestinationAmount(), request.getReference());
+        return ResponseEntity.ok(wallet);
+    }
+
+    @PutMapping("/{id}/stripes")
+    public ResponseEntity<WalletDTO> setStripeCount(@PathVariable Long id, @RequestParam int count) {
+        return ResponseEntity.ok(walletService.setStripeCount(id, count));
+    }
+
+    @GetMapping("/{id}/ledger")
+    public ResponseEntity<List<LedgerEntryDTO>> getLedger(@PathVariable Long id,
+            @RequestParam(defaultValue = "0") long afterSequence,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(walletLedgerService.getEntries(id, afterSequence, Math.min(limit, MAX_LEDGER_PAGE)));
+    }
+
+    @GetMapping("/{id}/balance")
+    public ResponseEntity<LedgerBalanceDTO> getBalanceAt(@PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return ResponseEntity.ok(walletLedgerService.getBalanceAt(id, at != null ? at : LocalDateTime.now()));
+    }
+
+    @GetMapping("/balances")
+    public ResponseEntity<List<WalletBalanceDTO>> getBalancesInRange(@RequestParam Long fromId,
+            @RequestParam Long toId) {
+        if (toId - fromId > MAX_BALANCE_RANGE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Range must not span more than " + MAX_BALANCE_RANGE + " wallet IDs");
+        }
+        return ResponseEntity.ok(walletService.getBalancesInRange(fromId, toId));
+    }
+
+    /**
+     * Wallets for a list of IDs, read with one query and streamed as NDJSON in ID
+     * order. Unknown IDs are left out.
+     */
+    @PostMapping(value = "/lookup", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> lookupWallets(@RequestBody List<Long> ids) {
+        return streamNdjson(lookupIds(ids), walletService::lookupWallets);
+    }
+
+    /**
+     * Balances for a list of IDs, streamed as NDJSON like {@code /lookup}.
+     */
+    @PostMapping(value = "/balances", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> lookupBalances(@RequestBody List<Long> ids) {
+        return streamNdjson(lookupIds(ids), walletService::lookupBalances);
+    }
+
+    @GetMapping("/max-id")
+    public ResponseEntity<Long> getMaxWalletId() {
+        return ResponseEntity.ok(walletService.getMaxWalletId());
+    }
+
+    private Set<Long> lookupIds(List<Long> ids) {
+        Set<Long> unique = new LinkedHashSet<>(ids);
+        unique.remove(null);
+        if (unique.isEmpty() || unique.size() > maxLookupIds) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Lookup must contain between 1 and " + maxLookupIds + " wallet IDs");
+        }
+        return unique;
+    }
+
+    private <T> ResponseEntity<StreamingResponseBody> streamNdjson(Set<Long> ids,
+            BiConsumer<Set<Long>, Consumer<T>> lookup) {
+        StreamingResponseBody body = outputStream -> {
+            try (OutputStream out = new BufferedOutputStream(outputStream, 16 * 1024)) {
+                lookup.accept(ids, row -> {
+                    try {
+                        out.write(objectMapper.writeValueAsBytes(row));
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     @GetMapping("/health")
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("Wallet Service is running");
@@ -0,0 +1,21 @@
+package com.fintech.wallet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerBalanceDTO {
+    private Long walletId;
+    private BigDecimal balance;
+    private LocalDateTime at;
+    private Long snapshotSequence; // Snapshot the balance was replayed from
+    private long replayedEntries;
+}
@@ -0,0 +1,22 @@
+package com.fintech.wallet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerEntryDTO {
+    private Long sequence;
+    private Long walletId;
+    private BigDecimal amount;
+    private String reference;
+    private String operationType;
+    private LocalDateTime createdAt;
+}
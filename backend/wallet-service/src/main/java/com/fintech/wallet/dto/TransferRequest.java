@@ -0,0 +1,34 @@
+package com.fintech.wallet.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferRequest {
+
+    @NotNull(message = "Source wallet ID is required")
+    private Long sourceWalletId;
+
+    @NotNull(message = "Destination wallet ID is required")
+    private Long destinationWalletId;
+
+    @NotNull(message = "Amount is required")
+    @Positive(message = "Amount must be positive")
+    private BigDecimal amount;
+
+    @Positive(message = "Destination amount must be positive")
+    private BigDecimal destinationAmount; // Credited amount when the wallets' currencies differ; defaults to amount
+
+    @NotBlank(message = "Reference is required")
+    private String reference; // Transaction reference
+}
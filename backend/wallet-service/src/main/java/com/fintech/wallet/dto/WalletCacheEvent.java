@@ -0,0 +1,21 @@
+package com.fintech.wallet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Broadcast to every wallet-service instance after a wallet change commits, so that
+ * their read caches drop the wallet and its owner's wallet list.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletCacheEvent {
+    private Long walletId;
+    private Long userId;
+    private String origin; // Instance that made the change, which already refreshed its own cache
+    private long changedAt; // Epoch millis of the commit
+}
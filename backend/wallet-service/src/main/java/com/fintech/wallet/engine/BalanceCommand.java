@@ -0,0 +1,19 @@
+package com.fintech.wallet.engine;
+
+import com.fintech.shared.dto.WalletDTO;
+import com.fintech.wallet.entity.WalletOperation;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Request to a shard writer. All operations of a command are applied together or
+ * not at all; references already applied are skipped.
+ */
+record BalanceCommand(long walletId, WalletOperation.OperationType type, List<Operation> operations,
+        CompletableFuture<WalletDTO> result) {
+
+    record Operation(String reference, BigDecimal amount) {
+    }
+}
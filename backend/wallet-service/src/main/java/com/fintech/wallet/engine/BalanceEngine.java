@@ -0,0 +1,161 @@
+package com.fintech.wallet.engine;
+
+import com.fintech.shared.dto.WalletDTO;
+import com.fintech.wallet.config.BalanceEngineProperties;
+import com.fintech.wallet.dto.WalletOperationRequest;
+import com.fintech.wallet.entity.WalletOperation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Single-writer balance engine for hot wallets. Each configured wallet is owned by
+ * one shard whose thread applies debits and credits in memory, journals them with
+ * one fsync per batch and group-commits them to Postgres, instead of taking a row
+ * lock per operation. Wallets not listed in {@code wallet.engine.wallet-ids} keep
+ * the regular JPA path.
+ */
+@Component
+@Slf4j
+public class BalanceEngine {
+
+    private final BalanceEngineProperties properties;
+    private final BalanceStore store;
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<Long, BigDecimal> balances = new ConcurrentHashMap<>();
+    private final Counter rejectedCounter;
+    private final Timer latency;
+    private BalanceShard[] shards = new BalanceShard[0];
+
+    public BalanceEngine(BalanceEngineProperties properties, BalanceStore store, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.store = store;
+        this.meterRegistry = meterRegistry;
+        this.rejectedCounter = meterRegistry.counter("wallet.engine.inbox_full");
+        this.latency = Timer.builder("wallet.engine.latency")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Counter applied = meterRegistry.counter("wallet.engine.applied");
+        Counter insufficient = meterRegistry.counter("wallet.engine.insufficient_balance");
+        Counter replayed = meterRegistry.counter("wallet.engine.replayed");
+        Timer commitTimer = meterRegistry.timer("wallet.engine.commit");
+
+        shards = new BalanceShard[properties.getShards()];
+        for (int i = 0; i < shards.length; i++) {
+            Path journal = Path.of(properties.getJournalDirectory(), "shard-" + i + ".journal");
+            shards[i] = new BalanceShard(i, properties, store, journal, balances, applied, insufficient,
+                    replayed, commitTimer);
+            // Changes acknowledged before a crash must reach Postgres before new ones
+            shards[i].recover();
+        }
+        for (BalanceShard shard : shards) {
+            shard.start();
+        }
+        meterRegistry.gauge("wallet.engine.backlog", this, engine -> {
+            int backlog = 0;
+            for (BalanceShard shard : engine.shards) {
+                backlog += shard.backlog();
+            }
+            return backlog;
+        });
+        log.info("Balance engine started with {} shards for {} wallets", shards.length,
+                properties.getWalletIds().size());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        // Each writer drains its inbox and commits before exiting
+        for (BalanceShard shard : shards) {
+            shard.stop();
+        }
+    }
+
+    public boolean owns(Long walletId) {
+        return shards.length > 0 && walletId != null && properties.getWalletIds().contains(walletId);
+    }
+
+    public WalletDTO debit(Long walletId, BigDecimal amount, String reference) {
+        return submit(walletId, WalletOperation.OperationType.DEBIT,
+                List.of(new BalanceCommand.Operation(referenceOrSynthetic(reference), amount)));
+    }
+
+    public WalletDTO credit(Long walletId, BigDecimal amount, String reference) {
+        return submit(walletId, WalletOperation.OperationType.CREDIT,
+                List.of(new BalanceCommand.Operation(referenceOrSynthetic(reference), amount)));
+    }
+
+    /**
+     * All-or-nothing debit of several referenced amounts, like
+     * {@code WalletService#debitWalletBatch}.
+     */
+    public WalletDTO debitAll(Long walletId, List<WalletOperationRequest> operations) {
+        return submit(walletId, WalletOperation.OperationType.DEBIT, operations.stream()
+                .map(operation -> new BalanceCommand.Operation(referenceOrSynthetic(operation.getReference()),
+                        operation.getAmount()))
+                .toList());
+    }
+
+    /**
+     * Latest balance applied by the engine, possibly not yet committed to Postgres.
+     */
+    public Optional<BigDecimal> balanceOf(Long walletId) {
+        return Optional.ofNullable(balances.get(walletId));
+    }
+
+    private WalletDTO submit(Long walletId, WalletOperation.OperationType type,
+            List<BalanceCommand.Operation> operations) {
+        CompletableFuture<WalletDTO> result = new CompletableFuture<>();
+        BalanceShard shard = shards[Math.floorMod(Long.hashCode(walletId), shards.length)];
+        if (!shard.submit(new BalanceCommand(walletId, type, operations, result))) {
+            rejectedCounter.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Balance engine is saturated");
+        }
+
+        Timer.Sample sample = Timer.start();
+        try {
+            return result.get(properties.getSubmitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (TimeoutException e) {
+            // The command may still be applied; callers retry with the same reference
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Balance engine timed out");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            sample.stop(latency);
+        }
+    }
+
+    private static String referenceOrSynthetic(String reference) {
+        return reference != null ? reference : "engine-" + UUID.randomUUID();
+    }
+}
@@ -0,0 +1,262 @@
+package com.fintech.wallet.engine;
+
+import com.fintech.shared.dto.WalletDTO;
+import com.fintech.shared.money.Money;
+import com.fintech.wallet.config.BalanceEngineProperties;
+import com.fintech.wallet.entity.WalletOperation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single writer for a subset of wallets. Its thread drains the inbox in batches,
+ * applies each command to the in-memory balances, appends the changes to the
+ * journal and fsyncs once per batch before answering the callers. Journaled changes
+ * are group-committed to Postgres by the same thread.
+ */
+@Slf4j
+final class BalanceShard implements Runnable {
+
+    private static final int SPINS_BEFORE_PARK = 1000;
+    private static final long IDLE_PARK_NANOS = 50_000;
+
+    private final int id;
+    private final BalanceEngineProperties properties;
+    private final BalanceStore store;
+    private final BalanceJournal journal;
+    private final MpscRingBuffer<BalanceCommand> inbox;
+    private final Map<Long, BigDecimal> publishedBalances;
+    private final Counter appliedCounter;
+    private final Counter rejectedCounter;
+    private final Counter replayedCounter;
+    private final Timer commitTimer;
+
+    private final Map<Long, WalletState> wallets = new HashMap<>();
+    private final List<JournalEntry> uncommitted = new ArrayList<>();
+    private final Map<Long, BigDecimal> dirtyBalances = new LinkedHashMap<>();
+    private final long commitIntervalNanos;
+    private long lastCommitNanos = System.nanoTime();
+
+    private volatile boolean running = true;
+    private Thread thread;
+
+    BalanceShard(int id, BalanceEngineProperties properties, BalanceStore store, Path journalFile,
+            ConcurrentHashMap<Long, BigDecimal> publishedBalances, Counter appliedCounter, Counter rejectedCounter,
+            Counter replayedCounter, Timer commitTimer) {
+        this.id = id;
+        this.properties = properties;
+        this.store = store;
+        this.journal = new BalanceJournal(journalFile);
+        this.inbox = new MpscRingBuffer<>(properties.getRingSize());
+        this.publishedBalances = publishedBalances;
+        this.appliedCounter = appliedCounter;
+        this.rejectedCounter = rejectedCounter;
+        this.replayedCounter = replayedCounter;
+        this.commitTimer = commitTimer;
+        this.commitIntervalNanos = properties.getCommitInterval().toNanos();
+    }
+
+    /**
+     * Replays what a previous run journaled but did not commit. Called before {@link #start()}.
+     */
+    void recover() {
+        List<JournalEntry> entries = journal.readAll();
+        if (!entries.isEmpty()) {
+            int applied = store.recover(entries);
+            log.info("Shard {} recovered {} of {} journaled balance changes", id, applied, entries.size());
+        }
+        journal.reset();
+    }
+
+    void start() {
+        thread = Thread.ofPlatform().name("balance-shard-" + id).start(this);
+    }
+
+    void stop() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join();
+        }
+    }
+
+    boolean submit(BalanceCommand command) {
+        return running && inbox.offer(command);
+    }
+
+    int backlog() {
+        return inbox.size();
+    }
+
+    int uncommitted() {
+        return uncommitted.size();
+    }
+
+    @Override
+    public void run() {
+        List<BalanceCommand> batch = new ArrayList<>(properties.getMaxBatch());
+        List<WalletDTO> results = new ArrayList<>(properties.getMaxBatch());
+        int idleSpins = 0;
+        try {
+            while (running || inbox.size() > 0) {
+                batch.clear();
+                BalanceCommand command;
+                while (batch.size() < properties.getMaxBatch() && (command = inbox.poll()) != null) {
+                    batch.add(command);
+                }
+
+                if (batch.isEmpty()) {
+                    commitIfDue();
+                    if (++idleSpins < SPINS_BEFORE_PARK) {
+                        Thread.onSpinWait();
+                    } else {
+                        LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    }
+                    continue;
+                }
+                idleSpins = 0;
+
+                results.clear();
+                for (BalanceCommand next : batch) {
+                    results.add(apply(next));
+                }
+                // Durable before anyone is answered
+                journal.sync();
+                for (int i = 0; i < batch.size(); i++) {
+                    if (results.get(i) != null) {
+                        batch.get(i).result().complete(results.get(i));
+                    }
+                }
+                commitIfDue();
+            }
+        } catch (RuntimeException e) {
+            log.error("Balance shard {} stopped", id, e);
+            running = false;
+            failPending(e);
+        } finally {
+            commit();
+            try {
+                journal.close();
+            } catch (Exception e) {
+                log.warn("Could not close journal of shard {}", id, e);
+            }
+        }
+    }
+
+    // Returns null when the command was rejected (its future is already completed)
+    private WalletDTO apply(BalanceCommand command) {
+        WalletState wallet;
+        try {
+            wallet = wallets.computeIfAbsent(command.walletId(),
+                    walletId -> store.load(walletId, properties.getDedupWindow()));
+        } catch (RuntimeException e) {
+            command.result().completeExceptionally(e);
+            return null;
+        }
+
+        List<BalanceCommand.Operation> pending = new ArrayList<>(command.operations().size());
+        long[] units = new long[command.operations().size()];
+        Money total = Money.zero(wallet.getCurrency());
+        try {
+            for (BalanceCommand.Operation operation : command.operations()) {
+                if (!wallet.isApplied(command.type(), operation.reference())) {
+                    Money amount = Money.of(operation.amount(), wallet.getCurrency());
+                    units[pending.size()] = amount.units();
+                    pending.add(operation);
+                    total = total.plus(amount);
+                }
+            }
+        } catch (ArithmeticException e) {
+            command.result().completeExceptionally(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    e.getMessage()));
+            return null;
+        }
+        if (pending.isEmpty()) {
+            return wallet.toDTO();
+        }
+
+        boolean debit = command.type() == WalletOperation.OperationType.DEBIT;
+        if (debit && wallet.getBalance().isLessThan(total)) {
+            rejectedCounter.increment();
+            command.result().completeExceptionally(new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "Insufficient balance"));
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < pending.size(); i++) {
+            String reference = pending.get(i).reference();
+            JournalEntry entry = new JournalEntry(command.walletId(), command.type(), units[i], reference);
+            journal.append(entry);
+            uncommitted.add(entry);
+            wallet.markApplied(command.type(), reference, now);
+        }
+        wallet.setBalance(debit ? wallet.getBalance().minus(total) : wallet.getBalance().plus(total));
+        BigDecimal balance = wallet.getBalance().toBigDecimal();
+        dirtyBalances.put(wallet.getId(), balance);
+        publishedBalances.put(wallet.getId(), balance);
+        appliedCounter.increment(pending.size());
+        return wallet.toDTO();
+    }
+
+    private void commitIfDue() {
+        if (uncommitted.size() >= properties.getCommitBatchSize()
+                || (!uncommitted.isEmpty() && System.nanoTime() - lastCommitNanos >= commitIntervalNanos)) {
+            commit();
+        }
+    }
+
+    // On failure the changes stay journaled and in memory; the next cycle retries
+    private void commit() {
+        if (uncommitted.isEmpty()) {
+            lastCommitNanos = System.nanoTime();
+            return;
+        }
+        Timer.Sample sample = Timer.start();
+        try {
+            List<JournalEntry> replayed = store.commit(uncommitted, dirtyBalances);
+            journal.reset();
+            uncommitted.clear();
+            dirtyBalances.clear();
+            undo(replayed);
+        } catch (RuntimeException e) {
+            log.error("Balance shard {} could not commit {} changes, will retry", id, uncommitted.size(), e);
+        } finally {
+            sample.stop(commitTimer);
+            lastCommitNanos = System.nanoTime();
+        }
+    }
+
+    // Replays the dedup window missed: the store already left them out of Postgres
+    private void undo(List<JournalEntry> replayed) {
+        for (JournalEntry entry : replayed) {
+            WalletState wallet = wallets.get(entry.walletId());
+            Money amount = Money.ofUnits(entry.units(), wallet.getCurrency());
+            wallet.setBalance(entry.type() == WalletOperation.OperationType.DEBIT
+                    ? wallet.getBalance().plus(amount)
+                    : wallet.getBalance().minus(amount));
+            publishedBalances.put(wallet.getId(), wallet.getBalance().toBigDecimal());
+            replayedCounter.increment();
+            log.warn("Shard {} ignored {} {} on wallet {}: already applied before the dedup window", id,
+                    entry.type(), entry.reference(), entry.walletId());
+        }
+    }
+
+    private void failPending(RuntimeException cause) {
+        BalanceCommand command;
+        while ((command = inbox.poll()) != null) {
+            command.result().completeExceptionally(cause);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.fintech.wallet.engine;
+
+import com.fintech.wallet.entity.WalletOperation;
+import com.fintech.wallet.entity.WalletType;
+import com.fintech.wallet.service.WalletLedgerService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Postgres side of the balance engine: loads wallet state and writes journaled
+ * changes in group commits. Operations and balances are written in the same
+ * transaction, so a wallet_operations row is the proof that a change is durable.
+ */
+@Component
+@RequiredArgsConstructor
+class BalanceStore {
+
+    private static final String INSERT_OPERATION = "INSERT INTO wallet_operations "
+            + "(wallet_id, reference, operation_type, amount, created_at) VALUES (?, ?, ?, ?, ?) "
+            + "ON CONFLICT (reference, operation_type) DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    WalletState load(long walletId, Duration dedupWindow) {
+        List<WalletState> wallets = jdbcTemplate.query(
+                "SELECT id, user_id, name, currency, balance, wallet_type, active, created_at "
+                        + "FROM wallets WHERE id = ? AND COALESCE(stripe_count, 0) = 0",
+                (rs, rowNum) -> new WalletState(
+                        rs.getLong("id"),
+                        rs.getLong("user_id"),
+                        rs.getString("name"),
+                        rs.getString("currency"),
+                        WalletType.valueOf(rs.getString("wallet_type")),
+                        rs.getBoolean("active"),
+                        rs.getTimestamp("created_at").toLocalDateTime(),
+                        rs.getBigDecimal("balance"),
+                        dedupWindow),
+                walletId);
+        if (wallets.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Wallet not found or striped");
+        }
+
+        WalletState state = wallets.get(0);
+        jdbcTemplate.query(
+                "SELECT reference, operation_type, created_at FROM wallet_operations "
+                        + "WHERE wallet_id = ? AND created_at > ? ORDER BY created_at",
+                rs -> {
+                    state.markApplied(WalletOperation.OperationType.valueOf(rs.getString("operation_type")),
+                            rs.getString("reference"), rs.getTimestamp("created_at").getTime());
+                },
+                walletId, Timestamp.valueOf(LocalDateTime.now().minus(dedupWindow)));
+        return state;
+    }
+
+    /**
+     * Writes a batch of applied changes and the resulting absolute balances. An entry
+     * whose operation row already exists is a replay older than the dedup window: it
+     * gets no ledger row, its amount is taken back out of the written balance, and it
+     * is returned so the shard can undo it in memory.
+     */
+    List<JournalEntry> commit(List<JournalEntry> entries, Map<Long, BigDecimal> balances) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return transactionTemplate.execute(status -> {
+            int[] inserted = jdbcTemplate.batchUpdate(INSERT_OPERATION, entries.stream()
+                    .map(entry -> new Object[] { entry.walletId(), entry.reference(), entry.type().name(),
+                            entry.amount(), now })
+                    .toList());
+
+            List<JournalEntry> applied = new ArrayList<>(entries.size());
+            List<JournalEntry> replayed = new ArrayList<>();
+            Map<Long, BigDecimal> corrected = new HashMap<>(balances);
+            for (int i = 0; i < entries.size(); i++) {
+                JournalEntry entry = entries.get(i);
+                if (inserted[i] == 0) {
+                    replayed.add(entry);
+                    corrected.merge(entry.walletId(), entry.signedAmount().negate(), BigDecimal::add);
+                } else {
+                    applied.add(entry);
+                }
+            }
+
+            if (!applied.isEmpty()) {
+                jdbcTemplate.batchUpdate(WalletLedgerService.INSERT_ENTRY, applied.stream()
+                        .map(entry -> new Object[] { entry.walletId(), entry.signedAmount(), entry.reference(),
+                                entry.type().name(), now })
+                        .toList());
+            }
+            jdbcTemplate.batchUpdate(
+                    "UPDATE wallets SET balance = ?, version = version + 1, updated_at = ? WHERE id = ?",
+                    corrected.entrySet().stream()
+                            .map(balance -> new Object[] { balance.getValue(), now, balance.getKey() })
+                            .toList());
+            return replayed;
+        });
+    }
+
+    /**
+     * Re-applies journal entries left by a crash. Entries whose operation row already
+     * exists were committed before the crash and are skipped.
+     */
+    int recover(List<JournalEntry> entries) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Integer recovered = transactionTemplate.execute(status -> {
+            int applied = 0;
+            for (JournalEntry entry : entries) {
+                int inserted = jdbcTemplate.update(INSERT_OPERATION, entry.walletId(), entry.reference(),
+                        entry.type().name(), entry.amount(), now);
+                if (inserted == 1) {
+                    jdbcTemplate.update(
+                            "UPDATE wallets SET balance = balance + ?, version = version + 1, updated_at = ? "
+                                    + "WHERE id = ?",
+                            entry.signedAmount(), now, entry.walletId());
+                    jdbcTemplate.update(WalletLedgerService.INSERT_ENTRY, entry.walletId(), entry.signedAmount(),
+                            entry.reference(), entry.type().name(), now);
+                    applied++;
+                }
+            }
+            return applied;
+        });
+        return recovered != null ? recovered : 0;
+    }
+}
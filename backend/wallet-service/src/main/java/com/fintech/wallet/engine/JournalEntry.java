@@ -0,0 +1,21 @@
+package com.fintech.wallet.engine;
+
+import com.fintech.shared.money.Money;
+import com.fintech.wallet.entity.WalletOperation;
+
+import java.math.BigDecimal;
+
+/**
+ * One balance change applied in memory and not yet written to Postgres. The amount
+ * is kept in {@link Money} units.
+ */
+record JournalEntry(long walletId, WalletOperation.OperationType type, long units, String reference) {
+
+    BigDecimal amount() {
+        return BigDecimal.valueOf(units, Money.SCALE);
+    }
+
+    BigDecimal signedAmount() {
+        return BigDecimal.valueOf(type == WalletOperation.OperationType.DEBIT ? -units : units, Money.SCALE);
+    }
+}
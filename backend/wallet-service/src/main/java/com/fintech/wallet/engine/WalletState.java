@@ -0,0 +1,89 @@
+package com.fintech.wallet.engine;
+
+import com.fintech.shared.dto.WalletDTO;
+import com.fintech.shared.money.Money;
+import com.fintech.wallet.entity.WalletOperation;
+import com.fintech.wallet.entity.WalletType;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * In-memory copy of an engine-owned wallet. Only touched by its shard's writer thread.
+ * Applied references are remembered for the dedup window, in application order.
+ */
+final class WalletState {
+
+    private final long id;
+    private final long userId;
+    private final String name;
+    private final String currency;
+    private final WalletType walletType;
+    private final boolean active;
+    private final LocalDateTime createdAt;
+    private final long dedupWindowMillis;
+    private final LinkedHashMap<String, Long> appliedReferences = new LinkedHashMap<>();
+    private Money balance;
+    private LocalDateTime updatedAt;
+
+    WalletState(long id, long userId, String name, String currency, WalletType walletType, boolean active,
+            LocalDateTime createdAt, BigDecimal balance, Duration dedupWindow) {
+        this.id = id;
+        this.userId = userId;
+        this.name = name;
+        this.currency = currency;
+        this.walletType = walletType;
+        this.active = active;
+        this.createdAt = createdAt;
+        this.balance = Money.of(balance, currency);
+        this.dedupWindowMillis = dedupWindow.toMillis();
+    }
+
+    boolean isApplied(WalletOperation.OperationType type, String reference) {
+        return appliedReferences.containsKey(type.name() + ':' + reference);
+    }
+
+    void markApplied(WalletOperation.OperationType type, String reference, long appliedAtMillis) {
+        appliedReferences.put(type.name() + ':' + reference, appliedAtMillis);
+
+        long cutoff = System.currentTimeMillis() - dedupWindowMillis;
+        Iterator<Long> oldest = appliedReferences.values().iterator();
+        while (oldest.hasNext() && oldest.next() < cutoff) {
+            oldest.remove();
+        }
+    }
+
+    long getId() {
+        return id;
+    }
+
+    String getCurrency() {
+        return currency;
+    }
+
+    Money getBalance() {
+        return balance;
+    }
+
+    void setBalance(Money balance) {
+        this.balance = balance;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    WalletDTO toDTO() {
+        return WalletDTO.builder()
+                .id(id)
+                .userId(userId)
+                .name(name)
+                .currency(currency)
+                .balance(balance.toBigDecimal())
+                .walletType(walletType.name())
+                .createdAt(createdAt)
+                .updatedAt(updatedAt)
+                .active(active)
+                .build();
+    }
+}
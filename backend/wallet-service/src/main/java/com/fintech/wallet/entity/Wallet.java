@@ -35,6 +35,9 @@ public class Wallet {
     @Column(nullable = false, precision = 19, scale = 4)
     private BigDecimal balance;
 
+    @Column(precision = 19, scale = 4)
+    private BigDecimal openingBalance; // Initial balance, baseline for reconciliation
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private WalletType walletType;
@@ -49,6 +52,12 @@ public class Wallet {
     @UpdateTimestamp
     private LocalDateTime updatedAt;
 
+    private Integer stripeCount; // When > 0 the balance lives in wallet_stripes and this balance is zero
+
     @Version
     private Long version; // For optimistic locking
+
+    public boolean isStriped() {
+        return stripeCount != null && stripeCount > 0;
+    }
 }
@@ -0,0 +1,47 @@
+package com.fintech.wallet.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Balance of a wallet including every ledger entry up to {@code sequence}. A balance
+ * is the closest snapshot plus the entries after it.
+ */
+@Entity
+@Table(name = "wallet_balance_snapshots", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_wallet_balance_snapshots_wallet_sequence",
+                columnNames = { "wallet_id", "sequence" })
+}, indexes = {
+        @Index(name = "idx_wallet_balance_snapshots_wallet_as_of", columnList = "walletId, asOf")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletBalanceSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long walletId;
+
+    @Column(nullable = false)
+    private Long sequence; // Last ledger entry included, 0 for the baseline
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal balance;
+
+    @Column(nullable = false)
+    private LocalDateTime asOf; // Creation time of the last entry included
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,44 @@
+package com.fintech.wallet.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Append-only record of one balance change. Rows are inserted in the transaction
+ * that changes the balance and never updated; the sequence orders a wallet's entries.
+ */
+@Entity
+@Table(name = "wallet_ledger", indexes = {
+        @Index(name = "idx_wallet_ledger_wallet_sequence", columnList = "walletId, sequence", unique = true)
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletLedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long sequence;
+
+    @Column(nullable = false)
+    private Long walletId;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal amount; // Signed: negative for debits
+
+    private String reference; // Transaction reference, null for unreferenced changes
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private WalletOperation.OperationType operationType;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
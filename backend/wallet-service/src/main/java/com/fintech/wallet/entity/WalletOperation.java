@@ -0,0 +1,55 @@
+package com.fintech.wallet.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Balance change applied for a transaction reference. The unique key makes
+ * debits and credits idempotent when a caller retries or re-drives a transaction.
+ */
+@Entity
+@Table(name = "wallet_operations", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_wallet_operations_reference", columnNames = { "reference", "operation_type" })
+}, indexes = {
+        // Recent references of a wallet (balance engine dedup)
+        @Index(name = "idx_wallet_operations_wallet_created", columnList = "walletId, createdAt")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletOperation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long walletId;
+
+    @Column(nullable = false)
+    private String reference; // Transaction reference
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OperationType operationType;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal amount;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public enum OperationType {
+        DEBIT,
+        CREDIT
+    }
+}
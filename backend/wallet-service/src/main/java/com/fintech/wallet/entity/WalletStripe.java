@@ -0,0 +1,37 @@
+package com.fintech.wallet.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * One bucket of a striped wallet's balance. Concurrent operations lock different
+ * stripes instead of the single wallet row; the wallet balance is the sum of its stripes.
+ */
+@Entity
+@Table(name = "wallet_stripes", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_wallet_stripes_wallet_index", columnNames = { "wallet_id", "stripe_index" })
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletStripe {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long walletId;
+
+    @Column(nullable = false)
+    private Integer stripeIndex;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal balance;
+}
@@ -0,0 +1,20 @@
+package com.fintech.wallet.repository;
+
+import com.fintech.wallet.entity.WalletOperation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface WalletOperationRepository extends JpaRepository<WalletOperation, Long> {
+
+    boolean existsByReferenceAndOperationType(String reference, WalletOperation.OperationType operationType);
+
+    boolean existsByWalletIdAndReferenceAndOperationType(Long walletId, String reference,
+            WalletOperation.OperationType operationType);
+
+    List<WalletOperation> findByReferenceInAndOperationType(Collection<String> references,
+            WalletOperation.OperationType operationType);
+}
@@ -1,14 +1,23 @@
 package com.fintech.wallet.repository;
 
 import com.fintech.wallet.entity.Wallet;
+import com.fintech.wallet.entity.WalletType;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface WalletRepository extends JpaRepository<Wallet, Long> {
@@ -17,7 +26,76 @@ public interface WalletRepository extends JpaRepository<Wallet, Long> {
 
     List<Wallet> findByUserIdAndActiveTrue(Long userId);
 
+    interface BalanceView {
+        Long getId();
+
+        BigDecimal getBalance();
+
+        BigDecimal getOpeningBalance();
+    }
+
+    // Row balance plus the stripes of striped wallets
+    String TOTAL_BALANCE =
+            "w.balance + COALESCE((SELECT SUM(s.balance) FROM WalletStripe s WHERE s.walletId = w.id), 0)";
+
+    @Query("SELECT w.id AS id, " + TOTAL_BALANCE + " AS balance, w.openingBalance AS openingBalance "
+            + "FROM Wallet w WHERE w.id >= :fromId AND w.id < :toId ORDER BY w.id")
+    List<BalanceView> findBalancesInRange(Long fromId, Long toId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT w.id AS id, " + TOTAL_BALANCE + " AS balance, w.openingBalance AS openingBalance "
+            + "FROM Wallet w WHERE w.id IN :ids ORDER BY w.id")
+    Stream<BalanceView> streamBalancesByIdIn(Collection<Long> ids);
+
+    interface WalletView {
+        Long getId();
+
+        Long getUserId();
+
+        String getName();
+
+        String getCurrency();
+
+        BigDecimal getBalance();
+
+        WalletType getWalletType();
+
+        Boolean getActive();
+
+        LocalDateTime getCreatedAt();
+
+        LocalDateTime getUpdatedAt();
+    }
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT w.id AS id, w.userId AS userId, w.name AS name, w.currency AS currency, "
+            + TOTAL_BALANCE + " AS balance, w.walletType AS walletType, w.active AS active, "
+            + "w.createdAt AS createdAt, w.updatedAt AS updatedAt "
+            + "FROM Wallet w WHERE w.id IN :ids ORDER BY w.id")
+    Stream<WalletView> streamByIdIn(Collection<Long> ids);
+
+    @Query("SELECT MAX(w.id) FROM Wallet w")
+    Optional<Long> findMaxId();
+
+    @Query("SELECT COUNT(w) > 0 FROM Wallet w WHERE w.id IN :ids AND w.stripeCount > 0")
+    boolean anyStriped(Collection<Long> ids);
+
+    // Conditional debit in one statement: 0 rows when the balance does not cover it
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Wallet w SET w.balance = w.balance - :amount, w.version = w.version + 1, w.updatedAt = :now "
+            + "WHERE w.id = :id AND w.balance >= :amount")
+    int debitIfCovered(Long id, BigDecimal amount, LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Wallet w SET w.balance = w.balance + :amount, w.version = w.version + 1, w.updatedAt = :now "
+            + "WHERE w.id = :id")
+    int credit(Long id, BigDecimal amount, LocalDateTime now);
+
     @Lock(LockModeType.OPTIMISTIC)
     @Query("SELECT w FROM Wallet w WHERE w.id = :id")
     Optional<Wallet> findByIdWithLock(Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM Wallet w WHERE w.id = :id")
+    Optional<Wallet> findByIdForUpdate(Long id);
 }
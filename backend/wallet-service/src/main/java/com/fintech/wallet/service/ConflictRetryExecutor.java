@@ -0,0 +1,137 @@
+package com.fintech.wallet.service;
+
+import com.fintech.wallet.config.WalletLockingProperties;
+import com.fintech.wallet.config.WalletLockingProperties.LockStrategy;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs a wallet operation in its own transaction and retries it, with jittered
+ * exponential backoff, when it loses a lock conflict (optimistic version mismatch,
+ * lock timeout or deadlock). Inside an existing transaction the operation runs once:
+ * the conflict has already doomed that transaction and is left to its owner.
+ */
+@Component
+@Slf4j
+public class ConflictRetryExecutor {
+
+    private final WalletLockingProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Long, WalletContention> contention = new ConcurrentHashMap<>();
+    private final LongAdder untrackedConflicts = new LongAdder();
+
+    public ConflictRetryExecutor(WalletLockingProperties properties, TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T execute(String operation, LockStrategy strategy, Long walletId, Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+
+        for (int attempt = 1;; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (ConcurrencyFailureException e) {
+                meterRegistry.counter("wallet.lock.conflicts", "operation", operation, "strategy", strategy.name())
+                        .increment();
+                WalletContention stats = statsFor(walletId);
+                if (stats != null) {
+                    stats.conflicts.increment();
+                    stats.lastConflictAt = System.currentTimeMillis();
+                }
+
+                if (attempt >= properties.getMaxAttempts()) {
+                    meterRegistry.counter("wallet.lock.exhausted", "operation", operation).increment();
+                    if (stats != null) {
+                        stats.exhausted.increment();
+                    }
+                    log.warn("{} on wallet {} still conflicting after {} attempts", operation, walletId, attempt);
+                    throw e;
+                }
+
+                meterRegistry.counter("wallet.lock.retries", "operation", operation).increment();
+                if (stats != null) {
+                    stats.retries.increment();
+                }
+                log.debug("{} on wallet {} conflicted (attempt {}), retrying", operation, walletId, attempt);
+                backoff(attempt);
+            }
+        }
+    }
+
+    /**
+     * Wallets with the most conflicts, for the walletcontention actuator endpoint.
+     */
+    public List<WalletContentionView> topContended(int limit) {
+        return contention.entrySet().stream()
+                .map(entry -> new WalletContentionView(entry.getKey(), entry.getValue().conflicts.sum(),
+                        entry.getValue().retries.sum(), entry.getValue().exhausted.sum(),
+                        entry.getValue().lastConflictAt))
+                .sorted(Comparator.comparingLong(WalletContentionView::conflicts).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public long getUntrackedConflicts() {
+        return untrackedConflicts.sum();
+    }
+
+    public void resetContention() {
+        contention.clear();
+        untrackedConflicts.reset();
+    }
+
+    private WalletContention statsFor(Long walletId) {
+        WalletContention stats = contention.get(walletId);
+        if (stats == null) {
+            if (walletId == null || contention.size() >= properties.getMaxTrackedWallets()) {
+                untrackedConflicts.increment();
+                return null;
+            }
+            stats = contention.computeIfAbsent(walletId, id -> new WalletContention());
+        }
+        return stats;
+    }
+
+    private void backoff(int attempt) {
+        double base = Math.min(properties.getMaxBackoff().toMillis(),
+                properties.getInitialBackoff().toMillis() * Math.pow(properties.getBackoffMultiplier(), attempt - 1));
+        double jitter = properties.getJitter();
+        long delay = Math.round(base * (1 - jitter + ThreadLocalRandom.current().nextDouble() * 2 * jitter));
+        try {
+            Thread.sleep(Math.max(delay, 0));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while backing off", e);
+        }
+    }
+
+    private static final class WalletContention {
+        private final LongAdder conflicts = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder exhausted = new LongAdder();
+        private volatile long lastConflictAt;
+    }
+
+    public record WalletContentionView(Long walletId, long conflicts, long retries, long exhausted,
+            long lastConflictAt) {
+    }
+}
@@ -0,0 +1,184 @@
+package com.fintech.wallet.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Balance of striped wallets, split across {@code wallet_stripes} rows. Credits go to
+ * any stripe not currently locked, debits to an unlocked stripe holding enough funds,
+ * so concurrent operations on one wallet rarely wait for each other. A debit no single
+ * stripe can cover locks all stripes and borrows across them. Must be called inside
+ * the caller's transaction.
+ */
+@Service
+@Slf4j
+public class StripedBalanceService {
+
+    private static final int SCALE = 4;
+
+    static final String CREDIT_ANY_STRIPE = "UPDATE wallet_stripes SET balance = balance + ? "
+            + "WHERE id = (SELECT id FROM wallet_stripes WHERE wallet_id = ? "
+            + "ORDER BY random() LIMIT 1 FOR UPDATE SKIP LOCKED)";
+
+    static final String CREDIT_STRIPE = "UPDATE wallet_stripes SET balance = balance + ? "
+            + "WHERE wallet_id = ? AND stripe_index = ?";
+
+    static final String DEBIT_COVERING_STRIPE = "UPDATE wallet_stripes SET balance = balance - ? "
+            + "WHERE id = (SELECT id FROM wallet_stripes WHERE wallet_id = ? AND balance >= ? "
+            + "ORDER BY random() LIMIT 1 FOR UPDATE SKIP LOCKED)";
+
+    static final String LOCK_ALL_STRIPES = "SELECT id, balance FROM wallet_stripes WHERE wallet_id = ? "
+            + "ORDER BY stripe_index FOR UPDATE";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final double rebalanceThreshold;
+    private final Counter borrowCounter;
+    private final Counter rebalanceCounter;
+
+    public StripedBalanceService(JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${wallet.striping.rebalance-threshold:0.5}") double rebalanceThreshold) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.rebalanceThreshold = rebalanceThreshold;
+        this.borrowCounter = meterRegistry.counter("wallet.stripes.borrowed");
+        this.rebalanceCounter = meterRegistry.counter("wallet.stripes.rebalanced");
+    }
+
+    /**
+     * Creates {@code stripes} rows sharing {@code balance}; the rounding remainder goes to stripe 0.
+     */
+    public void split(Long walletId, int stripes, BigDecimal balance) {
+        List<BigDecimal> shares = evenShares(balance, stripes);
+        List<Object[]> rows = new ArrayList<>(stripes);
+        for (int i = 0; i < stripes; i++) {
+            rows.add(new Object[] { walletId, i, shares.get(i) });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO wallet_stripes (wallet_id, stripe_index, balance) VALUES (?, ?, ?)",
+                rows);
+    }
+
+    /**
+     * Deletes the stripes of a wallet and returns the balance they held.
+     */
+    public BigDecimal collapse(Long walletId) {
+        return jdbcTemplate.queryForList("DELETE FROM wallet_stripes WHERE wallet_id = ? RETURNING balance",
+                BigDecimal.class, walletId)
+                .stream()
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    public BigDecimal getBalance(Long walletId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(balance), 0) FROM wallet_stripes WHERE wallet_id = ?",
+                BigDecimal.class, walletId);
+    }
+
+    public void credit(Long walletId, int stripes, BigDecimal amount) {
+        if (jdbcTemplate.update(CREDIT_ANY_STRIPE, amount, walletId) == 0) {
+            // Every stripe is locked: wait for one of them
+            jdbcTemplate.update(CREDIT_STRIPE, amount, walletId, ThreadLocalRandom.current().nextInt(stripes));
+        }
+    }
+
+    public void debit(Long walletId, BigDecimal amount) {
+        if (jdbcTemplate.update(DEBIT_COVERING_STRIPE, amount, walletId, amount) == 1) {
+            return;
+        }
+
+        // No unlocked stripe covers the amount: lock them all and borrow across stripes
+        List<Stripe> stripes = lockAll(walletId);
+        BigDecimal total = stripes.stream().map(Stripe::balance).reduce(BigDecimal.ZERO, BigDecimal::add);
+        if (total.compareTo(amount) < 0) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "Insufficient balance");
+        }
+
+        BigDecimal remaining = amount;
+        List<Object[]> updates = new ArrayList<>();
+        for (Stripe stripe : stripes.stream().sorted(Comparator.comparing(Stripe::balance).reversed()).toList()) {
+            if (remaining.signum() == 0) {
+                break;
+            }
+            BigDecimal taken = stripe.balance().min(remaining);
+            remaining = remaining.subtract(taken);
+            updates.add(new Object[] { stripe.balance().subtract(taken), stripe.id() });
+        }
+        jdbcTemplate.batchUpdate("UPDATE wallet_stripes SET balance = ? WHERE id = ?", updates);
+        borrowCounter.increment();
+    }
+
+    /**
+     * Evens out the stripes of wallets whose smallest stripe fell below
+     * {@code rebalance-threshold} times the average, so that debits keep finding a
+     * single stripe that covers them.
+     */
+    @Scheduled(fixedDelayString = "${wallet.striping.rebalance-interval:30000}")
+    public void rebalanceAll() {
+        List<Long> walletIds = jdbcTemplate.queryForList("SELECT id FROM wallets WHERE stripe_count > 0", Long.class);
+        for (Long walletId : walletIds) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> rebalance(walletId));
+            } catch (Exception e) {
+                log.warn("Could not rebalance stripes of wallet {}", walletId, e);
+            }
+        }
+    }
+
+    boolean rebalance(Long walletId) {
+        List<Stripe> stripes = lockAll(walletId);
+        if (stripes.size() < 2) {
+            return false;
+        }
+        BigDecimal total = stripes.stream().map(Stripe::balance).reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal smallest = stripes.stream().map(Stripe::balance).min(Comparator.naturalOrder()).orElseThrow();
+        BigDecimal average = total.divide(BigDecimal.valueOf(stripes.size()), SCALE, RoundingMode.DOWN);
+        if (smallest.compareTo(average.multiply(BigDecimal.valueOf(rebalanceThreshold))) >= 0) {
+            return false;
+        }
+
+        List<BigDecimal> shares = evenShares(total, stripes.size());
+        List<Object[]> updates = new ArrayList<>(stripes.size());
+        for (int i = 0; i < stripes.size(); i++) {
+            updates.add(new Object[] { shares.get(i), stripes.get(i).id() });
+        }
+        jdbcTemplate.batchUpdate("UPDATE wallet_stripes SET balance = ? WHERE id = ?", updates);
+        rebalanceCounter.increment();
+        log.debug("Rebalanced {} stripes of wallet {}", stripes.size(), walletId);
+        return true;
+    }
+
+    private List<Stripe> lockAll(Long walletId) {
+        return jdbcTemplate.query(LOCK_ALL_STRIPES,
+                (rs, rowNum) -> new Stripe(rs.getLong("id"), rs.getBigDecimal("balance")), walletId);
+    }
+
+    private static List<BigDecimal> evenShares(BigDecimal total, int count) {
+        BigDecimal share = total.divide(BigDecimal.valueOf(count), SCALE, RoundingMode.DOWN);
+        List<BigDecimal> shares = new ArrayList<>(count);
+        shares.add(total.subtract(share.multiply(BigDecimal.valueOf(count - 1))));
+        for (int i = 1; i < count; i++) {
+            shares.add(share);
+        }
+        return shares;
+    }
+
+    private record Stripe(long id, BigDecimal balance) {
+    }
+}
@@ -0,0 +1,270 @@
+package com.fintech.wallet.service;
+
+import com.fintech.wallet.dto.LedgerBalanceDTO;
+import com.fintech.wallet.dto.LedgerEntryDTO;
+import com.fintech.wallet.entity.WalletOperation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only ledger of wallet balance changes, with periodic balance snapshots.
+ * Entries are written in the transaction that changes the balance, so the ledger
+ * and the balance columns always agree. A balance at any point in time is the
+ * closest earlier snapshot plus the entries after it; snapshots are taken every
+ * {@code snapshot-every} entries, which bounds that replay.
+ */
+@Service
+@Slf4j
+public class WalletLedgerService {
+
+    public static final String INSERT_ENTRY = "INSERT INTO wallet_ledger "
+            + "(wallet_id, amount, reference, operation_type, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String INSERT_SNAPSHOT = "INSERT INTO wallet_balance_snapshots "
+            + "(wallet_id, sequence, balance, as_of, created_at) VALUES (?, ?, ?, ?, ?) "
+            + "ON CONFLICT (wallet_id, sequence) DO NOTHING";
+
+    // Balance before the first ledger entry of wallets created before the ledger existed.
+    // One statement, so balances and entries are read from the same database snapshot.
+    private static final String INSERT_BASELINES = "INSERT INTO wallet_balance_snapshots "
+            + "(wallet_id, sequence, balance, as_of, created_at) "
+            + "SELECT w.id, 0, w.balance "
+            + "+ COALESCE((SELECT SUM(s.balance) FROM wallet_stripes s WHERE s.wallet_id = w.id), 0) "
+            + "- COALESCE((SELECT SUM(l.amount) FROM wallet_ledger l WHERE l.wallet_id = w.id), 0), "
+            + "COALESCE((SELECT MIN(l.created_at) FROM wallet_ledger l WHERE l.wallet_id = w.id), now()), now() "
+            + "FROM wallets w WHERE NOT EXISTS "
+            + "(SELECT 1 FROM wallet_balance_snapshots b WHERE b.wallet_id = w.id) "
+            + "ON CONFLICT (wallet_id, sequence) DO NOTHING";
+
+    private static final String FIND_SNAPSHOT_CANDIDATES = "SELECT s.wallet_id, s.sequence, s.balance "
+            + "FROM (SELECT DISTINCT ON (wallet_id) wallet_id, sequence, balance FROM wallet_balance_snapshots "
+            + "ORDER BY wallet_id, sequence DESC) s "
+            + "WHERE (SELECT COUNT(*) FROM wallet_ledger l WHERE l.wallet_id = s.wallet_id "
+            + "AND l.sequence > s.sequence AND l.created_at < ?) >= ? "
+            + "LIMIT ?";
+
+    // Whole days of snapshots around the retention cutoff, flagging each wallet's first snapshot
+    private static final String FIND_COMPACTION_CANDIDATES = "SELECT s.wallet_id, s.sequence, s.as_of, "
+            + "s.sequence = (SELECT MIN(f.sequence) FROM wallet_balance_snapshots f WHERE f.wallet_id = s.wallet_id) "
+            + "AS first FROM wallet_balance_snapshots s WHERE s.as_of >= ? AND s.as_of < ?";
+
+    private static final String DELETE_SNAPSHOT = "DELETE FROM wallet_balance_snapshots "
+            + "WHERE wallet_id = ? AND sequence = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int snapshotEvery;
+    private final int snapshotBatchSize;
+    private final Duration snapshotHorizon;
+    private final Duration snapshotRetention;
+    private final Duration compactionWindow;
+
+    private final Counter snapshotCounter;
+    private final DistributionSummary replayedEntries;
+
+    public WalletLedgerService(JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${wallet.ledger.snapshot-every:1000}") int snapshotEvery,
+            @Value("${wallet.ledger.snapshot-batch-size:500}") int snapshotBatchSize,
+            @Value("${wallet.ledger.snapshot-horizon:5m}") Duration snapshotHorizon,
+            @Value("${wallet.ledger.snapshot-retention:30d}") Duration snapshotRetention,
+            @Value("${wallet.ledger.compaction-window:7d}") Duration compactionWindow) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.snapshotEvery = snapshotEvery;
+        this.snapshotBatchSize = snapshotBatchSize;
+        this.snapshotHorizon = snapshotHorizon;
+        this.snapshotRetention = snapshotRetention;
+        this.compactionWindow = compactionWindow;
+
+        this.snapshotCounter = meterRegistry.counter("wallet.ledger.snapshots");
+        this.replayedEntries = DistributionSummary.builder("wallet.ledger.replayed_entries")
+                .description("Ledger entries replayed on top of a snapshot per balance query")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Appends one entry; must run in the transaction that changes the balance.
+     */
+    public void append(Long walletId, WalletOperation.OperationType type, BigDecimal amount, String reference) {
+        jdbcTemplate.update(INSERT_ENTRY, walletId, signed(type, amount), reference, type.name(),
+                Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    public void appendAll(List<WalletOperation> operations) {
+        if (operations.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_ENTRY, operations.stream()
+                .map(operation -> new Object[] { operation.getWalletId(),
+                        signed(operation.getOperationType(), operation.getAmount()), operation.getReference(),
+                        operation.getOperationType().name(), now })
+                .toList());
+    }
+
+    /**
+     * Starting point of a new wallet's ledger.
+     */
+    public void recordOpeningBalance(Long walletId, BigDecimal balance, LocalDateTime at) {
+        Timestamp timestamp = Timestamp.valueOf(at);
+        jdbcTemplate.update(INSERT_SNAPSHOT, walletId, 0L, balance, timestamp, timestamp);
+    }
+
+    public List<LedgerEntryDTO> getEntries(Long walletId, long afterSequence, int limit) {
+        return jdbcTemplate.query("SELECT sequence, wallet_id, amount, reference, operation_type, created_at "
+                        + "FROM wallet_ledger WHERE wallet_id = ? AND sequence > ? ORDER BY sequence LIMIT ?",
+                (rs, rowNum) -> LedgerEntryDTO.builder()
+                        .sequence(rs.getLong("sequence"))
+                        .walletId(rs.getLong("wallet_id"))
+                        .amount(rs.getBigDecimal("amount"))
+                        .reference(rs.getString("reference"))
+                        .operationType(rs.getString("operation_type"))
+                        .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                        .build(),
+                walletId, afterSequence, limit);
+    }
+
+    /**
+     * Balance of the wallet at {@code at}: the latest snapshot taken at or before
+     * that time plus the entries created after it, up to {@code at}.
+     */
+    public LedgerBalanceDTO getBalanceAt(Long walletId, LocalDateTime at) {
+        Timestamp timestamp = Timestamp.valueOf(at);
+        List<Map<String, Object>> snapshots = jdbcTemplate.queryForList(
+                "SELECT sequence, balance FROM wallet_balance_snapshots "
+                        + "WHERE wallet_id = ? AND as_of <= ? ORDER BY sequence DESC LIMIT 1",
+                walletId, timestamp);
+        if (snapshots.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                    "No ledger history for wallet " + walletId + " at " + at);
+        }
+        long sequence = ((Number) snapshots.get(0).get("sequence")).longValue();
+        BigDecimal balance = (BigDecimal) snapshots.get(0).get("balance");
+
+        Map<String, Object> replay = jdbcTemplate.queryForMap(
+                "SELECT COALESCE(SUM(amount), 0) AS total, COUNT(*) AS entries FROM wallet_ledger "
+                        + "WHERE wallet_id = ? AND sequence > ? AND created_at <= ?",
+                walletId, sequence, timestamp);
+        long entries = ((Number) replay.get("entries")).longValue();
+        replayedEntries.record(entries);
+
+        return LedgerBalanceDTO.builder()
+                .walletId(walletId)
+                .balance(balance.add((BigDecimal) replay.get("total")))
+                .at(at)
+                .snapshotSequence(sequence)
+                .replayedEntries(entries)
+                .build();
+    }
+
+    /**
+     * Snapshots wallets with at least {@code snapshot-every} entries since their last
+     * snapshot. Only entries older than {@code snapshot-horizon} are folded in: a
+     * sequence is assigned at insert, so a newer entry may sit next to an older one
+     * whose transaction has not committed yet.
+     */
+    @Scheduled(fixedDelayString = "${wallet.ledger.snapshot-interval:60000}")
+    public void takeSnapshots() {
+        Integer baselines = transactionTemplate.execute(status -> jdbcTemplate.update(INSERT_BASELINES));
+        if (baselines != null && baselines > 0) {
+            log.info("Recorded ledger baselines for {} wallets", baselines);
+        }
+
+        Timestamp horizon = Timestamp.valueOf(LocalDateTime.now().minus(snapshotHorizon));
+        List<Map<String, Object>> candidates = jdbcTemplate.queryForList(FIND_SNAPSHOT_CANDIDATES,
+                horizon, snapshotEvery, snapshotBatchSize);
+        for (Map<String, Object> candidate : candidates) {
+            long walletId = ((Number) candidate.get("wallet_id")).longValue();
+            try {
+                transactionTemplate.executeWithoutResult(status -> snapshot(walletId,
+                        ((Number) candidate.get("sequence")).longValue(), (BigDecimal) candidate.get("balance"),
+                        horizon));
+            } catch (Exception e) {
+                log.warn("Could not snapshot ledger of wallet {}", walletId, e);
+            }
+        }
+    }
+
+    /**
+     * Thins snapshots older than {@code snapshot-retention} to the first snapshot of each
+     * wallet and the last one of each day. Only the days of the last
+     * {@code compaction-window} before the cutoff are read; older ones were compacted
+     * by earlier runs.
+     */
+    @Scheduled(cron = "${wallet.ledger.compaction-cron:0 30 3 * * *}")
+    public void compactSnapshots() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(snapshotRetention);
+        LocalDateTime from = cutoff.minus(compactionWindow).toLocalDate().atStartOfDay();
+        LocalDateTime to = cutoff.toLocalDate().plusDays(1).atStartOfDay();
+
+        Integer deleted = transactionTemplate.execute(status -> {
+            List<SnapshotRow> snapshots = jdbcTemplate.query(FIND_COMPACTION_CANDIDATES,
+                    (rs, rowNum) -> new SnapshotRow(rs.getLong("wallet_id"), rs.getLong("sequence"),
+                            rs.getTimestamp("as_of").toLocalDateTime(), rs.getBoolean("first")),
+                    Timestamp.valueOf(from), Timestamp.valueOf(to));
+            List<SnapshotRow> compactable = compactable(snapshots, cutoff);
+            jdbcTemplate.batchUpdate(DELETE_SNAPSHOT, compactable.stream()
+                    .map(snapshot -> new Object[] { snapshot.walletId(), snapshot.sequence() })
+                    .toList());
+            return compactable.size();
+        });
+        log.info("Compacted {} ledger snapshots", deleted);
+    }
+
+    // Older than the cutoff, not the wallet's first, and followed by another snapshot the same day
+    static List<SnapshotRow> compactable(List<SnapshotRow> snapshots, LocalDateTime cutoff) {
+        Map<String, Long> lastOfDay = new HashMap<>();
+        for (SnapshotRow snapshot : snapshots) {
+            lastOfDay.merge(snapshot.walletId() + ":" + snapshot.asOf().toLocalDate(), snapshot.sequence(),
+                    Math::max);
+        }
+        return snapshots.stream()
+                .filter(snapshot -> snapshot.asOf().isBefore(cutoff) && !snapshot.first())
+                .filter(snapshot -> snapshot.sequence() < lastOfDay.get(
+                        snapshot.walletId() + ":" + snapshot.asOf().toLocalDate()))
+                .toList();
+    }
+
+    private void snapshot(long walletId, long fromSequence, BigDecimal fromBalance, Timestamp horizon) {
+        Long sequence = jdbcTemplate.queryForObject(
+                "SELECT MAX(sequence) FROM wallet_ledger WHERE wallet_id = ? AND sequence > ? AND created_at < ?",
+                Long.class, walletId, fromSequence, horizon);
+        if (sequence == null) {
+            return;
+        }
+        Map<String, Object> range = jdbcTemplate.queryForMap(
+                "SELECT SUM(amount) AS total, MAX(created_at) AS as_of FROM wallet_ledger "
+                        + "WHERE wallet_id = ? AND sequence > ? AND sequence <= ?",
+                walletId, fromSequence, sequence);
+        jdbcTemplate.update(INSERT_SNAPSHOT, walletId, sequence, fromBalance.add((BigDecimal) range.get("total")),
+                range.get("as_of"), Timestamp.valueOf(LocalDateTime.now()));
+        snapshotCounter.increment();
+    }
+
+    record SnapshotRow(long walletId, long sequence, LocalDateTime asOf, boolean first) {
+    }
+
+    private static BigDecimal signed(WalletOperation.OperationType type, BigDecimal amount) {
+        return type == WalletOperation.OperationType.DEBIT ? amount.negate() : amount;
+    }
+}
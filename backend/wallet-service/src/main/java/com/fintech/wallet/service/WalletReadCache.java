@@ -0,0 +1,191 @@
+package com.fintech.wallet.service;
+
+import com.fintech.shared.dto.WalletDTO;
+import com.fintech.wallet.config.WalletCacheConfig;
+import com.fintech.wallet.dto.WalletCacheEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read-through cache of wallet DTOs, per wallet and per user. Every balance change
+ * invalidates the wallet and its owner's list once committed, locally and on the
+ * other instances through the {@code wallet.cache.events} fanout exchange. The TTL
+ * bounds staleness if a broadcast is lost.
+ */
+@Component
+@Slf4j
+public class WalletReadCache {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final Region<WalletDTO> wallets;
+    private final Region<List<WalletDTO>> userWallets;
+    private final Timer hitAge;
+    private final Timer invalidationLag;
+    private final Counter broadcastFailures;
+
+    public WalletReadCache(RabbitTemplate rabbitTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${wallet.cache.ttl:30s}") Duration ttl,
+            @Value("${wallet.cache.max-size:100000}") int maxSize) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.wallets = new Region<>("wallet", ttl, maxSize, meterRegistry);
+        this.userWallets = new Region<>("user", ttl, maxSize, meterRegistry);
+        this.hitAge = Timer.builder("wallet.cache.hit.age")
+                .description("Age of cache entries when served")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.invalidationLag = Timer.builder("wallet.cache.invalidation.lag")
+                .description("Commit to remote invalidation delay")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.broadcastFailures = meterRegistry.counter("wallet.cache.broadcast.failures");
+    }
+
+    public Optional<WalletDTO> getWallet(Long walletId) {
+        return wallets.get(walletId);
+    }
+
+    /**
+     * Caches a wallet read from the database, unless it was invalidated after
+     * {@code loadStartedNanos}: the loaded copy may predate that change.
+     */
+    public void putWallet(WalletDTO wallet, long loadStartedNanos) {
+        wallets.put(wallet.getId(), wallet, loadStartedNanos);
+    }
+
+    public Optional<List<WalletDTO>> getUserWallets(Long userId) {
+        return userWallets.get(userId);
+    }
+
+    public void putUserWallets(Long userId, List<WalletDTO> wallets, long loadStartedNanos) {
+        userWallets.put(userId, List.copyOf(wallets), loadStartedNanos);
+    }
+
+    /**
+     * Invalidates the wallet everywhere once the current transaction commits, or
+     * immediately outside of a transaction.
+     */
+    public void changed(WalletDTO wallet) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(wallet);
+                }
+            });
+        } else {
+            invalidate(wallet);
+        }
+    }
+
+    @RabbitListener(id = "wallet-cache", queues = "#{walletCacheQueue.name}")
+    public void handleWalletChanged(WalletCacheEvent event) {
+        if (instanceId.equals(event.getOrigin())) {
+            return;
+        }
+        wallets.invalidate(event.getWalletId());
+        if (event.getUserId() != null) {
+            userWallets.invalidate(event.getUserId());
+        }
+        invalidationLag.record(Math.max(System.currentTimeMillis() - event.getChangedAt(), 0),
+                TimeUnit.MILLISECONDS);
+    }
+
+    private void invalidate(WalletDTO wallet) {
+        wallets.invalidate(wallet.getId());
+        userWallets.invalidate(wallet.getUserId());
+
+        try {
+            rabbitTemplate.convertAndSend(WalletCacheConfig.WALLET_CACHE_EXCHANGE, "", WalletCacheEvent.builder()
+                    .walletId(wallet.getId())
+                    .userId(wallet.getUserId())
+                    .origin(instanceId)
+                    .changedAt(System.currentTimeMillis())
+                    .build());
+        } catch (Exception e) {
+            // Other instances serve the old entry until it expires
+            broadcastFailures.increment();
+            log.warn("Could not broadcast invalidation of wallet {}", wallet.getId(), e);
+        }
+    }
+
+    /**
+     * Bounded LRU map with TTL. An invalidated key keeps a tombstone so that a load
+     * started before the invalidation cannot put back a stale copy.
+     */
+    private final class Region<V> {
+
+        private final long ttlNanos;
+        private final Map<Long, Entry<V>> entries;
+        private final Counter hits;
+        private final Counter misses;
+
+        Region(String name, Duration ttl, int maxSize, MeterRegistry meterRegistry) {
+            this.ttlNanos = ttl.toNanos();
+            this.entries = Collections.synchronizedMap(new LinkedHashMap<>(1024, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Entry<V>> eldest) {
+                    return size() > maxSize;
+                }
+            });
+            this.hits = meterRegistry.counter("wallet.cache.requests", "cache", name, "result", "hit");
+            this.misses = meterRegistry.counter("wallet.cache.requests", "cache", name, "result", "miss");
+            meterRegistry.gauge("wallet.cache.hit_ratio", Tags.of("cache", name), this, region -> {
+                double total = region.hits.count() + region.misses.count();
+                return total == 0 ? 0 : region.hits.count() / total;
+            });
+            meterRegistry.gaugeMapSize("wallet.cache.size", Tags.of("cache", name), entries);
+        }
+
+        Optional<V> get(Long key) {
+            Entry<V> entry = entries.get(key);
+            long now = System.nanoTime();
+            if (entry != null && entry.value() != null && entry.expiresAt() - now > 0) {
+                hits.increment();
+                hitAge.record(now - entry.storedAt(), TimeUnit.NANOSECONDS);
+                return Optional.of(entry.value());
+            }
+            misses.increment();
+            return Optional.empty();
+        }
+
+        void put(Long key, V value, long loadStartedNanos) {
+            synchronized (entries) {
+                Entry<V> current = entries.get(key);
+                if (current != null && current.value() == null && current.storedAt() - loadStartedNanos > 0) {
+                    return;
+                }
+                long now = System.nanoTime();
+                entries.put(key, new Entry<>(value, now, now + ttlNanos));
+            }
+        }
+
+        void invalidate(Long key) {
+            long now = System.nanoTime();
+            entries.put(key, new Entry<>(null, now, now + ttlNanos));
+        }
+    }
+
+    private record Entry<V>(V value, long storedAt, long expiresAt) {
+    }
+}
@@ -1,27 +1,59 @@
 package com.fintech.wallet.service;
 
+import com.fintech.shared.dto.WalletBalanceDTO;
 import com.fintech.shared.dto.WalletDTO;
+import com.fintech.shared.config.RabbitMQConfig;
 import com.fintech.shared.events.TransactionCompletedEvent;
+import com.fintech.shared.money.Money;
+import com.fintech.wallet.config.WalletLockingProperties;
+import com.fintech.wallet.config.WalletLockingProperties.LockStrategy;
+import com.fintech.wallet.dto.WalletOperationRequest;
+import com.fintech.wallet.engine.BalanceEngine;
 import com.fintech.wallet.entity.Wallet;
+import com.fintech.wallet.entity.WalletOperation;
 import com.fintech.wallet.entity.WalletType;
 import com.fintech.wallet.dto.CreateWalletRequest;
+import com.fintech.wallet.repository.WalletOperationRepository;
 import com.fintech.wallet.repository.WalletRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class WalletService {
 
+    static final String OPERATION_DEBIT = "debit";
+    static final String OPERATION_DEBIT_BATCH = "debit-batch";
+    static final String OPERATION_CREDIT = "credit";
+    static final String OPERATION_TRANSFER = "transfer";
+
     private final WalletRepository walletRepository;
+    private final WalletOperationRepository walletOperationRepository;
+    private final BalanceEngine balanceEngine;
+    private final StripedBalanceService stripedBalanceService;
+    private final ConflictRetryExecutor conflictRetryExecutor;
+    private final WalletLockingProperties lockingProperties;
+    private final WalletReadCache walletReadCache;
+    private final WalletLedgerService walletLedgerService;
 
     @Transactional
     public WalletDTO createWallet(CreateWalletRequest request) {
@@ -32,85 +64,568 @@ public class WalletService {
                 .name(request.getName())
                 .currency(request.getCurrency())
                 .balance(request.getInitialBalance())
+                .openingBalance(request.getInitialBalance())
                 .walletType(WalletType.valueOf(request.getWalletType()))
                 .active(true)
                 .build();
 
         wallet = walletRepository.save(wallet);
+        walletLedgerService.recordOpeningBalance(wallet.getId(), wallet.getBalance(), LocalDateTime.now());
         log.info("Wallet created successfully: {}", wallet.getId());
 
-        return convertToDTO(wallet);
+        WalletDTO created = convertToDTO(wallet);
+        walletReadCache.changed(created);
+        return created;
     }
 
     public List<WalletDTO> getWalletsByUserId(Long userId) {
+        return getWalletsByUserId(userId, false);
+    }
+
+    /**
+     * @param strict bypass the read cache and return the committed state
+     */
+    public List<WalletDTO> getWalletsByUserId(Long userId, boolean strict) {
+        if (!strict) {
+            Optional<List<WalletDTO>> cached = walletReadCache.getUserWallets(userId);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+        }
+
         log.info("Fetching wallets for user: {}", userId);
-        return walletRepository.findByUserIdAndActiveTrue(userId)
+        long loadStarted = System.nanoTime();
+        List<WalletDTO> wallets = walletRepository.findByUserIdAndActiveTrue(userId)
                 .stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
+        walletReadCache.putUserWallets(userId, wallets, loadStarted);
+        return wallets;
     }
 
     public WalletDTO getWalletById(Long id) {
+        return getWalletById(id, false);
+    }
+
+    /**
+     * @param strict bypass the read cache and return the committed state
+     */
+    public WalletDTO getWalletById(Long id, boolean strict) {
+        if (!strict) {
+            Optional<WalletDTO> cached = walletReadCache.getWallet(id);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+        }
+
+        long loadStarted = System.nanoTime();
         Wallet wallet = walletRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Wallet not found"));
-        return convertToDTO(wallet);
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Wallet not found"));
+        WalletDTO dto = convertToDTO(wallet);
+        walletReadCache.putWallet(dto, loadStarted);
+        return dto;
+    }
+
+    /**
+     * Balances of wallets with {@code fromId <= id < toId}, ordered by ID, for reconciliation.
+     */
+    public List<WalletBalanceDTO> getBalancesInRange(Long fromId, Long toId) {
+        return walletRepository.findBalancesInRange(fromId, toId)
+                .stream()
+                .map(view -> WalletBalanceDTO.builder()
+                        .id(view.getId())
+                        .balance(balanceEngine.balanceOf(view.getId()).orElse(view.getBalance()))
+                        .openingBalance(view.getOpeningBalance())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Wallets among {@code ids}, ordered by ID, read with one IN query and passed to
+     * {@code sink} row by row. Unknown IDs are skipped. Bypasses the read cache.
+     */
+    @Transactional(readOnly = true)
+    public void lookupWallets(Collection<Long> ids, Consumer<WalletDTO> sink) {
+        try (Stream<WalletRepository.WalletView> views = walletRepository.streamByIdIn(ids)) {
+            views.forEach(view -> sink.accept(WalletDTO.builder()
+                    .id(view.getId())
+                    .userId(view.getUserId())
+                    .name(view.getName())
+                    .currency(view.getCurrency())
+                    .balance(balanceEngine.balanceOf(view.getId()).orElse(view.getBalance()))
+                    .walletType(view.getWalletType().name())
+                    .createdAt(view.getCreatedAt())
+                    .updatedAt(view.getUpdatedAt())
+                    .active(view.getActive())
+                    .build()));
+        }
+    }
+
+    /**
+     * Balances of the wallets among {@code ids}, like {@link #lookupWallets}.
+     */
+    @Transactional(readOnly = true)
+    public void lookupBalances(Collection<Long> ids, Consumer<WalletBalanceDTO> sink) {
+        try (Stream<WalletRepository.BalanceView> views = walletRepository.streamBalancesByIdIn(ids)) {
+            views.forEach(view -> sink.accept(WalletBalanceDTO.builder()
+                    .id(view.getId())
+                    .balance(balanceEngine.balanceOf(view.getId()).orElse(view.getBalance()))
+                    .openingBalance(view.getOpeningBalance())
+                    .build()));
+        }
+    }
+
+    /**
+     * Whether a debit with {@code reference} was applied to the wallet and still stands.
+     * A credit on the same wallet under the same reference is the reversal of a refused
+     * engine transfer, so that debit no longer counts. Operations made by the balance
+     * engine are visible once group-committed, within its commit interval.
+     */
+    public boolean isDebitApplied(Long walletId, String reference) {
+        return walletOperationRepository.existsByWalletIdAndReferenceAndOperationType(walletId, reference,
+                WalletOperation.OperationType.DEBIT)
+                && !walletOperationRepository.existsByWalletIdAndReferenceAndOperationType(walletId, reference,
+                        WalletOperation.OperationType.CREDIT);
+    }
+
+    public long getMaxWalletId() {
+        return walletRepository.findMaxId().orElse(0L);
     }
 
-    @Transactional
     public WalletDTO debitWallet(Long walletId, BigDecimal amount) {
+        return debitWallet(walletId, amount, null);
+    }
+
+    /**
+     * Debits the wallet once per {@code reference}: a repeated reference returns the
+     * wallet unchanged. A null reference is not deduplicated. Lock conflicts are
+     * retried per {@code wallet.locking}.
+     */
+    public WalletDTO debitWallet(Long walletId, BigDecimal amount, String reference) {
         log.info("Debiting wallet {} with amount: {}", walletId, amount);
 
-        Wallet wallet = walletRepository.findByIdWithLock(walletId)
-                .orElseThrow(() -> new RuntimeException("Wallet not found"));
+        WalletDTO wallet;
+        if (balanceEngine.owns(walletId)) {
+            wallet = balanceEngine.debit(walletId, amount, reference);
+        } else {
+            LockStrategy strategy = lockingProperties.strategyFor(OPERATION_DEBIT);
+            wallet = executeIdempotent(OPERATION_DEBIT, strategy, walletId, reference != null,
+                    () -> doDebit(walletId, amount, reference, strategy));
+        }
+        walletReadCache.changed(wallet);
+        return wallet;
+    }
+
+    private WalletDTO doDebit(Long walletId, BigDecimal amount, String reference, LockStrategy strategy) {
+        Wallet wallet = loadWallet(walletId, strategy);
 
-        if (wallet.getBalance().compareTo(amount) < 0) {
-            throw new RuntimeException("Insufficient balance");
+        if (reference != null) {
+            if (walletOperationRepository.existsByReferenceAndOperationType(reference,
+                    WalletOperation.OperationType.DEBIT)) {
+                log.info("Debit {} already applied to wallet {}", reference, walletId);
+                return convertToDTO(wallet);
+            }
+            walletOperationRepository.save(WalletOperation.builder()
+                    .walletId(walletId)
+                    .reference(reference)
+                    .operationType(WalletOperation.OperationType.DEBIT)
+                    .amount(amount)
+                    .build());
         }
+        walletLedgerService.append(walletId, WalletOperation.OperationType.DEBIT, amount, reference);
 
-        wallet.setBalance(wallet.getBalance().subtract(amount));
-        wallet = walletRepository.save(wallet);
+        if (wallet.isStriped()) {
+            stripedBalanceService.debit(walletId, amount);
+            return convertToDTO(wallet);
+        }
+
+        wallet = subtract(wallet, amount, strategy);
+
+        log.info("Wallet debited successfully. New balance: {}", wallet.getBalance());
+        return convertToDTO(wallet);
+    }
+
+    /**
+     * Applies several referenced debits to one wallet in a single transaction.
+     * References already applied are skipped; the remaining total must be covered by
+     * the balance, otherwise nothing is debited.
+     */
+    public WalletDTO debitWalletBatch(Long walletId, List<WalletOperationRequest> operations) {
+        log.info("Debiting wallet {} with {} operations", walletId, operations.size());
+
+        WalletDTO wallet;
+        if (balanceEngine.owns(walletId)) {
+            wallet = balanceEngine.debitAll(walletId, operations);
+        } else {
+            LockStrategy strategy = lockingProperties.strategyFor(OPERATION_DEBIT_BATCH);
+            wallet = executeIdempotent(OPERATION_DEBIT_BATCH, strategy, walletId, true,
+                    () -> doDebitBatch(walletId, operations, strategy));
+        }
+        walletReadCache.changed(wallet);
+        return wallet;
+    }
+
+    private WalletDTO doDebitBatch(Long walletId, List<WalletOperationRequest> operations, LockStrategy strategy) {
+        Wallet wallet = loadWallet(walletId, strategy);
+
+        Set<String> applied = walletOperationRepository
+                .findByReferenceInAndOperationType(
+                        operations.stream().map(WalletOperationRequest::getReference).toList(),
+                        WalletOperation.OperationType.DEBIT)
+                .stream()
+                .map(WalletOperation::getReference)
+                .collect(Collectors.toSet());
+
+        List<WalletOperation> pending = operations.stream()
+                .filter(operation -> !applied.contains(operation.getReference()))
+                .map(operation -> WalletOperation.builder()
+                        .walletId(walletId)
+                        .reference(operation.getReference())
+                        .operationType(WalletOperation.OperationType.DEBIT)
+                        .amount(operation.getAmount())
+                        .build())
+                .toList();
+
+        Money total = Money.zero(wallet.getCurrency());
+        for (WalletOperation operation : pending) {
+            total = total.plus(money(operation.getAmount(), wallet.getCurrency()));
+        }
+        walletLedgerService.appendAll(pending);
+
+        if (wallet.isStriped()) {
+            if (total.signum() > 0) {
+                stripedBalanceService.debit(walletId, total.toBigDecimal());
+            }
+            walletOperationRepository.saveAll(pending);
+            return convertToDTO(wallet);
+        }
+
+        wallet = subtract(wallet, total.toBigDecimal(), strategy);
+        walletOperationRepository.saveAll(pending);
 
         log.info("Wallet debited successfully. New balance: {}", wallet.getBalance());
         return convertToDTO(wallet);
     }
 
-    @Transactional
     public WalletDTO creditWallet(Long walletId, BigDecimal amount) {
+        return creditWallet(walletId, amount, null);
+    }
+
+    /**
+     * Credits the wallet once per {@code reference}; see {@link #debitWallet(Long, BigDecimal, String)}.
+     */
+    public WalletDTO creditWallet(Long walletId, BigDecimal amount, String reference) {
         log.info("Crediting wallet {} with amount: {}", walletId, amount);
 
-        Wallet wallet = walletRepository.findByIdWithLock(walletId)
-                .orElseThrow(() -> new RuntimeException("Wallet not found"));
+        WalletDTO wallet;
+        if (balanceEngine.owns(walletId)) {
+            wallet = balanceEngine.credit(walletId, amount, reference);
+        } else {
+            LockStrategy strategy = lockingProperties.strategyFor(OPERATION_CREDIT);
+            wallet = executeIdempotent(OPERATION_CREDIT, strategy, walletId, reference != null,
+                    () -> doCredit(walletId, amount, reference, strategy));
+        }
+        walletReadCache.changed(wallet);
+        return wallet;
+    }
 
-        wallet.setBalance(wallet.getBalance().add(amount));
-        wallet = walletRepository.save(wallet);
+    private WalletDTO doCredit(Long walletId, BigDecimal amount, String reference, LockStrategy strategy) {
+        Wallet wallet = loadWallet(walletId, strategy);
+
+        if (reference != null) {
+            if (walletOperationRepository.existsByReferenceAndOperationType(reference,
+                    WalletOperation.OperationType.CREDIT)) {
+                log.info("Credit {} already applied to wallet {}", reference, walletId);
+                return convertToDTO(wallet);
+            }
+            walletOperationRepository.save(WalletOperation.builder()
+                    .walletId(walletId)
+                    .reference(reference)
+                    .operationType(WalletOperation.OperationType.CREDIT)
+                    .amount(amount)
+                    .build());
+        }
+        walletLedgerService.append(walletId, WalletOperation.OperationType.CREDIT, amount, reference);
+
+        if (wallet.isStriped()) {
+            stripedBalanceService.credit(walletId, wallet.getStripeCount(), amount);
+            return convertToDTO(wallet);
+        }
+
+        wallet = add(wallet, amount, strategy);
 
         log.info("Wallet credited successfully. New balance: {}", wallet.getBalance());
         return convertToDTO(wallet);
     }
 
-    @RabbitListener(queues = "transaction.completed.queue")
+    public WalletDTO transfer(Long sourceWalletId, Long destinationWalletId, BigDecimal amount, String reference) {
+        return transfer(sourceWalletId, destinationWalletId, amount, null, reference);
+    }
+
+    /**
+     * Moves {@code amount} from source to destination in one database transaction.
+     * Both rows are read with the {@code transfer} lock strategy and written in
+     * ascending ID order so that concurrent transfers in opposite directions cannot
+     * deadlock. Idempotent per {@code reference}.
+     * Transfers involving a striped wallet are applied as an idempotent debit followed
+     * by an idempotent credit inside this transaction, so they lock stripes rather than
+     * the wallet rows. When either wallet is owned by the balance engine, see
+     * {@link #transferThroughEngine}.
+     *
+     * @param destinationAmount amount credited to the destination, already converted
+     *                          by the caller when the currencies differ; null to credit {@code amount}
+     * @return the source wallet after the transfer
+     */
+    public WalletDTO transfer(Long sourceWalletId, Long destinationWalletId, BigDecimal amount,
+            BigDecimal destinationAmount, String reference) {
+        log.info("Transferring {} from wallet {} to wallet {}", amount, sourceWalletId, destinationWalletId);
+
+        if (sourceWalletId.equals(destinationWalletId)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Source and destination wallets must differ");
+        }
+        BigDecimal credited = destinationAmount != null ? destinationAmount : amount;
+
+        if (balanceEngine.owns(sourceWalletId) || balanceEngine.owns(destinationWalletId)) {
+            return transferThroughEngine(sourceWalletId, destinationWalletId, amount, credited, reference);
+        }
+        LockStrategy strategy = lockingProperties.strategyFor(OPERATION_TRANSFER);
+        return executeIdempotent(OPERATION_TRANSFER, strategy, sourceWalletId, reference != null,
+                () -> doTransfer(sourceWalletId, destinationWalletId, amount, credited, reference, strategy));
+    }
+
+    private WalletDTO doTransfer(Long sourceWalletId, Long destinationWalletId, BigDecimal amount,
+            BigDecimal credited, String reference, LockStrategy strategy) {
+
+        if (walletRepository.anyStriped(List.of(sourceWalletId, destinationWalletId))) {
+            WalletDTO source = debitWallet(sourceWalletId, amount, reference);
+            creditWallet(destinationWalletId, credited, reference);
+            return source;
+        }
+
+        Wallet first = loadWallet(Math.min(sourceWalletId, destinationWalletId), strategy);
+        Wallet second = loadWallet(Math.max(sourceWalletId, destinationWalletId), strategy);
+        Wallet source = first.getId().equals(sourceWalletId) ? first : second;
+        Wallet destination = source == first ? second : first;
+
+        if (walletOperationRepository.existsByReferenceAndOperationType(reference,
+                WalletOperation.OperationType.DEBIT)) {
+            log.info("Transfer {} already applied", reference);
+            return convertToDTO(source);
+        }
+
+        List<WalletOperation> operations = List.of(
+                WalletOperation.builder()
+                        .walletId(sourceWalletId)
+                        .reference(reference)
+                        .operationType(WalletOperation.OperationType.DEBIT)
+                        .amount(amount)
+                        .build(),
+                WalletOperation.builder()
+                        .walletId(destinationWalletId)
+                        .reference(reference)
+                        .operationType(WalletOperation.OperationType.CREDIT)
+                        .amount(credited)
+                        .build());
+        walletOperationRepository.saveAll(operations);
+        walletLedgerService.appendAll(operations);
+
+        if (strategy == LockStrategy.ATOMIC) {
+            // The conditional updates lock the rows, so they run in ID order too
+            if (source == first) {
+                source = subtract(source, amount, strategy);
+                destination = add(destination, credited, strategy);
+            } else {
+                destination = add(destination, credited, strategy);
+                source = subtract(source, amount, strategy);
+            }
+        } else {
+            Money sourceBalance = money(source.getBalance(), source.getCurrency());
+            Money debited = money(amount, source.getCurrency());
+            if (sourceBalance.isLessThan(debited)) {
+                throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "Insufficient balance");
+            }
+            source.setBalance(toAmount(sourceBalance.minus(debited), source.getBalance(), amount));
+            destination.setBalance(toAmount(money(destination.getBalance(), destination.getCurrency())
+                    .plus(money(credited, destination.getCurrency())), destination.getBalance(), credited));
+            walletRepository.saveAll(List.of(source, destination));
+        }
+        walletReadCache.changed(convertToDTO(source));
+        walletReadCache.changed(convertToDTO(destination));
+
+        log.info("Transfer {} completed. New source balance: {}", reference, source.getBalance());
+        return convertToDTO(source);
+    }
+
+    /**
+     * The engine commits each leg on its own, so both legs run outside any database
+     * transaction. When the destination refuses the credit (4xx), the source is credited
+     * back under the same reference and the transfer fails for good; any other failure
+     * leaves the debit in place, and a retry with the same reference finishes the transfer.
+     */
+    private WalletDTO transferThroughEngine(Long sourceWalletId, Long destinationWalletId, BigDecimal amount,
+            BigDecimal credited, String reference) {
+        if (reference != null && walletOperationRepository.existsByWalletIdAndReferenceAndOperationType(
+                sourceWalletId, reference, WalletOperation.OperationType.CREDIT)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Transfer was reversed");
+        }
+
+        WalletDTO source = debitWallet(sourceWalletId, amount, reference);
+        try {
+            creditWallet(destinationWalletId, credited, reference);
+        } catch (ResponseStatusException e) {
+            if (!e.getStatusCode().is4xxClientError()) {
+                throw e;
+            }
+            log.warn("Transfer {} refused by wallet {}, crediting wallet {} back", reference, destinationWalletId,
+                    sourceWalletId);
+            try {
+                creditWallet(sourceWalletId, amount, reference);
+            } catch (RuntimeException reversal) {
+                log.error("Could not reverse the debit of transfer {} on wallet {}", reference, sourceWalletId,
+                        reversal);
+                e.addSuppressed(reversal);
+            }
+            throw e;
+        }
+        return source;
+    }
+
+    /**
+     * Splits the wallet balance across {@code stripes} rows, or merges it back into the
+     * wallet row when {@code stripes} is 0. Meant for wallets receiving many concurrent
+     * operations; not available for wallets owned by the balance engine.
+     */
+    @Transactional
+    public WalletDTO setStripeCount(Long walletId, int stripes) {
+        if (stripes < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Stripe count must not be negative");
+        }
+        if (balanceEngine.owns(walletId)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Wallet is owned by the balance engine");
+        }
+        log.info("Setting {} stripes on wallet {}", stripes, walletId);
+
+        Wallet wallet = walletRepository.findByIdForUpdate(walletId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Wallet not found"));
+
+        BigDecimal balance = wallet.getBalance();
+        if (wallet.isStriped()) {
+            balance = balance.add(stripedBalanceService.collapse(walletId));
+        }
+        if (stripes > 0) {
+            stripedBalanceService.split(walletId, stripes, balance);
+            balance = BigDecimal.ZERO;
+        }
+
+        wallet.setBalance(balance);
+        wallet.setStripeCount(stripes > 0 ? stripes : null);
+        wallet = walletRepository.save(wallet);
+        return convertToDTO(wallet);
+    }
+
+    @RabbitListener(id = "transaction-completed",
+            queues = RabbitMQConfig.WALLET_TRANSACTION_COMPLETED_QUEUE)
     public void handleTransactionCompleted(TransactionCompletedEvent event) {
         log.info("Received transaction completed event: {}", event.getTransactionId());
 
         try {
-            // Credit destination wallet if exists
+            // Credit destination wallet if exists. Skipped when the credit was already
+            // applied for this reference, e.g. by an atomic transfer.
             if (event.getDestinationWalletId() != null) {
-                creditWallet(event.getDestinationWalletId(), event.getAmount());
+                BigDecimal amount = event.getDestinationAmount() != null
+                        ? event.getDestinationAmount()
+                        : event.getAmount();
+                creditWallet(event.getDestinationWalletId(), amount, event.getReference());
                 log.info("Credited destination wallet: {}", event.getDestinationWalletId());
             }
         } catch (Exception e) {
             log.error("Error processing transaction completed event", e);
-            // In production, send to DLQ or retry
+            // Retried through the retry tiers, then dead-lettered to wallet.dlq
+            throw e;
+        }
+    }
+
+    /**
+     * Runs a referenced operation through the conflict retries. Two requests with the
+     * same reference can both pass the "already applied" check; the loser then hits the
+     * unique key on wallet_operations, which is answered as a replay with the current
+     * wallet. Inside a caller's transaction the violation is left to that caller.
+     */
+    private WalletDTO executeIdempotent(String operation, LockStrategy strategy, Long walletId, boolean referenced,
+            Supplier<WalletDTO> work) {
+        try {
+            return conflictRetryExecutor.execute(operation, strategy, walletId, work);
+        } catch (DataIntegrityViolationException e) {
+            if (!referenced || TransactionSynchronizationManager.isActualTransactionActive()) {
+                throw e;
+            }
+            log.info("{} on wallet {} was applied concurrently with the same reference", operation, walletId);
+            return getWalletById(walletId, true);
+        }
+    }
+
+    private Wallet loadWallet(Long walletId, LockStrategy strategy) {
+        Optional<Wallet> wallet = switch (strategy) {
+            case OPTIMISTIC -> walletRepository.findByIdWithLock(walletId);
+            case PESSIMISTIC -> walletRepository.findByIdForUpdate(walletId);
+            case ATOMIC -> walletRepository.findById(walletId);
+        };
+        return wallet.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Wallet not found"));
+    }
+
+    private Wallet subtract(Wallet wallet, BigDecimal amount, LockStrategy strategy) {
+        if (strategy == LockStrategy.ATOMIC) {
+            if (walletRepository.debitIfCovered(wallet.getId(), amount, LocalDateTime.now()) == 0) {
+                throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "Insufficient balance");
+            }
+            return walletRepository.findById(wallet.getId())
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Wallet not found"));
+        }
+
+        Money balance = money(wallet.getBalance(), wallet.getCurrency());
+        Money debited = money(amount, wallet.getCurrency());
+        if (balance.isLessThan(debited)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "Insufficient balance");
+        }
+        wallet.setBalance(toAmount(balance.minus(debited), wallet.getBalance(), amount));
+        return walletRepository.save(wallet);
+    }
+
+    private Wallet add(Wallet wallet, BigDecimal amount, LockStrategy strategy) {
+        if (strategy == LockStrategy.ATOMIC) {
+            walletRepository.credit(wallet.getId(), amount, LocalDateTime.now());
+            return walletRepository.findById(wallet.getId())
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Wallet not found"));
+        }
+
+        Money balance = money(wallet.getBalance(), wallet.getCurrency());
+        wallet.setBalance(toAmount(balance.plus(money(amount, wallet.getCurrency())), wallet.getBalance(), amount));
+        return walletRepository.save(wallet);
+    }
+
+    private static Money money(BigDecimal amount, String currency) {
+        try {
+            return Money.of(amount, currency);
+        } catch (ArithmeticException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
     }
 
+    // Same scale BigDecimal.add/subtract would give; exact, since Money rejected finer amounts
+    private static BigDecimal toAmount(Money result, BigDecimal balance, BigDecimal amount) {
+        return result.toBigDecimal().setScale(Math.max(balance.scale(), amount.scale()));
+    }
+
     private WalletDTO convertToDTO(Wallet wallet) {
         return WalletDTO.builder()
                 .id(wallet.getId())
                 .userId(wallet.getUserId())
                 .name(wallet.getName())
                 .currency(wallet.getCurrency())
-                .balance(wallet.getBalance())
+                .balance(balanceEngine.balanceOf(wallet.getId())
+                        .orElseGet(() -> wallet.isStriped()
+                                ? stripedBalanceService.getBalance(wallet.getId())
+                                : wallet.getBalance()))
                 .walletType(wallet.getWalletType().name())
                 .createdAt(wallet.getCreatedAt())
                 .updatedAt(wallet.getUpdatedAt())
@@ -0,0 +1,128 @@
+package com.fintech.wallet.engine;
+
+import com.fintech.wallet.entity.WalletOperation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BalanceJournalTest {
+
+    private static final JournalEntry DEBIT = new JournalEntry(1L, WalletOperation.OperationType.DEBIT, 125_000,
+            "ref-1");
+    private static final JournalEntry CREDIT = new JournalEntry(2L, WalletOperation.OperationType.CREDIT, 9_900,
+            "ref-2");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readAll_ShouldReturnSyncedEntries_AfterReopening() throws Exception {
+        // Arrange
+        Path file = directory.resolve("shard-0.journal");
+        try (BalanceJournal journal = new BalanceJournal(file)) {
+            journal.append(DEBIT);
+            journal.append(CREDIT);
+            journal.sync();
+        }
+
+        // Act
+        List<JournalEntry> entries;
+        try (BalanceJournal journal = new BalanceJournal(file)) {
+            entries = journal.readAll();
+        }
+
+        // Assert
+        assertEquals(List.of(DEBIT, CREDIT), entries);
+    }
+
+    @Test
+    void sync_ShouldMakeAppendedEntriesVisibleOnDisk() throws Exception {
+        // Arrange
+        Path file = directory.resolve("shard-0.journal");
+        try (BalanceJournal journal = new BalanceJournal(file)) {
+            journal.append(DEBIT);
+            long beforeSync = Files.size(file);
+
+            // Act
+            journal.sync();
+
+            // Assert
+            assertEquals(0, beforeSync);
+            assertTrue(Files.size(file) > 0);
+        }
+    }
+
+    @Test
+    void readAll_ShouldIgnoreTornLastRecord() throws Exception {
+        // Arrange: the second record was cut short by a crash during append
+        Path file = directory.resolve("shard-0.journal");
+        try (BalanceJournal journal = new BalanceJournal(file)) {
+            journal.append(DEBIT);
+            journal.append(CREDIT);
+            journal.sync();
+        }
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.setLength(raw.length() - 3);
+        }
+
+        // Act
+        List<JournalEntry> entries;
+        try (BalanceJournal journal = new BalanceJournal(file)) {
+            entries = journal.readAll();
+        }
+
+        // Assert
+        assertEquals(List.of(DEBIT), entries);
+    }
+
+    @Test
+    void reset_ShouldTruncateTheJournal_AndKeepItWritable() throws Exception {
+        // Arrange
+        Path file = directory.resolve("shard-0.journal");
+        try (BalanceJournal journal = new BalanceJournal(file)) {
+            journal.append(DEBIT);
+            journal.sync();
+
+            // Act
+            journal.reset();
+            journal.append(CREDIT);
+            journal.sync();
+
+            // Assert
+            assertEquals(List.of(CREDIT), journal.readAll());
+        }
+    }
+
+    @Test
+    void readAll_ShouldBeEmpty_AfterTornTailIsReplayedAndReset() throws Exception {
+        // Arrange: recovery reads the torn journal, commits its entries and truncates it
+        Path file = directory.resolve("shard-0.journal");
+        try (BalanceJournal journal = new BalanceJournal(file)) {
+            journal.append(DEBIT);
+            journal.append(CREDIT);
+            journal.sync();
+        }
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.setLength(raw.length() - 3);
+        }
+
+        // Act
+        try (BalanceJournal journal = new BalanceJournal(file)) {
+            journal.readAll();
+            journal.reset();
+            journal.append(CREDIT);
+            journal.sync();
+        }
+
+        // Assert: new records are not appended after the torn bytes
+        try (BalanceJournal journal = new BalanceJournal(file)) {
+            assertEquals(List.of(CREDIT), journal.readAll());
+        }
+    }
+}
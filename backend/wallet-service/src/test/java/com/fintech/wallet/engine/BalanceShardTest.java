@@ -0,0 +1,230 @@
+package com.fintech.wallet.engine;
+
+import com.fintech.shared.dto.WalletDTO;
+import com.fintech.wallet.config.BalanceEngineProperties;
+import com.fintech.wallet.entity.WalletOperation;
+import com.fintech.wallet.entity.WalletType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceShardTest {
+
+    private static final long WALLET_ID = 1L;
+
+    @Mock
+    private BalanceStore store;
+
+    @TempDir
+    Path directory;
+
+    private final BalanceEngineProperties properties = new BalanceEngineProperties();
+    private final ConcurrentHashMap<Long, BigDecimal> publishedBalances = new ConcurrentHashMap<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<List<JournalEntry>> commits = new ArrayList<>();
+    private Path journalFile;
+    private BalanceShard shard;
+
+    @BeforeEach
+    void setUp() {
+        properties.setRingSize(64);
+        properties.setCommitInterval(Duration.ofHours(1)); // Commit only when the shard stops
+        properties.setDedupWindow(Duration.ofHours(1));
+        journalFile = directory.resolve("shard-0.journal");
+        lenient().when(store.load(eq(WALLET_ID), any())).thenAnswer(invocation -> new WalletState(WALLET_ID, 5L,
+                "Hot wallet", "EUR", WalletType.CHECKING, true, LocalDateTime.now(), new BigDecimal("100.00"),
+                invocation.getArgument(1)));
+        lenient().when(store.commit(any(), any())).thenAnswer(invocation -> {
+            commits.add(List.copyOf(invocation.<List<JournalEntry>>getArgument(0)));
+            return List.of();
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (shard != null) {
+            shard.stop();
+        }
+    }
+
+    @Test
+    void submit_ShouldApplyAndJournalChanges_BeforeAnsweringTheCaller() throws Exception {
+        // Arrange
+        shard = startedShard();
+
+        // Act
+        WalletDTO result = await(submit(WalletOperation.OperationType.DEBIT, "ref-1", "30.00"));
+
+        // Assert
+        assertEquals(0, new BigDecimal("70.00").compareTo(result.getBalance()));
+        assertEquals(0, new BigDecimal("70.00").compareTo(publishedBalances.get(WALLET_ID)));
+        assertTrue(Files.size(journalFile) > 0);
+    }
+
+    @Test
+    void submit_ShouldApplyReferenceOnce_WithinTheDedupWindow() throws Exception {
+        // Arrange
+        shard = startedShard();
+        await(submit(WalletOperation.OperationType.CREDIT, "ref-1", "10.00"));
+
+        // Act
+        WalletDTO replay = await(submit(WalletOperation.OperationType.CREDIT, "ref-1", "10.00"));
+        shard.stop();
+
+        // Assert
+        assertEquals(0, new BigDecimal("110.00").compareTo(replay.getBalance()));
+        assertEquals(1, commits.size());
+        assertEquals(1, commits.get(0).size());
+    }
+
+    @Test
+    void submit_ShouldRejectDebit_WhenBalanceIsInsufficient() throws Exception {
+        // Arrange
+        shard = startedShard();
+
+        // Act
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> await(submit(WalletOperation.OperationType.DEBIT, "ref-1", "150.00")));
+        shard.stop();
+
+        // Assert
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY,
+                assertInstanceOf(ResponseStatusException.class, error.getCause()).getStatusCode());
+        assertEquals(1.0, meterRegistry.counter("rejected").count());
+        verify(store, never()).commit(any(), any());
+    }
+
+    @Test
+    void stop_ShouldCommitJournaledChanges_AndTruncateTheJournal() throws Exception {
+        // Arrange
+        shard = startedShard();
+        await(submit(WalletOperation.OperationType.DEBIT, "ref-1", "30.00"));
+
+        // Act
+        shard.stop();
+
+        // Assert
+        assertEquals(List.of(new JournalEntry(WALLET_ID, WalletOperation.OperationType.DEBIT, 300_000, "ref-1")),
+                commits.get(0));
+        assertEquals(0, Files.size(journalFile));
+    }
+
+    @Test
+    void commit_ShouldUndoReplays_TheStoreLeftOutOfPostgres() throws Exception {
+        // Arrange: the reference was applied before the dedup window, so its operation row conflicts
+        doAnswer(invocation -> List.copyOf(invocation.<List<JournalEntry>>getArgument(0)))
+                .when(store).commit(any(), any());
+        shard = startedShard();
+        await(submit(WalletOperation.OperationType.CREDIT, "ref-old", "10.00"));
+        assertEquals(0, new BigDecimal("110.00").compareTo(publishedBalances.get(WALLET_ID)));
+
+        // Act
+        shard.stop();
+
+        // Assert
+        assertEquals(0, new BigDecimal("100.00").compareTo(publishedBalances.get(WALLET_ID)));
+        assertEquals(1.0, meterRegistry.counter("replayed").count());
+        assertEquals(0, Files.size(journalFile));
+    }
+
+    @Test
+    void recover_ShouldReplayChangesAJournalKeptAfterAFailedCommit() throws Exception {
+        // Arrange: Postgres is down, so the acknowledged debit stays journaled when the shard stops
+        doThrow(new IllegalStateException("Connection refused")).when(store).commit(any(), any());
+        shard = startedShard();
+        await(submit(WalletOperation.OperationType.DEBIT, "ref-1", "30.00"));
+        shard.stop();
+        shard = null;
+        assertTrue(Files.size(journalFile) > 0);
+        when(store.recover(any())).thenReturn(1);
+
+        // Act
+        BalanceShard restarted = newShard();
+        restarted.recover();
+
+        // Assert
+        verify(store).recover(List.of(new JournalEntry(WALLET_ID, WalletOperation.OperationType.DEBIT, 300_000,
+                "ref-1")));
+        assertEquals(0, Files.size(journalFile));
+        restarted.stop();
+    }
+
+    @Test
+    void recover_ShouldKeepTheJournal_WhenReplayFails() throws Exception {
+        // Arrange
+        try (BalanceJournal journal = new BalanceJournal(journalFile)) {
+            journal.append(new JournalEntry(WALLET_ID, WalletOperation.OperationType.CREDIT, 100_000, "ref-1"));
+            journal.sync();
+        }
+        long journaled = Files.size(journalFile);
+        when(store.recover(any())).thenThrow(new IllegalStateException("Connection refused"));
+        BalanceShard restarted = newShard();
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, restarted::recover);
+        assertEquals(journaled, Files.size(journalFile));
+        restarted.stop();
+    }
+
+    @Test
+    void recover_ShouldNotCallTheStore_WhenTheJournalIsEmpty() throws Exception {
+        // Arrange
+        BalanceShard restarted = newShard();
+
+        // Act
+        restarted.recover();
+
+        // Assert
+        verify(store, never()).recover(any());
+        restarted.stop();
+    }
+
+    private BalanceShard startedShard() {
+        BalanceShard started = newShard();
+        started.recover();
+        started.start();
+        return started;
+    }
+
+    private BalanceShard newShard() {
+        return new BalanceShard(0, properties, store, journalFile, publishedBalances,
+                meterRegistry.counter("applied"), meterRegistry.counter("rejected"),
+                meterRegistry.counter("replayed"), meterRegistry.timer("commit"));
+    }
+
+    private CompletableFuture<WalletDTO> submit(WalletOperation.OperationType type, String reference,
+            String amount) {
+        CompletableFuture<WalletDTO> result = new CompletableFuture<>();
+        assertTrue(shard.submit(new BalanceCommand(WALLET_ID, type,
+                List.of(new BalanceCommand.Operation(reference, new BigDecimal(amount))), result)));
+        return result;
+    }
+
+    private static WalletDTO await(CompletableFuture<WalletDTO> result) throws Exception {
+        return result.get(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,124 @@
+package com.fintech.wallet.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MpscRingBufferTest {
+
+    @Test
+    void offer_ShouldReject_WhenBufferIsFull() {
+        // Arrange
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(5); // Rounded up to 8
+
+        // Act
+        for (int i = 0; i < 8; i++) {
+            assertTrue(buffer.offer(i));
+        }
+
+        // Assert
+        assertFalse(buffer.offer(8));
+        assertEquals(8, buffer.size());
+    }
+
+    @Test
+    void offer_ShouldAcceptAgain_OnceConsumerFreesASlot() {
+        // Arrange
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(8);
+        for (int i = 0; i < 8; i++) {
+            buffer.offer(i);
+        }
+
+        // Act
+        Integer first = buffer.poll();
+
+        // Assert
+        assertEquals(0, first);
+        assertTrue(buffer.offer(8));
+        assertFalse(buffer.offer(9));
+    }
+
+    @Test
+    void poll_ShouldKeepFifoOrder_AcrossWrapAround() {
+        // Arrange
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(8);
+        List<Integer> received = new ArrayList<>();
+
+        // Act: 100 laps of the ring, never more than 5 elements in flight
+        int next = 0;
+        for (int round = 0; round < 160; round++) {
+            for (int i = 0; i < 5; i++) {
+                assertTrue(buffer.offer(next++));
+            }
+            for (int i = 0; i < 5; i++) {
+                received.add(buffer.poll());
+            }
+        }
+
+        // Assert
+        assertNull(buffer.poll());
+        assertEquals(0, buffer.size());
+        for (int i = 0; i < received.size(); i++) {
+            assertEquals(i, received.get(i));
+        }
+    }
+
+    @Test
+    @Timeout(30)
+    void poll_ShouldReceiveEveryElementOnce_InProducerOrder_WithConcurrentProducers() throws Exception {
+        // Arrange: a small ring so producers keep hitting the full buffer and wrapping around
+        int producers = 4;
+        int perProducer = 20_000;
+        MpscRingBuffer<Long> buffer = new MpscRingBuffer<>(64);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (long i = 0; i < perProducer; i++) {
+                    Long element = (producer << 32) | i;
+                    while (!buffer.offer(element)) {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+
+        // Act
+        start.countDown();
+        long[] nextExpected = new long[producers];
+        int received = 0;
+        while (received < producers * perProducer) {
+            Long element = buffer.poll();
+            if (element == null) {
+                Thread.yield();
+                continue;
+            }
+            int producer = (int) (element >>> 32);
+            // Assert: per-producer order is kept and nothing is lost or duplicated
+            assertEquals(nextExpected[producer], element & 0xFFFFFFFFL);
+            nextExpected[producer]++;
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Assert
+        assertNull(buffer.poll());
+        for (long count : nextExpected) {
+            assertEquals(perProducer, count);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.fintech.wallet.engine;
+
+import com.fintech.wallet.entity.WalletOperation;
+import com.fintech.wallet.entity.WalletType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WalletStateTest {
+
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+
+    @Test
+    void markApplied_ShouldEvictReferences_OlderThanTheDedupWindow() {
+        // Arrange
+        WalletState wallet = wallet(Duration.ofHours(1));
+        long now = System.currentTimeMillis();
+        wallet.markApplied(WalletOperation.OperationType.DEBIT, "ref-old", now - 2 * HOUR);
+
+        // Act
+        wallet.markApplied(WalletOperation.OperationType.DEBIT, "ref-new", now);
+
+        // Assert
+        assertFalse(wallet.isApplied(WalletOperation.OperationType.DEBIT, "ref-old"));
+        assertTrue(wallet.isApplied(WalletOperation.OperationType.DEBIT, "ref-new"));
+    }
+
+    @Test
+    void markApplied_ShouldKeepReferences_InsideTheDedupWindow() {
+        // Arrange
+        WalletState wallet = wallet(Duration.ofHours(1));
+        long now = System.currentTimeMillis();
+        wallet.markApplied(WalletOperation.OperationType.DEBIT, "ref-1", now - HOUR / 2);
+        wallet.markApplied(WalletOperation.OperationType.DEBIT, "ref-2", now - HOUR / 4);
+
+        // Act
+        wallet.markApplied(WalletOperation.OperationType.DEBIT, "ref-3", now);
+
+        // Assert
+        assertTrue(wallet.isApplied(WalletOperation.OperationType.DEBIT, "ref-1"));
+        assertTrue(wallet.isApplied(WalletOperation.OperationType.DEBIT, "ref-2"));
+        assertTrue(wallet.isApplied(WalletOperation.OperationType.DEBIT, "ref-3"));
+    }
+
+    @Test
+    void markApplied_ShouldEvictOnlyTheExpiredPrefix_InApplicationOrder() {
+        // Arrange
+        WalletState wallet = wallet(Duration.ofHours(1));
+        long now = System.currentTimeMillis();
+        wallet.markApplied(WalletOperation.OperationType.CREDIT, "ref-1", now - 3 * HOUR);
+        wallet.markApplied(WalletOperation.OperationType.CREDIT, "ref-2", now - 2 * HOUR);
+
+        // Act
+        wallet.markApplied(WalletOperation.OperationType.CREDIT, "ref-3", now - HOUR / 2);
+
+        // Assert
+        assertFalse(wallet.isApplied(WalletOperation.OperationType.CREDIT, "ref-1"));
+        assertFalse(wallet.isApplied(WalletOperation.OperationType.CREDIT, "ref-2"));
+        assertTrue(wallet.isApplied(WalletOperation.OperationType.CREDIT, "ref-3"));
+    }
+
+    @Test
+    void isApplied_ShouldTellDebitsAndCreditsApart() {
+        // Arrange
+        WalletState wallet = wallet(Duration.ofHours(1));
+
+        // Act
+        wallet.markApplied(WalletOperation.OperationType.DEBIT, "ref-1", System.currentTimeMillis());
+
+        // Assert
+        assertTrue(wallet.isApplied(WalletOperation.OperationType.DEBIT, "ref-1"));
+        assertFalse(wallet.isApplied(WalletOperation.OperationType.CREDIT, "ref-1"));
+    }
+
+    private static WalletState wallet(Duration dedupWindow) {
+        return new WalletState(1L, 5L, "Hot wallet", "EUR", WalletType.CHECKING, true, LocalDateTime.now(),
+                new BigDecimal("100.00"), dedupWindow);
+    }
+}
@@ -0,0 +1,114 @@
+package com.fintech.wallet.service;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of concurrent debits/credits on one wallet, with the balance on the
+ * wallet row and then split across an increasing number of stripes. Needs a wallet_db
+ * whose schema was created by the service:
+ *
+ * <pre>
+ * java -cp ... com.fintech.wallet.service.StripedBalanceBenchmark \
+ *     jdbc:postgresql://localhost:5433/wallet_db postgres postgres [threads] [seconds]
+ * </pre>
+ *
+ * Every operation holds its lock for one transaction round-trip, so the single row
+ * caps throughput while stripes let that many transactions proceed in parallel.
+ */
+public class StripedBalanceBenchmark {
+
+    private static final int[] STRIPE_COUNTS = { 1, 2, 4, 8, 16, 32 };
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000000.00");
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : 32;
+        int seconds = args.length > 4 ? Integer.parseInt(args[4]) : 10;
+
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(args[0]);
+        config.setUsername(args[1]);
+        config.setPassword(args[2]);
+        config.setMaximumPoolSize(threads);
+
+        try (HikariDataSource dataSource = new HikariDataSource(config)) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            TransactionTemplate transactionTemplate = new TransactionTemplate(
+                    new DataSourceTransactionManager(dataSource));
+            StripedBalanceService stripes = new StripedBalanceService(jdbcTemplate, transactionTemplate,
+                    new SimpleMeterRegistry(), 0.5);
+
+            Long walletId = jdbcTemplate.queryForObject("INSERT INTO wallets "
+                    + "(user_id, name, currency, balance, opening_balance, wallet_type, active, created_at, version) "
+                    + "VALUES (0, 'benchmark', 'USD', ?, ?, 'BUSINESS', true, now(), 0) RETURNING id",
+                    Long.class, INITIAL_BALANCE, INITIAL_BALANCE);
+            try {
+                System.out.printf("%d threads, %d s per run%n", threads, seconds);
+
+                double baseline = run(threads, seconds, transactionTemplate, () -> jdbcTemplate.update(
+                        "UPDATE wallets SET balance = balance + ? WHERE id = ?", signedAmount(), walletId));
+                System.out.printf("%-12s %10.0f ops/s%n", "wallet row", baseline);
+
+                for (int stripeCount : STRIPE_COUNTS) {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        stripes.collapse(walletId);
+                        stripes.split(walletId, stripeCount, INITIAL_BALANCE);
+                    });
+                    double throughput = run(threads, seconds, transactionTemplate, () -> {
+                        if (ThreadLocalRandom.current().nextBoolean()) {
+                            stripes.credit(walletId, stripeCount, AMOUNT);
+                        } else {
+                            stripes.debit(walletId, AMOUNT);
+                        }
+                    });
+                    System.out.printf("%-12s %10.0f ops/s  (x%.1f)%n", stripeCount + " stripes", throughput,
+                            throughput / baseline);
+                }
+            } finally {
+                jdbcTemplate.update("DELETE FROM wallet_stripes WHERE wallet_id = ?", walletId);
+                jdbcTemplate.update("DELETE FROM wallets WHERE id = ?", walletId);
+            }
+        }
+    }
+
+    private static BigDecimal signedAmount() {
+        return ThreadLocalRandom.current().nextBoolean() ? AMOUNT : AMOUNT.negate();
+    }
+
+    private static double run(int threads, int seconds, TransactionTemplate transactionTemplate,
+            Runnable operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Future<Long>> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(executor.submit(() -> {
+                long operations = 0;
+                while (System.nanoTime() < deadline) {
+                    transactionTemplate.executeWithoutResult(status -> operation.run());
+                    operations++;
+                }
+                return operations;
+            }));
+        }
+        long total = 0;
+        for (Future<Long> worker : workers) {
+            total += worker.get();
+        }
+        executor.shutdown();
+        return (double) total / seconds;
+    }
+}
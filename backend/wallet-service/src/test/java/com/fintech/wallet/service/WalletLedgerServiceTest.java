@@ -0,0 +1,252 @@
+package com.fintech.wallet.service;
+
+import com.fintech.wallet.dto.LedgerBalanceDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WalletLedgerServiceTest {
+
+    private static final LocalDateTime AT = LocalDateTime.of(2024, 3, 15, 12, 0);
+
+    // Ledger of wallet 1 as (sequence, amount, created_at), as a query over wallet_ledger would see it
+    private static final List<Entry> LEDGER = List.of(
+            new Entry(1001, "25.00", AT.minusHours(2)),
+            new Entry(1002, "-10.00", AT.minusMinutes(1)),
+            new Entry(1003, "40.00", AT),
+            new Entry(1004, "-99.00", AT.plusSeconds(1)),
+            new Entry(1005, "500.00", AT.plusDays(1)));
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private WalletLedgerService ledgerService;
+
+    @BeforeEach
+    void setUp() {
+        ledgerService = new WalletLedgerService(jdbcTemplate, transactionTemplate, new SimpleMeterRegistry(), 3,
+                500, Duration.ofMinutes(5), Duration.ofDays(30), Duration.ofDays(7));
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    void getBalanceAt_ShouldAddEntriesUpToAt_ToTheLatestEarlierSnapshot() {
+        // Arrange
+        when(jdbcTemplate.queryForList(anyString(), eq(1L), eq(Timestamp.valueOf(AT))))
+                .thenReturn(List.of(Map.of("sequence", 1000L, "balance", new BigDecimal("100.00"))));
+        when(jdbcTemplate.queryForMap(anyString(), eq(1L), eq(1000L), any(Timestamp.class)))
+                .thenAnswer(invocation -> replay(invocation.getArgument(2), invocation.getArgument(3)));
+
+        // Act
+        LedgerBalanceDTO balance = ledgerService.getBalanceAt(1L, AT);
+
+        // Assert: entries created after AT are left out
+        assertEquals(new BigDecimal("155.00"), balance.getBalance());
+        assertEquals(1000L, balance.getSnapshotSequence());
+        assertEquals(3L, balance.getReplayedEntries());
+    }
+
+    @Test
+    void getBalanceAt_ShouldReturnSnapshotBalance_WhenNothingWasReplayed() {
+        // Arrange
+        LocalDateTime before = AT.minusDays(1);
+        when(jdbcTemplate.queryForList(anyString(), eq(1L), eq(Timestamp.valueOf(before))))
+                .thenReturn(List.of(Map.of("sequence", 1000L, "balance", new BigDecimal("100.00"))));
+        when(jdbcTemplate.queryForMap(anyString(), eq(1L), eq(1000L), any(Timestamp.class)))
+                .thenAnswer(invocation -> replay(invocation.getArgument(2), invocation.getArgument(3)));
+
+        // Act
+        LedgerBalanceDTO balance = ledgerService.getBalanceAt(1L, before);
+
+        // Assert
+        assertEquals(new BigDecimal("100.00"), balance.getBalance());
+        assertEquals(0L, balance.getReplayedEntries());
+    }
+
+    @Test
+    void getBalanceAt_ShouldReturn404_WhenNoSnapshotPrecedesAt() {
+        // Arrange
+        when(jdbcTemplate.queryForList(anyString(), eq(1L), any(Timestamp.class))).thenReturn(List.of());
+
+        // Act & Assert
+        ResponseStatusException error = assertThrows(ResponseStatusException.class,
+                () -> ledgerService.getBalanceAt(1L, AT));
+        assertEquals(HttpStatus.NOT_FOUND, error.getStatusCode());
+    }
+
+    @Test
+    void takeSnapshots_ShouldRecordBaselinesFirst_InTheirOwnTransaction() {
+        // Arrange
+        when(jdbcTemplate.update(contains("wallet_stripes"))).thenReturn(2);
+        when(jdbcTemplate.queryForList(anyString(), any(Timestamp.class), eq(3), eq(500))).thenReturn(List.of());
+
+        // Act
+        ledgerService.takeSnapshots();
+
+        // Assert
+        InOrder order = inOrder(transactionTemplate, jdbcTemplate);
+        order.verify(transactionTemplate).execute(any());
+        order.verify(jdbcTemplate).update(contains("SELECT w.id, 0, w.balance"));
+        order.verify(jdbcTemplate).queryForList(anyString(), any(Timestamp.class), eq(3), eq(500));
+    }
+
+    @Test
+    void takeSnapshots_ShouldOnlyFoldEntriesOlderThanTheHorizon() {
+        // Arrange: two entries are older than the 5 minute horizon, one is more recent
+        LocalDateTime now = LocalDateTime.now();
+        List<Entry> ledger = List.of(
+                new Entry(1, "25.00", now.minusHours(1)),
+                new Entry(2, "-10.00", now.minusMinutes(6)),
+                new Entry(3, "40.00", now.minusMinutes(1)));
+        when(jdbcTemplate.update(contains("wallet_stripes"))).thenReturn(0);
+        when(jdbcTemplate.queryForList(anyString(), any(Timestamp.class), eq(3), eq(500))).thenReturn(
+                List.of(Map.of("wallet_id", 1L, "sequence", 0L, "balance", new BigDecimal("100.00"))));
+        when(jdbcTemplate.queryForObject(contains("MAX(sequence)"), eq(Long.class), eq(1L), eq(0L),
+                any(Timestamp.class))).thenAnswer(invocation -> {
+                    Timestamp horizon = invocation.getArgument(4);
+                    return ledger.stream()
+                            .filter(entry -> entry.createdAt().isBefore(horizon.toLocalDateTime()))
+                            .map(Entry::sequence)
+                            .max(Long::compare)
+                            .orElse(null);
+                });
+        when(jdbcTemplate.queryForMap(contains("SUM(amount) AS total"), eq(1L), eq(0L), eq(2L)))
+                .thenReturn(Map.of("total", new BigDecimal("15.00"),
+                        "as_of", Timestamp.valueOf(now.minusMinutes(6))));
+
+        // Act
+        ledgerService.takeSnapshots();
+
+        // Assert
+        verify(jdbcTemplate).update(contains("INSERT INTO wallet_balance_snapshots"), eq(1L), eq(2L),
+                eq(new BigDecimal("115.00")), eq(Timestamp.valueOf(now.minusMinutes(6))), any(Timestamp.class));
+    }
+
+    @Test
+    void takeSnapshots_ShouldSkipWallet_WhenEveryNewEntryIsWithinTheHorizon() {
+        // Arrange
+        when(jdbcTemplate.update(contains("wallet_stripes"))).thenReturn(0);
+        when(jdbcTemplate.queryForList(anyString(), any(Timestamp.class), eq(3), eq(500))).thenReturn(
+                List.of(Map.of("wallet_id", 1L, "sequence", 0L, "balance", new BigDecimal("100.00"))));
+        when(jdbcTemplate.queryForObject(contains("MAX(sequence)"), eq(Long.class), eq(1L), eq(0L),
+                any(Timestamp.class))).thenReturn(null);
+
+        // Act
+        ledgerService.takeSnapshots();
+
+        // Assert
+        verify(jdbcTemplate, never()).update(contains("INSERT INTO wallet_balance_snapshots"), any(), any(), any(),
+                any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void compactSnapshots_ShouldKeepFirstSnapshotAndLastOfEachDay_PastTheRetention() {
+        // Arrange
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(30);
+        LocalDateTime dayOne = cutoff.toLocalDate().minusDays(2).atStartOfDay();
+        LocalDateTime dayTwo = dayOne.plusDays(1);
+        List<WalletLedgerService.SnapshotRow> snapshots = List.of(
+                new WalletLedgerService.SnapshotRow(1L, 0, dayOne.plusHours(1), true),
+                new WalletLedgerService.SnapshotRow(1L, 1000, dayOne.plusHours(2), false),
+                new WalletLedgerService.SnapshotRow(1L, 2000, dayOne.plusHours(3), false),
+                new WalletLedgerService.SnapshotRow(1L, 3000, dayTwo.plusHours(1), false),
+                new WalletLedgerService.SnapshotRow(1L, 4000, dayTwo.plusHours(5), false),
+                new WalletLedgerService.SnapshotRow(2L, 500, dayTwo.plusHours(2), false),
+                new WalletLedgerService.SnapshotRow(2L, 600, dayTwo.plusHours(3), false));
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Timestamp.class), any(Timestamp.class)))
+                .thenReturn(snapshots);
+
+        // Act
+        ledgerService.compactSnapshots();
+
+        // Assert
+        ArgumentCaptor<List<Object[]>> deleted = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(contains("DELETE FROM wallet_balance_snapshots"), deleted.capture());
+        assertEquals(List.of("1:1000", "1:3000", "2:500"), deleted.getValue().stream()
+                .map(row -> row[0] + ":" + row[1])
+                .toList());
+    }
+
+    @Test
+    void compactable_ShouldKeepSnapshotsNewerThanTheCutoff() {
+        // Arrange: same day, but only the first one is past the retention
+        LocalDateTime cutoff = AT;
+        List<WalletLedgerService.SnapshotRow> snapshots = List.of(
+                new WalletLedgerService.SnapshotRow(1L, 0, AT.minusHours(6), true),
+                new WalletLedgerService.SnapshotRow(1L, 1000, AT.minusHours(1), false),
+                new WalletLedgerService.SnapshotRow(1L, 2000, AT.plusHours(1), false),
+                new WalletLedgerService.SnapshotRow(1L, 3000, AT.plusHours(2), false));
+
+        // Act
+        List<WalletLedgerService.SnapshotRow> compactable = WalletLedgerService.compactable(snapshots, cutoff);
+
+        // Assert
+        assertEquals(List.of(snapshots.get(1)), compactable);
+    }
+
+    @Test
+    void compactSnapshots_ShouldReadWholeDaysOfTheCompactionWindow() {
+        // Arrange
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(30);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Timestamp.class), any(Timestamp.class)))
+                .thenReturn(List.of());
+
+        // Act
+        ledgerService.compactSnapshots();
+
+        // Assert
+        verify(jdbcTemplate).query(anyString(), any(RowMapper.class),
+                eq(Timestamp.valueOf(cutoff.toLocalDate().minusDays(7).atStartOfDay())),
+                eq(Timestamp.valueOf(cutoff.toLocalDate().plusDays(1).atStartOfDay())));
+    }
+
+    private static Map<String, Object> replay(long afterSequence, Timestamp at) {
+        List<Entry> replayed = LEDGER.stream()
+                .filter(entry -> entry.sequence() > afterSequence && !entry.createdAt().isAfter(at.toLocalDateTime()))
+                .toList();
+        return Map.of("total", replayed.stream().map(Entry::amount).reduce(BigDecimal.ZERO, BigDecimal::add),
+                "entries", (long) replayed.size());
+    }
+
+    private record Entry(long sequence, BigDecimal amount, LocalDateTime createdAt) {
+
+        Entry(long sequence, String amount, LocalDateTime createdAt) {
+            this(sequence, new BigDecimal(amount), createdAt);
+        }
+    }
+}
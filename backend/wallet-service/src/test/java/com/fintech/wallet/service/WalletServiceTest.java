@@ -1,18 +1,29 @@
 package com.fintech.wallet.service;
 
 import com.fintech.shared.dto.WalletDTO;
+import com.fintech.wallet.config.WalletLockingProperties;
 import com.fintech.wallet.dto.CreateWalletRequest;
+import com.fintech.wallet.engine.BalanceEngine;
 import com.fintech.wallet.entity.Wallet;
 import com.fintech.wallet.entity.WalletType;
+import com.fintech.wallet.entity.WalletOperation;
+import com.fintech.wallet.repository.WalletOperationRepository;
 import com.fintech.wallet.repository.WalletRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -24,9 +35,36 @@ class WalletServiceTest {
     @Mock
     private WalletRepository walletRepository;
 
+    @Mock
+    private WalletOperationRepository walletOperationRepository;
+
+    @Mock
+    private BalanceEngine balanceEngine;
+
+    @Mock
+    private StripedBalanceService stripedBalanceService;
+
+    @Mock
+    private ConflictRetryExecutor conflictRetryExecutor;
+
+    @Mock
+    private WalletReadCache walletReadCache;
+
+    @Mock
+    private WalletLedgerService walletLedgerService;
+
+    @Spy
+    private WalletLockingProperties lockingProperties = new WalletLockingProperties();
+
     @InjectMocks
     private WalletService walletService;
 
+    @BeforeEach
+    void runOperationsDirectly() {
+        lenient().when(conflictRetryExecutor.execute(any(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(3).get());
+    }
+
     @Test
     void createWallet_ShouldReturnWalletDTO() {
         // Arrange
@@ -68,6 +106,7 @@ class WalletServiceTest {
 
         Wallet existingWallet = Wallet.builder()
                 .id(walletId)
+                .currency("USD")
                 .balance(new BigDecimal("100.00"))
                 .walletType(WalletType.CHECKING)
                 .build();
@@ -82,6 +121,7 @@ class WalletServiceTest {
         assertEquals(new BigDecimal("50.00"), result.getBalance());
         verify(walletRepository).findByIdWithLock(walletId);
         verify(walletRepository).save(existingWallet);
+        verify(walletLedgerService).append(walletId, WalletOperation.OperationType.DEBIT, debitAmount, null);
     }
 
     @Test
@@ -92,6 +132,7 @@ class WalletServiceTest {
 
         Wallet existingWallet = Wallet.builder()
                 .id(walletId)
+                .currency("USD")
                 .balance(new BigDecimal("100.00"))
                 .walletType(WalletType.CHECKING)
                 .build();
@@ -103,6 +144,26 @@ class WalletServiceTest {
         verify(walletRepository, never()).save(any(Wallet.class));
     }
 
+    @Test
+    void debitWallet_ShouldRejectAmountsFinerThanMoneyScale() {
+        // Arrange
+        Wallet existingWallet = Wallet.builder()
+                .id(1L)
+                .currency("USD")
+                .balance(new BigDecimal("100.00"))
+                .walletType(WalletType.CHECKING)
+                .build();
+        when(walletRepository.findByIdWithLock(1L)).thenReturn(Optional.of(existingWallet));
+
+        // Act
+        ResponseStatusException error = assertThrows(ResponseStatusException.class,
+                () -> walletService.debitWallet(1L, new BigDecimal("0.00001")));
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, error.getStatusCode());
+        verify(walletRepository, never()).save(any(Wallet.class));
+    }
+
     @Test
     void creditWallet_ShouldIncreaseBalance() {
         // Arrange
@@ -111,6 +172,7 @@ class WalletServiceTest {
 
         Wallet existingWallet = Wallet.builder()
                 .id(walletId)
+                .currency("USD")
                 .balance(new BigDecimal("100.00"))
                 .walletType(WalletType.CHECKING)
                 .build();
@@ -126,4 +188,238 @@ class WalletServiceTest {
         verify(walletRepository).findByIdWithLock(walletId);
         verify(walletRepository).save(existingWallet);
     }
+
+    @Test
+    void debitWallet_ShouldNotDebitTwice_WhenReferenceAlreadyApplied() {
+        // Arrange
+        Long walletId = 1L;
+
+        Wallet existingWallet = Wallet.builder()
+                .id(walletId)
+                .currency("USD")
+                .balance(new BigDecimal("100.00"))
+                .walletType(WalletType.CHECKING)
+                .build();
+
+        when(walletRepository.findByIdWithLock(walletId)).thenReturn(Optional.of(existingWallet));
+        when(walletOperationRepository.existsByReferenceAndOperationType("ref-1", WalletOperation.OperationType.DEBIT))
+                .thenReturn(true);
+
+        // Act
+        WalletDTO result = walletService.debitWallet(walletId, new BigDecimal("50.00"), "ref-1");
+
+        // Assert
+        assertEquals(new BigDecimal("100.00"), result.getBalance());
+        verify(walletRepository, never()).save(any(Wallet.class));
+        verify(walletOperationRepository, never()).save(any(WalletOperation.class));
+    }
+
+    @Test
+    void transfer_ShouldMoveFundsAndLockInIdOrder() {
+        // Arrange
+        Wallet source = Wallet.builder()
+                .id(2L)
+                .currency("USD")
+                .balance(new BigDecimal("100.00"))
+                .walletType(WalletType.CHECKING)
+                .build();
+        Wallet destination = Wallet.builder()
+                .id(1L)
+                .currency("USD")
+                .balance(new BigDecimal("10.00"))
+                .walletType(WalletType.SAVINGS)
+                .build();
+
+        when(walletRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(destination));
+        when(walletRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(source));
+
+        // Act
+        WalletDTO result = walletService.transfer(2L, 1L, new BigDecimal("40.00"), "ref-1");
+
+        // Assert
+        assertEquals(new BigDecimal("60.00"), result.getBalance());
+        assertEquals(new BigDecimal("50.00"), destination.getBalance());
+        InOrder lockOrder = inOrder(walletRepository);
+        lockOrder.verify(walletRepository).findByIdForUpdate(1L);
+        lockOrder.verify(walletRepository).findByIdForUpdate(2L);
+    }
+
+    @Test
+    void transfer_ShouldUseConditionalUpdates_WhenStrategyIsAtomic() {
+        // Arrange
+        lockingProperties.getStrategies().put("transfer", WalletLockingProperties.LockStrategy.ATOMIC);
+        Wallet source = Wallet.builder().id(1L).currency("USD").balance(new BigDecimal("100.00"))
+                .walletType(WalletType.CHECKING).build();
+        Wallet destination = Wallet.builder().id(2L).currency("USD").balance(new BigDecimal("10.00"))
+                .walletType(WalletType.SAVINGS).build();
+        Wallet debited = Wallet.builder().id(1L).currency("USD").balance(new BigDecimal("60.00"))
+                .walletType(WalletType.CHECKING).build();
+
+        when(walletRepository.findById(1L)).thenReturn(Optional.of(source), Optional.of(debited));
+        when(walletRepository.findById(2L)).thenReturn(Optional.of(destination));
+        when(walletRepository.debitIfCovered(eq(1L), eq(new BigDecimal("40.00")), any())).thenReturn(1);
+
+        // Act
+        WalletDTO result = walletService.transfer(1L, 2L, new BigDecimal("40.00"), "ref-1");
+
+        // Assert
+        assertEquals(new BigDecimal("60.00"), result.getBalance());
+        verify(walletRepository).credit(eq(2L), eq(new BigDecimal("40.00")), any());
+        verify(walletRepository, never()).findByIdForUpdate(any());
+        verify(walletRepository, never()).save(any(Wallet.class));
+    }
+
+    @Test
+    void debitWallet_ShouldReturnCurrentWallet_WhenSameReferenceWasAppliedConcurrently() {
+        // Arrange
+        Wallet wallet = Wallet.builder().id(1L).currency("USD").balance(new BigDecimal("70.00"))
+                .walletType(WalletType.CHECKING).build();
+        doThrow(new DataIntegrityViolationException("duplicate key (reference, operation_type)"))
+                .when(conflictRetryExecutor).execute(any(), any(), any(), any());
+        when(walletRepository.findById(1L)).thenReturn(Optional.of(wallet));
+
+        // Act
+        WalletDTO result = walletService.debitWallet(1L, new BigDecimal("30.00"), "ref-1");
+
+        // Assert
+        assertEquals(new BigDecimal("70.00"), result.getBalance());
+    }
+
+    @Test
+    void debitWallet_ShouldPropagateIntegrityViolation_WhenUnreferenced() {
+        doThrow(new DataIntegrityViolationException("check constraint"))
+                .when(conflictRetryExecutor).execute(any(), any(), any(), any());
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> walletService.debitWallet(1L, new BigDecimal("30.00")));
+    }
+
+    @Test
+    void transfer_ShouldCreditSourceBack_WhenDestinationRefusesEngineTransfer() {
+        // Arrange
+        WalletDTO debited = WalletDTO.builder().id(1L).balance(new BigDecimal("60.00")).build();
+        when(balanceEngine.owns(1L)).thenReturn(true);
+        when(balanceEngine.debit(1L, new BigDecimal("40.00"), "ref-1")).thenReturn(debited);
+        when(walletRepository.findByIdWithLock(2L)).thenReturn(Optional.empty());
+
+        // Act
+        ResponseStatusException error = assertThrows(ResponseStatusException.class,
+                () -> walletService.transfer(1L, 2L, new BigDecimal("40.00"), "ref-1"));
+
+        // Assert
+        assertEquals(HttpStatus.NOT_FOUND, error.getStatusCode());
+        verify(balanceEngine).credit(1L, new BigDecimal("40.00"), "ref-1");
+    }
+
+    @Test
+    void isDebitApplied_ShouldReturnTrue_WhenDebitStands() {
+        // Arrange
+        when(walletOperationRepository.existsByWalletIdAndReferenceAndOperationType(1L, "ref-1",
+                WalletOperation.OperationType.DEBIT)).thenReturn(true);
+        when(walletOperationRepository.existsByWalletIdAndReferenceAndOperationType(1L, "ref-1",
+                WalletOperation.OperationType.CREDIT)).thenReturn(false);
+
+        // Act & Assert
+        assertTrue(walletService.isDebitApplied(1L, "ref-1"));
+    }
+
+    @Test
+    void isDebitApplied_ShouldReturnFalse_WhenTransferWasCreditedBack() {
+        // Arrange
+        when(walletOperationRepository.existsByWalletIdAndReferenceAndOperationType(1L, "ref-1",
+                WalletOperation.OperationType.DEBIT)).thenReturn(true);
+        when(walletOperationRepository.existsByWalletIdAndReferenceAndOperationType(1L, "ref-1",
+                WalletOperation.OperationType.CREDIT)).thenReturn(true);
+
+        // Act & Assert
+        assertFalse(walletService.isDebitApplied(1L, "ref-1"));
+    }
+
+    @Test
+    void transfer_ShouldKeepDebit_WhenEngineCreditMayHaveBeenApplied() {
+        // Arrange
+        WalletDTO debited = WalletDTO.builder().id(1L).balance(new BigDecimal("60.00")).build();
+        when(balanceEngine.owns(1L)).thenReturn(true);
+        when(balanceEngine.owns(2L)).thenReturn(true);
+        when(balanceEngine.debit(1L, new BigDecimal("40.00"), "ref-1")).thenReturn(debited);
+        when(balanceEngine.credit(2L, new BigDecimal("40.00"), "ref-1"))
+                .thenThrow(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Balance engine timed out"));
+
+        // Act & Assert
+        assertThrows(ResponseStatusException.class,
+                () -> walletService.transfer(1L, 2L, new BigDecimal("40.00"), "ref-1"));
+        verify(balanceEngine, never()).credit(eq(1L), any(), any());
+    }
+
+    @Test
+    void transfer_ShouldReject_WhenEngineTransferWasReversed() {
+        // Arrange
+        when(balanceEngine.owns(1L)).thenReturn(true);
+        when(walletOperationRepository.existsByWalletIdAndReferenceAndOperationType(1L, "ref-1",
+                WalletOperation.OperationType.CREDIT)).thenReturn(true);
+
+        // Act
+        ResponseStatusException error = assertThrows(ResponseStatusException.class,
+                () -> walletService.transfer(1L, 2L, new BigDecimal("40.00"), "ref-1"));
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, error.getStatusCode());
+        verify(balanceEngine, never()).debit(any(), any(), any());
+    }
+
+    @Test
+    void debitWallet_ShouldDebitStripes_WhenWalletIsStriped() {
+        // Arrange
+        Long walletId = 1L;
+
+        Wallet stripedWallet = Wallet.builder()
+                .id(walletId)
+                .currency("USD")
+                .balance(BigDecimal.ZERO)
+                .stripeCount(4)
+                .walletType(WalletType.BUSINESS)
+                .build();
+
+        when(walletRepository.findByIdWithLock(walletId)).thenReturn(Optional.of(stripedWallet));
+        when(stripedBalanceService.getBalance(walletId)).thenReturn(new BigDecimal("950.00"));
+
+        // Act
+        WalletDTO result = walletService.debitWallet(walletId, new BigDecimal("50.00"));
+
+        // Assert
+        assertEquals(new BigDecimal("950.00"), result.getBalance());
+        verify(stripedBalanceService).debit(walletId, new BigDecimal("50.00"));
+        verify(walletRepository, never()).save(any(Wallet.class));
+    }
+
+    @Test
+    void debitWallet_ShouldUseConditionalUpdate_WhenStrategyIsAtomic() {
+        // Arrange
+        Long walletId = 1L;
+        lockingProperties.getStrategies().put("debit", WalletLockingProperties.LockStrategy.ATOMIC);
+
+        Wallet before = Wallet.builder()
+                .id(walletId)
+                .currency("USD")
+                .balance(new BigDecimal("100.00"))
+                .walletType(WalletType.CHECKING)
+                .build();
+        Wallet after = Wallet.builder()
+                .id(walletId)
+                .currency("USD")
+                .balance(new BigDecimal("70.00"))
+                .walletType(WalletType.CHECKING)
+                .build();
+
+        when(walletRepository.findById(walletId)).thenReturn(Optional.of(before), Optional.of(after));
+        when(walletRepository.debitIfCovered(eq(walletId), eq(new BigDecimal("30.00")), any())).thenReturn(1);
+
+        // Act
+        WalletDTO result = walletService.debitWallet(walletId, new BigDecimal("30.00"));
+
+        // Assert
+        assertEquals(new BigDecimal("70.00"), result.getBalance());
+        verify(walletRepository, never()).findByIdWithLock(any());
+        verify(walletRepository, never()).save(any(Wallet.class));
+    }
 }
@@ -30,7 +30,7 @@ export const walletAPI = {
 }
 
 export const transactionAPI = {
-    getByWallet: (walletId) => apiClient.get(`/api/transactions/wallet/${walletId}`),
+    getByWallet: (walletId, params) => apiClient.get(`/api/transactions/wallet/${walletId}`, { params }),
     create: (data) => apiClient.post('/api/transactions', data),
     getById: (id) => apiClient.get(`/api/transactions/${id}`)
 }